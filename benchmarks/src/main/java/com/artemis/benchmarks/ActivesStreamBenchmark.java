@@ -0,0 +1,77 @@
+package com.artemis.benchmarks;
+
+import com.artemis.Aspect;
+import com.artemis.ComponentMapper;
+import com.artemis.Entity;
+import com.artemis.World;
+import com.artemis.benchmarks.component.Health;
+import com.artemis.systems.EntityProcessingSystem;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * An ad-hoc query over a system's actives, summing a component field with a
+ * sequential and a parallel stream.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class ActivesStreamBenchmark {
+
+	@Param({"100000", "1000000"})
+	public int entityCount;
+
+	private HealthSystem system;
+	private ComponentMapper<Health> hm;
+
+	@Setup
+	public void setup() {
+		World world = new World();
+		system = world.setSystem(new HealthSystem(), true);
+		world.initialize();
+
+		for (int i = 0; i < entityCount; i++) {
+			Entity e = world.createEntity();
+			Health health = new Health();
+			health.hitPoints = i % 100;
+			e.addComponent(health);
+			e.addToWorld();
+		}
+		world.process();
+		hm = world.getMapper(Health.class);
+	}
+
+	@Benchmark
+	public long sequential() {
+		return system.getActives().stream().mapToLong(e -> hm.get(e).hitPoints).sum();
+	}
+
+	@Benchmark
+	public long parallel() {
+		return system.getActives().parallelStream().mapToLong(e -> hm.get(e).hitPoints).sum();
+	}
+
+	static class HealthSystem extends EntityProcessingSystem {
+		@SuppressWarnings("unchecked")
+		HealthSystem() {
+			super(Aspect.getAspectForAll(Health.class));
+		}
+
+		@Override
+		protected void process(Entity e) {}
+	}
+}
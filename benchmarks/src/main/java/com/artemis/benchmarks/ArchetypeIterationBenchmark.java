@@ -0,0 +1,143 @@
+package com.artemis.benchmarks;
+
+import com.artemis.Aspect;
+import com.artemis.Chunk;
+import com.artemis.ComponentMapper;
+import com.artemis.ComponentType;
+import com.artemis.Entity;
+import com.artemis.World;
+import com.artemis.annotations.Mapper;
+import com.artemis.benchmarks.component.Health;
+import com.artemis.benchmarks.component.Position;
+import com.artemis.benchmarks.component.Renderable;
+import com.artemis.benchmarks.component.Velocity;
+import com.artemis.systems.ChunkProcessingSystem;
+import com.artemis.systems.EntityProcessingSystem;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One movement system over entities of four compositions, with components
+ * stored in one bag per type and read through mappers, or stored by archetype
+ * and read column by column from chunks. Entities are created in random order
+ * of composition and a share of them is deleted and respawned, so the ids of
+ * the moving entities are spread out as in a long running simulation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class ArchetypeIterationBenchmark {
+
+	@Param({"100000", "1000000"})
+	public int entities;
+
+	@Param({"bags", "archetypes"})
+	public String storage;
+
+	private World world;
+
+	@Setup
+	public void setup() {
+		world = new World();
+		if("archetypes".equals(storage)) {
+			world.setArchetypeStorage(1024);
+			world.setSystem(new ChunkMovementSystem());
+		} else {
+			world.setSystem(new MovementSystem());
+		}
+		world.initialize();
+
+		Random random = new Random(4711);
+		Entity[] spawned = new Entity[entities];
+		for (int i = 0; i < entities; i++) {
+			spawned[i] = spawn(random);
+		}
+		world.process();
+
+		for (int i = 0; i < entities / 4; i++) {
+			spawned[random.nextInt(entities)].deleteFromWorld();
+		}
+		world.process();
+		for (int i = 0; i < entities / 4; i++) {
+			spawn(random);
+		}
+		world.process();
+	}
+
+	private Entity spawn(Random random) {
+		Entity e = world.createEntity();
+		int kind = random.nextInt(4);
+		if(kind != 3) {
+			e.addComponent(new Position());
+			e.addComponent(new Velocity());
+		}
+		if(kind == 1 || kind == 3)
+			e.addComponent(new Health());
+		if(kind == 2)
+			e.addComponent(new Renderable());
+		e.addToWorld();
+		return e;
+	}
+
+	@Benchmark
+	public World process() {
+		world.process();
+		return world;
+	}
+
+	static class MovementSystem extends EntityProcessingSystem {
+		@Mapper ComponentMapper<Position> pm;
+		@Mapper ComponentMapper<Velocity> vm;
+
+		@SuppressWarnings("unchecked")
+		MovementSystem() {
+			super(Aspect.getAspectForAll(Position.class, Velocity.class));
+			setActivesSorted(true);
+		}
+
+		@Override
+		protected void process(Entity e) {
+			Position p = pm.get(e);
+			Velocity v = vm.get(e);
+			p.x += v.x;
+			p.y += v.y;
+		}
+	}
+
+	static class ChunkMovementSystem extends ChunkProcessingSystem {
+		private final ComponentType positionType = ComponentType.getTypeFor(Position.class);
+		private final ComponentType velocityType = ComponentType.getTypeFor(Velocity.class);
+
+		@SuppressWarnings("unchecked")
+		ChunkMovementSystem() {
+			super(Aspect.getAspectForAll(Position.class, Velocity.class));
+		}
+
+		@Override
+		protected void process(Chunk chunk) {
+			Position[] positions = (Position[]) chunk.getColumn(positionType);
+			Velocity[] velocities = (Velocity[]) chunk.getColumn(velocityType);
+			for (int i = 0, s = chunk.size(); s > i; i++) {
+				Position p = positions[i];
+				Velocity v = velocities[i];
+				p.x += v.x;
+				p.y += v.y;
+			}
+		}
+	}
+}
@@ -0,0 +1,113 @@
+package com.artemis.benchmarks;
+
+import com.artemis.Aspect;
+import com.artemis.Entity;
+import com.artemis.EntitySystem;
+import com.artemis.World;
+import com.artemis.benchmarks.component.Frozen;
+import com.artemis.benchmarks.component.Health;
+import com.artemis.benchmarks.component.Position;
+import com.artemis.benchmarks.component.Renderable;
+import com.artemis.benchmarks.component.Velocity;
+import com.artemis.systems.EntityProcessingSystem;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * EntitySystem.check for different Aspect shapes. The system is notified of a
+ * change for entities with a spread of compositions; after the first round the
+ * memberships are settled, so the score is the cost of the aspect match itself.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class AspectCheckBenchmark {
+	private static final int ENTITIES = 1024;
+
+	@Param({"all1", "all3", "all2_exclude2", "one3", "all2_one2_exclude1"})
+	public String shape;
+
+	private Entity[] entities;
+	private EntitySystem system;
+
+	@Setup
+	@SuppressWarnings("unchecked")
+	public void setup() {
+		World world = new World();
+		system = world.setSystem(new CheckedSystem(aspectFor(shape)), true);
+		world.initialize();
+
+		entities = new Entity[ENTITIES];
+		for (int i = 0; i < ENTITIES; i++) {
+			Entity e = world.createEntity();
+			if ((i & 1) == 0)
+				e.addComponent(new Position());
+			if ((i & 2) == 0)
+				e.addComponent(new Velocity());
+			if ((i & 4) == 0)
+				e.addComponent(new Health());
+			if ((i & 8) == 0)
+				e.addComponent(new Renderable());
+			if ((i & 16) == 0)
+				e.addComponent(new Frozen());
+			e.addToWorld();
+			entities[i] = e;
+		}
+		world.process();
+
+		for (Entity e : entities) {
+			system.changed(e);
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private static Aspect aspectFor(String shape) {
+		switch (shape) {
+			case "all1":
+				return Aspect.getAspectForAll(Position.class);
+			case "all3":
+				return Aspect.getAspectForAll(Position.class, Velocity.class, Health.class);
+			case "all2_exclude2":
+				return Aspect.getAspectForAll(Position.class, Velocity.class).exclude(Frozen.class, Renderable.class);
+			case "one3":
+				return Aspect.getAspectForOne(Velocity.class, Health.class, Renderable.class);
+			case "all2_one2_exclude1":
+				return Aspect.getAspectForAll(Position.class, Velocity.class).one(Health.class, Renderable.class).exclude(Frozen.class);
+			default:
+				throw new IllegalArgumentException(shape);
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(ENTITIES)
+	public EntitySystem check() {
+		for (Entity e : entities) {
+			system.changed(e);
+		}
+		return system;
+	}
+
+	static class CheckedSystem extends EntityProcessingSystem {
+		CheckedSystem(Aspect aspect) {
+			super(aspect);
+		}
+
+		@Override
+		protected void process(Entity e) {}
+	}
+}
@@ -0,0 +1,124 @@
+package com.artemis.benchmarks;
+
+import com.artemis.utils.Bag;
+import com.artemis.utils.PagedBag;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bag.add, Bag.remove(Object) and the two ways of iterating a Bag. The add and
+ * remove benchmarks work on the whole bag per invocation, so the scores include
+ * the linear membership scans those operations perform. The set benchmarks
+ * compare filling a Bag by index, which copies its array as it grows, with
+ * filling a PagedBag.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class BagBenchmark {
+
+	@Param({"100", "1000", "10000"})
+	public int size;
+
+	private Object[] elements;
+	private Bag<Object> filled;
+	private PagedBag<Object> paged;
+
+	@Setup
+	public void setup() {
+		elements = new Object[size];
+		for (int i = 0; i < size; i++) {
+			elements[i] = new Object();
+		}
+
+		filled = new Bag<>();
+		for (Object o : elements) {
+			filled.add(o);
+		}
+
+		paged = new PagedBag<>();
+		for (int i = 0; i < size; i++) {
+			paged.set(i, elements[i]);
+		}
+	}
+
+	@Benchmark
+	public Bag<Object> add() {
+		Bag<Object> bag = new Bag<>();
+		for (Object o : elements) {
+			bag.add(o);
+		}
+		return bag;
+	}
+
+	@Benchmark
+	public Bag<Object> addThenRemoveObject() {
+		Bag<Object> bag = new Bag<>();
+		for (Object o : elements) {
+			bag.add(o);
+		}
+		for (Object o : elements) {
+			bag.remove(o);
+		}
+		return bag;
+	}
+
+	@Benchmark
+	public int iterateIndexed() {
+		int hash = 0;
+		for (int i = 0, s = filled.size(); s > i; i++) {
+			hash ^= System.identityHashCode(filled.get(i));
+		}
+		return hash;
+	}
+
+	@Benchmark
+	public int iterateIterator() {
+		int hash = 0;
+		for (Object o : filled) {
+			hash ^= System.identityHashCode(o);
+		}
+		return hash;
+	}
+
+	@Benchmark
+	public Bag<Object> setByIndex() {
+		Bag<Object> bag = new Bag<>();
+		for (int i = 0; i < size; i++) {
+			bag.set(i, elements[i]);
+		}
+		return bag;
+	}
+
+	@Benchmark
+	public PagedBag<Object> pagedSetByIndex() {
+		PagedBag<Object> bag = new PagedBag<>();
+		for (int i = 0; i < size; i++) {
+			bag.set(i, elements[i]);
+		}
+		return bag;
+	}
+
+	@Benchmark
+	public int pagedIterateIndexed() {
+		int hash = 0;
+		for (int i = 0, s = paged.size(); s > i; i++) {
+			hash ^= System.identityHashCode(paged.get(i));
+		}
+		return hash;
+	}
+}
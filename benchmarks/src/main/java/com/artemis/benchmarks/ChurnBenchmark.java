@@ -0,0 +1,105 @@
+package com.artemis.benchmarks;
+
+import com.artemis.Aspect;
+import com.artemis.ComponentMapper;
+import com.artemis.Entity;
+import com.artemis.World;
+import com.artemis.annotations.Mapper;
+import com.artemis.benchmarks.component.Position;
+import com.artemis.benchmarks.component.Velocity;
+import com.artemis.systems.EntityProcessingSystem;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A frame in which one percent of a large system's entities leave it and the
+ * same number come back, so each frame pays for removals from and insertions
+ * into the system's actives on top of processing them.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class ChurnBenchmark {
+
+	@Param({"10000", "100000", "500000"})
+	public int entityCount;
+
+	@Param({"false", "true"})
+	public boolean sorted;
+
+	private World world;
+	private Entity[] entities;
+	private boolean[] disabled;
+	private Random random;
+
+	@Setup
+	public void setup() {
+		MovementSystem movement = new MovementSystem();
+		movement.setActivesSorted(sorted);
+
+		world = new World();
+		world.setSystem(movement);
+		world.initialize();
+
+		entities = new Entity[entityCount];
+		disabled = new boolean[entityCount];
+		for (int i = 0; i < entityCount; i++) {
+			Entity e = world.createEntity();
+			e.addComponent(new Position());
+			e.addComponent(new Velocity());
+			e.addToWorld();
+			entities[i] = e;
+		}
+
+		random = new Random(42);
+		world.setDelta(1 / 60d);
+		world.process();
+	}
+
+	@Benchmark
+	public World churn() {
+		for (int i = 0, n = entityCount / 100; n > i; i++) {
+			int index = random.nextInt(entityCount);
+			if(disabled[index])
+				entities[index].enable();
+			else
+				entities[index].disable();
+			disabled[index] = !disabled[index];
+		}
+		world.process();
+		return world;
+	}
+
+	static class MovementSystem extends EntityProcessingSystem {
+		@Mapper ComponentMapper<Position> pm;
+		@Mapper ComponentMapper<Velocity> vm;
+
+		@SuppressWarnings("unchecked")
+		MovementSystem() {
+			super(Aspect.getAspectForAll(Position.class, Velocity.class));
+		}
+
+		@Override
+		protected void process(Entity e) {
+			Position p = pm.get(e);
+			Velocity v = vm.get(e);
+			p.x += v.x * world.getDelta();
+			p.y += v.y * world.getDelta();
+		}
+	}
+}
@@ -0,0 +1,98 @@
+package com.artemis.benchmarks;
+
+import com.artemis.ComponentMapper;
+import com.artemis.Entity;
+import com.artemis.World;
+import com.artemis.benchmarks.component.Position;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ComponentMapper.get against the slower Entity.getComponent(Class) lookup,
+ * both reading one component from each of {@value #ENTITIES} entities, plus
+ * ComponentMapper.has and looking the mapper up for every read.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class ComponentAccessBenchmark {
+	private static final int ENTITIES = 4096;
+
+	private World world;
+	private Entity[] entities;
+	private ComponentMapper<Position> mapper;
+
+	@Setup
+	public void setup() {
+		world = new World();
+		world.initialize();
+
+		entities = new Entity[ENTITIES];
+		for (int i = 0; i < ENTITIES; i++) {
+			Entity e = world.createEntity();
+			Position p = new Position();
+			p.x = i;
+			e.addComponent(p);
+			e.addToWorld();
+			entities[i] = e;
+		}
+		world.process();
+
+		mapper = world.getMapper(Position.class);
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(ENTITIES)
+	public float mapperGet() {
+		float sum = 0;
+		for (Entity e : entities) {
+			sum += mapper.get(e).x;
+		}
+		return sum;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(ENTITIES)
+	public int mapperHas() {
+		int count = 0;
+		for (Entity e : entities) {
+			if(mapper.has(e))
+				count++;
+		}
+		return count;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(ENTITIES)
+	public float worldGetMapper() {
+		float sum = 0;
+		for (Entity e : entities) {
+			sum += world.getMapper(Position.class).get(e).x;
+		}
+		return sum;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(ENTITIES)
+	public float entityGetComponent() {
+		float sum = 0;
+		for (Entity e : entities) {
+			sum += e.getComponent(Position.class).x;
+		}
+		return sum;
+	}
+}
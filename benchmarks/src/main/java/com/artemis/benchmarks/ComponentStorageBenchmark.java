@@ -0,0 +1,132 @@
+package com.artemis.benchmarks;
+
+import com.artemis.AdaptiveStorage;
+import com.artemis.ComponentMapper;
+import com.artemis.ComponentStorage;
+import com.artemis.DenseStorage;
+import com.artemis.Entity;
+import com.artemis.SparseSetStorage;
+import com.artemis.World;
+import com.artemis.benchmarks.component.Frozen;
+import com.artemis.benchmarks.component.Health;
+import com.artemis.benchmarks.component.Position;
+import com.artemis.benchmarks.component.Velocity;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mapper reads with the storage of Position chosen per run, while the other
+ * types of the world use the other storages, so every mapper call site sees all
+ * of them. Velocity and Health are on every entity, Frozen on one in 64.
+ *
+ * Run main() for the memory a component on 200 of 2M entities takes in each
+ * storage.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class ComponentStorageBenchmark {
+	private static final int ENTITIES = 4096;
+
+	@Param({"dense", "sparse", "adaptive"})
+	public String storage;
+
+	private Entity[] entities;
+	private ComponentMapper<Position> pm;
+	private ComponentMapper<Velocity> vm;
+	private ComponentMapper<Health> hm;
+	private ComponentMapper<Frozen> fm;
+
+	@Setup
+	public void setup() {
+		World world = new World();
+		world.setComponentStorage(Position.class, storageFor(storage));
+		world.setComponentStorage(Velocity.class, new DenseStorage());
+		world.setComponentStorage(Health.class, new AdaptiveStorage());
+		world.setComponentStorage(Frozen.class, new SparseSetStorage());
+		world.initialize();
+
+		entities = new Entity[ENTITIES];
+		for (int i = 0; i < ENTITIES; i++) {
+			Entity e = world.createEntity();
+			Position p = new Position();
+			p.x = i;
+			e.addComponent(p);
+			e.addComponent(new Velocity());
+			e.addComponent(new Health());
+			if((i & 63) == 0)
+				e.addComponent(new Frozen());
+			e.addToWorld();
+			entities[i] = e;
+		}
+		world.process();
+
+		pm = world.getMapper(Position.class);
+		vm = world.getMapper(Velocity.class);
+		hm = world.getMapper(Health.class);
+		fm = world.getMapper(Frozen.class);
+	}
+
+	private static ComponentStorage storageFor(String storage) {
+		switch (storage) {
+			case "dense":
+				return new DenseStorage();
+			case "sparse":
+				return new SparseSetStorage();
+			case "adaptive":
+				return new AdaptiveStorage();
+			default:
+				throw new IllegalArgumentException(storage);
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(ENTITIES)
+	public float mapperGet() {
+		float sum = 0;
+		for (Entity e : entities) {
+			sum += pm.get(e).x;
+		}
+		return sum;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(ENTITIES)
+	public int mixedHas() {
+		int count = 0;
+		for (Entity e : entities) {
+			if(pm.has(e) && vm.has(e) && hm.has(e) && !fm.has(e))
+				count++;
+		}
+		return count;
+	}
+
+	public static void main(String[] args) {
+		for (String storage : new String[] {"dense", "sparse", "adaptive"}) {
+			World world = new World();
+			world.setComponentStorage(Frozen.class, storageFor(storage));
+			world.initialize();
+			for (int i = 0; i < 2000000; i++) {
+				Entity e = world.createEntity();
+				if(i % 10000 == 0)
+					e.addComponent(new Frozen());
+			}
+			System.out.println(storage + ": " + world.getMemoryReport().getComponents().values());
+		}
+	}
+}
@@ -0,0 +1,94 @@
+package com.artemis.benchmarks;
+
+import com.artemis.Aspect;
+import com.artemis.Entity;
+import com.artemis.World;
+import com.artemis.benchmarks.component.Health;
+import com.artemis.benchmarks.component.Position;
+import com.artemis.benchmarks.component.Velocity;
+import com.artemis.systems.EntityProcessingSystem;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Populates a fresh world with entities that share their components, so what
+ * the heap grows by is the framework's per entity bookkeeping: Entity
+ * instances, component and system bits, and the id indexed tables. Run with
+ * -prof gc, gc.alloc.rate.norm divided by the entity count is the footprint
+ * per entity; the printed MemoryReport estimate should agree.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class EntityFootprintBenchmark {
+	private static final Position POSITION = new Position();
+	private static final Velocity VELOCITY = new Velocity();
+	private static final Health HEALTH = new Health();
+
+	@Param({"1000000"})
+	public int entities;
+
+	@Benchmark
+	public World populate() {
+		World world = new World();
+		world.setSystem(new MovedSystem());
+		world.setSystem(new HealthSystem());
+		world.initialize();
+
+		for (int i = 0; i < entities; i++) {
+			Entity e = world.createEntity();
+			e.addComponent(POSITION);
+			e.addComponent(VELOCITY);
+			if((i & 1) == 0)
+				e.addComponent(HEALTH);
+			e.addToWorld();
+		}
+		world.process();
+		return world;
+	}
+
+	public static void main(String[] args) {
+		World world = new EntityFootprintBenchmark().withEntities(1000000).populate();
+		long bytes = world.getMemoryReport().getEntities().getBytes();
+		System.out.println(world.getMemoryReport());
+		System.out.println(bytes / world.getEntityManager().getActiveEntityCount() + " bytes per entity");
+	}
+
+	private EntityFootprintBenchmark withEntities(int entities) {
+		this.entities = entities;
+		return this;
+	}
+
+	static class MovedSystem extends EntityProcessingSystem {
+		@SuppressWarnings("unchecked")
+		MovedSystem() {
+			super(Aspect.getAspectForAll(Position.class, Velocity.class));
+		}
+
+		@Override
+		protected void process(Entity e) {}
+	}
+
+	static class HealthSystem extends EntityProcessingSystem {
+		@SuppressWarnings("unchecked")
+		HealthSystem() {
+			super(Aspect.getAspectForAll(Health.class));
+		}
+
+		@Override
+		protected void process(Entity e) {}
+	}
+}
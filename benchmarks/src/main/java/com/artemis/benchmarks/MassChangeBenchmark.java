@@ -0,0 +1,61 @@
+package com.artemis.benchmarks;
+
+import com.artemis.Entity;
+import com.artemis.World;
+import com.artemis.benchmarks.component.Position;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Marks every entity of the world changed and processes the frame, the cost of
+ * queueing and notifying a mass change.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class MassChangeBenchmark {
+
+	@Param({"1000", "10000", "100000"})
+	public int entityCount;
+
+	private World world;
+	private Entity[] entities;
+
+	@Setup
+	public void setup() {
+		world = new World();
+		world.initialize();
+
+		entities = new Entity[entityCount];
+		for (int i = 0; i < entityCount; i++) {
+			Entity e = world.createEntity();
+			e.addComponent(new Position());
+			e.addToWorld();
+			entities[i] = e;
+		}
+		world.process();
+	}
+
+	@Benchmark
+	public World changeAll() {
+		for (Entity e : entities) {
+			e.changedInWorld();
+		}
+		world.process();
+		return world;
+	}
+}
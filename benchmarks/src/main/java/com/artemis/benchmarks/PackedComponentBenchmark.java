@@ -0,0 +1,118 @@
+package com.artemis.benchmarks;
+
+import com.artemis.Aspect;
+import com.artemis.ComponentMapper;
+import com.artemis.Entity;
+import com.artemis.PackedComponentMapper;
+import com.artemis.World;
+import com.artemis.annotations.Mapper;
+import com.artemis.benchmarks.component.PackedPosition;
+import com.artemis.benchmarks.component.PackedVelocity;
+import com.artemis.benchmarks.component.Position;
+import com.artemis.benchmarks.component.Velocity;
+import com.artemis.systems.EntityProcessingSystem;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The same movement system over heap components and over packed, off-heap
+ * components, with the actives in id order.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class PackedComponentBenchmark {
+
+	@Param({"100000", "1000000"})
+	public int entityCount;
+
+	@Param({"false", "true"})
+	public boolean packed;
+
+	private World world;
+
+	@Setup
+	public void setup() {
+		world = new World();
+		if(packed)
+			world.setSystem(new PackedMovementSystem()).setActivesSorted(true);
+		else
+			world.setSystem(new MovementSystem()).setActivesSorted(true);
+		world.initialize();
+
+		PackedComponentMapper<PackedPosition> pm = world.getPackedMapper(PackedPosition.class);
+		PackedComponentMapper<PackedVelocity> vm = world.getPackedMapper(PackedVelocity.class);
+		for (int i = 0; i < entityCount; i++) {
+			Entity e = world.createEntity();
+			if(packed) {
+				pm.create(e);
+				vm.create(e).x(1);
+			} else {
+				e.addComponent(new Position());
+				Velocity v = new Velocity();
+				v.x = 1;
+				e.addComponent(v);
+			}
+			e.addToWorld();
+		}
+
+		world.setDelta(1 / 60d);
+		world.process();
+	}
+
+	@Benchmark
+	public World process() {
+		world.process();
+		return world;
+	}
+
+	static class MovementSystem extends EntityProcessingSystem {
+		@Mapper ComponentMapper<Position> pm;
+		@Mapper ComponentMapper<Velocity> vm;
+
+		@SuppressWarnings("unchecked")
+		MovementSystem() {
+			super(Aspect.getAspectForAll(Position.class, Velocity.class));
+		}
+
+		@Override
+		protected void process(Entity e) {
+			Position p = pm.get(e);
+			Velocity v = vm.get(e);
+			p.x += v.x * world.getDelta();
+			p.y += v.y * world.getDelta();
+		}
+	}
+
+	static class PackedMovementSystem extends EntityProcessingSystem {
+		@Mapper PackedComponentMapper<PackedPosition> pm;
+		@Mapper PackedComponentMapper<PackedVelocity> vm;
+
+		@SuppressWarnings("unchecked")
+		PackedMovementSystem() {
+			super(Aspect.getAspectForAll(PackedPosition.class, PackedVelocity.class));
+		}
+
+		@Override
+		protected void process(Entity e) {
+			PackedPosition p = pm.get(e);
+			PackedVelocity v = vm.get(e);
+			p.x((float) (p.x() + v.x() * world.getDelta()));
+			p.y((float) (p.y() + v.y() * world.getDelta()));
+		}
+	}
+}
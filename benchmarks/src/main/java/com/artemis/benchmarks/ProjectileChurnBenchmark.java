@@ -0,0 +1,79 @@
+package com.artemis.benchmarks;
+
+import com.artemis.Entity;
+import com.artemis.World;
+import com.artemis.benchmarks.component.PooledProjectile;
+import com.artemis.benchmarks.component.Projectile;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Every frame spawns a batch of projectiles and deletes the oldest batch,
+ * with plain components allocated per spawn or pooled components recycled.
+ * Run with -prof gc to compare the garbage per frame.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class ProjectileChurnBenchmark {
+
+	@Param({"1000", "10000"})
+	public int perFrame;
+
+	@Param({"false", "true"})
+	public boolean pooled;
+
+	private World world;
+	private ArrayDeque<Entity> live;
+
+	@Setup
+	public void setup() {
+		world = new World();
+		world.initialize();
+		live = new ArrayDeque<>();
+		for (int i = 0; i < 10; i++) {
+			frame();
+		}
+	}
+
+	@Benchmark
+	public World frame() {
+		for (int i = 0; i < perFrame; i++) {
+			Entity e = world.createEntity();
+			if(pooled) {
+				PooledProjectile p = e.createComponent(PooledProjectile.class);
+				p.dx = 1;
+				p.ttl = 10;
+			} else {
+				Projectile p = new Projectile();
+				p.dx = 1;
+				p.ttl = 10;
+				e.addComponent(p);
+			}
+			e.addToWorld();
+			live.addLast(e);
+		}
+		if(live.size() > 10 * perFrame) {
+			for (int i = 0; i < perFrame; i++) {
+				live.pollFirst().deleteFromWorld();
+			}
+		}
+		world.process();
+		return world;
+	}
+}
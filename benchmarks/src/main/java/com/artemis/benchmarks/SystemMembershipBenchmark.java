@@ -0,0 +1,163 @@
+package com.artemis.benchmarks;
+
+import com.artemis.Aspect;
+import com.artemis.Component;
+import com.artemis.Entity;
+import com.artemis.World;
+import com.artemis.benchmarks.component.Frozen;
+import com.artemis.benchmarks.component.Health;
+import com.artemis.benchmarks.component.Lifetime;
+import com.artemis.benchmarks.component.Position;
+import com.artemis.benchmarks.component.Renderable;
+import com.artemis.benchmarks.component.Rotation;
+import com.artemis.benchmarks.component.Velocity;
+import com.artemis.systems.EntityProcessingSystem;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A world of 24 passive systems with aspects over seven component types.
+ * Spawns and deletes 2000 entities of eight compositions per frame, or marks
+ * 10000 settled entities changed, the cost of deciding which systems an entity
+ * enters or leaves.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class SystemMembershipBenchmark {
+	private static final int SPAWNS = 2000;
+	private static final int SETTLED = 10000;
+
+	@SuppressWarnings("unchecked")
+	private static final Class<? extends Component>[] TYPES = (Class<? extends Component>[]) new Class<?>[] {
+		Position.class, Velocity.class, Health.class, Renderable.class, Rotation.class, Lifetime.class, Frozen.class
+	};
+
+	private World world;
+	private Entity[] settled;
+	private Entity[] spawned;
+
+	@Setup
+	public void setup() {
+		world = new World();
+		world.setSystem(new S0(), true);
+		world.setSystem(new S1(), true);
+		world.setSystem(new S2(), true);
+		world.setSystem(new S3(), true);
+		world.setSystem(new S4(), true);
+		world.setSystem(new S5(), true);
+		world.setSystem(new S6(), true);
+		world.setSystem(new S7(), true);
+		world.setSystem(new S8(), true);
+		world.setSystem(new S9(), true);
+		world.setSystem(new S10(), true);
+		world.setSystem(new S11(), true);
+		world.setSystem(new S12(), true);
+		world.setSystem(new S13(), true);
+		world.setSystem(new S14(), true);
+		world.setSystem(new S15(), true);
+		world.setSystem(new S16(), true);
+		world.setSystem(new S17(), true);
+		world.setSystem(new S18(), true);
+		world.setSystem(new S19(), true);
+		world.setSystem(new S20(), true);
+		world.setSystem(new S21(), true);
+		world.setSystem(new S22(), true);
+		world.setSystem(new S23(), true);
+		world.initialize();
+
+		settled = new Entity[SETTLED];
+		for (int i = 0; i < SETTLED; i++) {
+			settled[i] = spawn(i);
+		}
+		spawned = new Entity[SPAWNS];
+		world.process();
+	}
+
+	private Entity spawn(int i) {
+		Entity e = world.createEntity();
+		e.addComponent(new Position());
+		if((i & 1) == 0)
+			e.addComponent(new Velocity());
+		if((i & 2) == 0)
+			e.addComponent(new Health());
+		if((i & 4) == 0)
+			e.addComponent(new Renderable());
+		e.addToWorld();
+		return e;
+	}
+
+	@Benchmark
+	public World spawnAndDelete() {
+		for (int i = 0; i < SPAWNS; i++) {
+			spawned[i] = spawn(i);
+		}
+		world.process();
+		for (int i = 0; i < SPAWNS; i++) {
+			spawned[i].deleteFromWorld();
+		}
+		world.process();
+		return world;
+	}
+
+	@Benchmark
+	public World changeSettled() {
+		for (Entity e : settled) {
+			e.changedInWorld();
+		}
+		world.process();
+		return world;
+	}
+
+	/**
+	 * Needs all of two types and none of a third, picked by n.
+	 */
+	abstract static class AspectSystem extends EntityProcessingSystem {
+		@SuppressWarnings("unchecked")
+		AspectSystem(int n) {
+			super(Aspect.getAspectForAll(TYPES[n % 4], TYPES[(n / 4 + 1 + n % 4) % 5])
+					.exclude(TYPES[4 + n % 3]));
+		}
+
+		@Override
+		protected void process(Entity e) {}
+	}
+
+	static class S0 extends AspectSystem { S0() { super(0); } }
+	static class S1 extends AspectSystem { S1() { super(1); } }
+	static class S2 extends AspectSystem { S2() { super(2); } }
+	static class S3 extends AspectSystem { S3() { super(3); } }
+	static class S4 extends AspectSystem { S4() { super(4); } }
+	static class S5 extends AspectSystem { S5() { super(5); } }
+	static class S6 extends AspectSystem { S6() { super(6); } }
+	static class S7 extends AspectSystem { S7() { super(7); } }
+	static class S8 extends AspectSystem { S8() { super(8); } }
+	static class S9 extends AspectSystem { S9() { super(9); } }
+	static class S10 extends AspectSystem { S10() { super(10); } }
+	static class S11 extends AspectSystem { S11() { super(11); } }
+	static class S12 extends AspectSystem { S12() { super(12); } }
+	static class S13 extends AspectSystem { S13() { super(13); } }
+	static class S14 extends AspectSystem { S14() { super(14); } }
+	static class S15 extends AspectSystem { S15() { super(15); } }
+	static class S16 extends AspectSystem { S16() { super(16); } }
+	static class S17 extends AspectSystem { S17() { super(17); } }
+	static class S18 extends AspectSystem { S18() { super(18); } }
+	static class S19 extends AspectSystem { S19() { super(19); } }
+	static class S20 extends AspectSystem { S20() { super(20); } }
+	static class S21 extends AspectSystem { S21() { super(21); } }
+	static class S22 extends AspectSystem { S22() { super(22); } }
+	static class S23 extends AspectSystem { S23() { super(23); } }
+}
@@ -0,0 +1,104 @@
+package com.artemis.benchmarks;
+
+import com.artemis.Aspect;
+import com.artemis.ComponentMapper;
+import com.artemis.Entity;
+import com.artemis.World;
+import com.artemis.annotations.Mapper;
+import com.artemis.benchmarks.component.Frozen;
+import com.artemis.benchmarks.component.Health;
+import com.artemis.benchmarks.component.Position;
+import com.artemis.benchmarks.component.Velocity;
+import com.artemis.systems.EntityProcessingSystem;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of a single steady-state World.process() frame: no structural changes,
+ * two processing systems walking their actives through component mappers.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class WorldProcessBenchmark {
+
+	@Param({"1000", "100000", "1000000"})
+	public int entityCount;
+
+	private World world;
+
+	@Setup
+	public void setup() {
+		world = new World();
+		world.setSystem(new MovementSystem());
+		world.setSystem(new HealthSystem());
+		world.initialize();
+
+		for (int i = 0; i < entityCount; i++) {
+			Entity e = world.createEntity();
+			e.addComponent(new Position());
+			if (i % 2 == 0)
+				e.addComponent(new Velocity());
+			if (i % 3 == 0)
+				e.addComponent(new Health());
+			if (i % 10 == 0)
+				e.addComponent(new Frozen());
+			e.addToWorld();
+		}
+
+		world.setDelta(1 / 60d);
+		world.process();
+	}
+
+	@Benchmark
+	public World process() {
+		world.process();
+		return world;
+	}
+
+	static class MovementSystem extends EntityProcessingSystem {
+		@Mapper ComponentMapper<Position> pm;
+		@Mapper ComponentMapper<Velocity> vm;
+
+		@SuppressWarnings("unchecked")
+		MovementSystem() {
+			super(Aspect.getAspectForAll(Position.class, Velocity.class));
+		}
+
+		@Override
+		protected void process(Entity e) {
+			Position p = pm.get(e);
+			Velocity v = vm.get(e);
+			p.x += v.x * world.getDelta();
+			p.y += v.y * world.getDelta();
+		}
+	}
+
+	static class HealthSystem extends EntityProcessingSystem {
+		@Mapper ComponentMapper<Health> hm;
+
+		@SuppressWarnings("unchecked")
+		HealthSystem() {
+			super(Aspect.getAspectForAll(Health.class).exclude(Frozen.class));
+		}
+
+		@Override
+		protected void process(Entity e) {
+			hm.get(e).hitPoints++;
+		}
+	}
+}
@@ -0,0 +1,91 @@
+package com.artemis.benchmarks;
+
+import com.artemis.Aspect;
+import com.artemis.ComponentMapper;
+import com.artemis.Entity;
+import com.artemis.World;
+import com.artemis.benchmarks.component.Frozen;
+import com.artemis.benchmarks.component.Health;
+import com.artemis.benchmarks.component.Position;
+import com.artemis.benchmarks.component.Velocity;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.BitSet;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Finding the entities with Position and Velocity but without Frozen, with a
+ * world query or by checking every entity with mappers, the way to do it
+ * without a system before queries existed.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class WorldQueryBenchmark {
+
+	@Param({"100000", "1000000"})
+	public int entities;
+
+	private World world;
+	private Aspect aspect;
+	private BitSet fill;
+	private ComponentMapper<Position> pm;
+	private ComponentMapper<Velocity> vm;
+	private ComponentMapper<Frozen> fm;
+
+	@Setup
+	public void setup() {
+		world = new World();
+		world.initialize();
+
+		Random random = new Random(4711);
+		for (int i = 0; i < entities; i++) {
+			Entity e = world.createEntity();
+			e.addComponent(new Position());
+			if(random.nextInt(4) != 0)
+				e.addComponent(new Velocity());
+			if(random.nextInt(2) == 0)
+				e.addComponent(new Health());
+			if(random.nextInt(16) == 0)
+				e.addComponent(new Frozen());
+			e.addToWorld();
+		}
+		world.process();
+
+		aspect = Aspect.getAspectForAll(Position.class, Velocity.class).exclude(Frozen.class);
+		fill = new BitSet();
+		pm = world.getMapper(Position.class);
+		vm = world.getMapper(Velocity.class);
+		fm = world.getMapper(Frozen.class);
+	}
+
+	@Benchmark
+	public int query() {
+		return world.query(aspect, fill).cardinality();
+	}
+
+	@Benchmark
+	public int scan() {
+		int count = 0;
+		for (int id = 0; id < entities; id++) {
+			Entity e = world.getEntity(id);
+			if(e != null && pm.has(e) && vm.has(e) && !fm.has(e))
+				count++;
+		}
+		return count;
+	}
+}
@@ -0,0 +1,6 @@
+package com.artemis.benchmarks.component;
+
+import com.artemis.Component;
+
+public class Frozen extends Component {
+}
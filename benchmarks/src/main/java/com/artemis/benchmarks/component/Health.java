@@ -0,0 +1,7 @@
+package com.artemis.benchmarks.component;
+
+import com.artemis.Component;
+
+public class Health extends Component {
+	public int hitPoints;
+}
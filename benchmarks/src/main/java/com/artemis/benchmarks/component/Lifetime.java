@@ -0,0 +1,7 @@
+package com.artemis.benchmarks.component;
+
+import com.artemis.Component;
+
+public class Lifetime extends Component {
+	public double remaining;
+}
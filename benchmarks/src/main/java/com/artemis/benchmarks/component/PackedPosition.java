@@ -0,0 +1,28 @@
+package com.artemis.benchmarks.component;
+
+import com.artemis.PackedComponent;
+
+public class PackedPosition extends PackedComponent {
+	private static final int X = 0, Y = 4;
+
+	@Override
+	protected int getSize() {
+		return 8;
+	}
+
+	public float x() {
+		return buffer.getFloat(offset + X);
+	}
+
+	public void x(float x) {
+		buffer.putFloat(offset + X, x);
+	}
+
+	public float y() {
+		return buffer.getFloat(offset + Y);
+	}
+
+	public void y(float y) {
+		buffer.putFloat(offset + Y, y);
+	}
+}
@@ -0,0 +1,16 @@
+package com.artemis.benchmarks.component;
+
+import com.artemis.PooledComponent;
+
+public class PooledProjectile extends PooledComponent {
+	public float x, y;
+	public float dx, dy;
+	public int ttl;
+
+	@Override
+	protected void reset() {
+		x = y = 0;
+		dx = dy = 0;
+		ttl = 0;
+	}
+}
@@ -0,0 +1,8 @@
+package com.artemis.benchmarks.component;
+
+import com.artemis.Component;
+
+public class Position extends Component {
+	public float x;
+	public float y;
+}
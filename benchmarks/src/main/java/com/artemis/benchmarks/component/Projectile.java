@@ -0,0 +1,9 @@
+package com.artemis.benchmarks.component;
+
+import com.artemis.Component;
+
+public class Projectile extends Component {
+	public float x, y;
+	public float dx, dy;
+	public int ttl;
+}
@@ -0,0 +1,214 @@
+package com.artemis.benchmarks.soak;
+
+import com.artemis.EntitySystem;
+import com.artemis.Profiler;
+import com.artemis.World;
+import com.artemis.profiling.AllocationProfiler;
+import com.artemis.profiling.FrameProfiler;
+import com.artemis.profiling.SamplingProfiler;
+import com.artemis.utils.Histogram;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Map.Entry;
+
+/**
+ * Long running macro benchmark. Drives a World with steady entity churn and a
+ * mix of processing, interval and delayed systems, then reports frame time
+ * percentiles, allocation per frame and time spent in GC.
+ *
+ * Arguments are key=value pairs, all optional:
+ * <pre>
+ *   seconds=120           measured run time
+ *   warmup=20             seconds run before measuring
+ *   population=50000      entities kept alive
+ *   spawn=2000            max entities spawned per frame
+ *   lifetime=5            max entity lifetime in simulated seconds
+ *   seed=42               random seed for the spawner
+ *   budget.alloc=0        max mean bytes allocated per frame, 0 for none
+ *   budget.p99=0          max p99 frame time in milliseconds, 0 for none
+ *   budget.p999=0         max p999 frame time in milliseconds, 0 for none
+ *   profile=false         also report time per system and notification phase
+ *   allocations=false     also report bytes allocated per system and notification phase
+ *   memory=false          also report estimated heap retained by the world at the end
+ * </pre>
+ *
+ * Exits with status 1 if any configured budget is exceeded, e.g.
+ * <pre>
+ *   sbt "benchmarks/runMain com.artemis.benchmarks.soak.SoakBenchmark seconds=300 budget.p99=4"
+ * </pre>
+ */
+public class SoakBenchmark {
+	private static final double DELTA = 1 / 60d;
+
+	private final Map<String, String> config;
+	private final com.sun.management.ThreadMXBean threads;
+	private final long threadId;
+	private final long allocationProbeCost;
+
+	SoakBenchmark(Map<String, String> config) {
+		this.config = config;
+		threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+		threads.setThreadAllocatedMemoryEnabled(true);
+		threadId = Thread.currentThread().getId();
+
+		// older JDKs allocate inside the probe itself, keep that out of the numbers
+		long a = threads.getThreadAllocatedBytes(threadId);
+		long b = threads.getThreadAllocatedBytes(threadId);
+		allocationProbeCost = b - a;
+	}
+
+	public static void main(String[] args) {
+		Map<String, String> config = new HashMap<>();
+		for (String arg : args) {
+			int split = arg.indexOf('=');
+			if (split < 0)
+				throw new IllegalArgumentException("Expected key=value, got " + arg);
+			config.put(arg.substring(0, split), arg.substring(split + 1));
+		}
+
+		if (!new SoakBenchmark(config).run())
+			System.exit(1);
+	}
+
+	private double get(String key, double defaultValue) {
+		String value = config.get(key);
+		return value != null ? Double.parseDouble(value) : defaultValue;
+	}
+
+	/**
+	 * @return false if a configured budget was exceeded
+	 */
+	boolean run() {
+		World world = createWorld();
+
+		long warmupEnd = System.nanoTime() + (long) (get("warmup", 20) * 1e9);
+		while (System.nanoTime() < warmupEnd) {
+			world.process();
+		}
+
+		FrameProfiler profiler = null;
+		if (Boolean.parseBoolean(config.get("profile")))
+			profiler = world.setProfiler(new FrameProfiler());
+		AllocationProfiler allocations = null;
+		if (Boolean.parseBoolean(config.get("allocations")))
+			allocations = world.setProfiler(new AllocationProfiler());
+
+		Histogram frameTimes = new Histogram();
+		long allocated = 0;
+		long maxAllocated = 0;
+		long gcCount = -collectionCount();
+		long gcTime = -collectionTime();
+
+		long start = System.nanoTime();
+		long end = start + (long) (get("seconds", 120) * 1e9);
+		long now = start;
+		while (now < end) {
+			long before = threads.getThreadAllocatedBytes(threadId);
+			world.process();
+			long frameAllocated = threads.getThreadAllocatedBytes(threadId) - before - allocationProbeCost;
+			long frameEnd = System.nanoTime();
+
+			frameTimes.record(frameEnd - now);
+			allocated += frameAllocated;
+			maxAllocated = Math.max(maxAllocated, frameAllocated);
+			now = frameEnd;
+		}
+		double seconds = (now - start) / 1e9;
+		gcCount += collectionCount();
+		gcTime += collectionTime();
+
+		long frames = frameTimes.getCount();
+		double allocPerFrame = (double) allocated / frames;
+
+		System.out.println("Soak benchmark");
+		printf("  frames             %d (%.0f/s)", frames, frames / seconds);
+		printf("  entities           %d active, %d created",
+			world.getEntityManager().getActiveEntityCount(), world.getEntityManager().getTotalCreated());
+		printf("  frame time p50     %.3f ms", frameTimes.getPercentile(0.50) / 1e6);
+		printf("  frame time p99     %.3f ms", frameTimes.getPercentile(0.99) / 1e6);
+		printf("  frame time p999    %.3f ms", frameTimes.getPercentile(0.999) / 1e6);
+		printf("  frame time max     %.3f ms", frameTimes.getMax() / 1e6);
+		printf("  alloc per frame    %.0f bytes mean, %d bytes max", allocPerFrame, maxAllocated);
+		printf("  alloc rate         %.1f MB/s", allocated / seconds / (1 << 20));
+		printf("  gc                 %d collections, %d ms total", gcCount, gcTime);
+		if (profiler != null)
+			printProfile(profiler, "ms", 1e6);
+		if (allocations != null)
+			printProfile(allocations, "KB", 1024);
+		if (Boolean.parseBoolean(config.get("memory")))
+			System.out.print(world.getMemoryReport());
+
+		boolean passed = true;
+		passed &= withinBudget("alloc per frame (bytes)", allocPerFrame, get("budget.alloc", 0));
+		passed &= withinBudget("p99 frame time (ms)", frameTimes.getPercentile(0.99) / 1e6, get("budget.p99", 0));
+		passed &= withinBudget("p999 frame time (ms)", frameTimes.getPercentile(0.999) / 1e6, get("budget.p999", 0));
+		return passed;
+	}
+
+	private World createWorld() {
+		World world = new World();
+		world.setSystem(new SoakSystems.Spawner(
+			(int) get("population", 50000), (int) get("spawn", 2000), get("lifetime", 5), (long) get("seed", 42)));
+		world.setSystem(new SoakSystems.Expiry());
+		world.setSystem(new SoakSystems.Movement());
+		world.setSystem(new SoakSystems.Spin());
+		world.setSystem(new SoakSystems.Flicker());
+		world.setSystem(new SoakSystems.Regeneration(0.25));
+		world.setSystem(new SoakSystems.Tinting(1));
+		world.initialize();
+		world.setDelta(DELTA);
+		return world;
+	}
+
+	private static void printProfile(SamplingProfiler profiler, String unit, double scale) {
+		printf("  phase / system     p50 %-4s p99 %-4s max %-4s  total %s", unit, unit, unit, unit);
+		for (Profiler.Phase phase : Profiler.Phase.values()) {
+			printHistogram(phase.name().toLowerCase(Locale.ROOT), profiler.getPhaseHistogram(phase), scale);
+		}
+		for (Entry<EntitySystem, Histogram> system : profiler.getSystemHistograms().entrySet()) {
+			printHistogram(system.getKey().getClass().getSimpleName(), system.getValue(), scale);
+		}
+	}
+
+	private static void printHistogram(String name, Histogram histogram, double scale) {
+		printf("    %-16s %8.3f %8.3f %8.3f %10.1f", name, histogram.getPercentile(0.5) / scale,
+			histogram.getPercentile(0.99) / scale, histogram.getMax() / scale, histogram.getTotal() / scale);
+	}
+
+	private static boolean withinBudget(String name, double value, double budget) {
+		if (budget > 0 && value > budget) {
+			printf("FAILED: %s was %.3f, budget is %.3f", name, value, budget);
+			return false;
+		}
+		return true;
+	}
+
+	private static long collectionCount() {
+		long count = 0;
+		for (GarbageCollectorMXBean gc : collectors()) {
+			count += Math.max(gc.getCollectionCount(), 0);
+		}
+		return count;
+	}
+
+	private static long collectionTime() {
+		long time = 0;
+		for (GarbageCollectorMXBean gc : collectors()) {
+			time += Math.max(gc.getCollectionTime(), 0);
+		}
+		return time;
+	}
+
+	private static List<GarbageCollectorMXBean> collectors() {
+		return ManagementFactory.getGarbageCollectorMXBeans();
+	}
+
+	private static void printf(String format, Object... args) {
+		System.out.println(String.format(Locale.ROOT, format, args));
+	}
+}
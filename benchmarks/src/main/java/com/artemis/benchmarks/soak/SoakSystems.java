@@ -0,0 +1,210 @@
+package com.artemis.benchmarks.soak;
+
+import com.artemis.Aspect;
+import com.artemis.ComponentMapper;
+import com.artemis.Entity;
+import com.artemis.annotations.Mapper;
+import com.artemis.benchmarks.component.Health;
+import com.artemis.benchmarks.component.Lifetime;
+import com.artemis.benchmarks.component.Position;
+import com.artemis.benchmarks.component.Regen;
+import com.artemis.benchmarks.component.Renderable;
+import com.artemis.benchmarks.component.Rotation;
+import com.artemis.benchmarks.component.Scale;
+import com.artemis.benchmarks.component.Team;
+import com.artemis.benchmarks.component.Tint;
+import com.artemis.benchmarks.component.Velocity;
+import com.artemis.systems.DelayedEntityProcessingSystem;
+import com.artemis.systems.EntityProcessingSystem;
+import com.artemis.systems.IntervalEntityProcessingSystem;
+import com.artemis.systems.VoidEntitySystem;
+
+import java.util.Random;
+
+/**
+ * The systems driving the soak workload: a spawner keeping the population at its
+ * target, a delayed expiry system deleting entities when their lifetime runs out,
+ * and a mix of per-frame and interval systems doing light work on the survivors.
+ */
+final class SoakSystems {
+
+	private SoakSystems() {}
+
+	static class Spawner extends VoidEntitySystem {
+		private final int population;
+		private final int maxSpawnPerFrame;
+		private final double maxLifetime;
+		private final Random random;
+
+		Spawner(int population, int maxSpawnPerFrame, double maxLifetime, long seed) {
+			this.population = population;
+			this.maxSpawnPerFrame = maxSpawnPerFrame;
+			this.maxLifetime = maxLifetime;
+			this.random = new Random(seed);
+		}
+
+		@Override
+		protected void processSystem() {
+			int spawn = Math.min(maxSpawnPerFrame, population - world.getEntityManager().getActiveEntityCount());
+			for (int i = 0; i < spawn; i++) {
+				spawn();
+			}
+		}
+
+		private void spawn() {
+			Entity e = world.createEntity();
+
+			Lifetime lifetime = new Lifetime();
+			lifetime.remaining = maxLifetime * (0.1 + 0.9 * random.nextDouble());
+			e.addComponent(lifetime);
+
+			Position position = new Position();
+			position.x = random.nextFloat();
+			position.y = random.nextFloat();
+			e.addComponent(position);
+
+			int shape = random.nextInt(16);
+			if ((shape & 1) != 0) {
+				Velocity velocity = new Velocity();
+				velocity.x = random.nextFloat() - 0.5f;
+				velocity.y = random.nextFloat() - 0.5f;
+				e.addComponent(velocity);
+			}
+			if ((shape & 2) != 0) {
+				e.addComponent(new Health());
+				e.addComponent(new Regen());
+			}
+			if ((shape & 4) != 0) {
+				e.addComponent(new Renderable());
+				e.addComponent(new Scale());
+			}
+			if ((shape & 8) != 0) {
+				e.addComponent(new Rotation());
+			}
+			Team team = new Team();
+			team.id = shape & 3;
+			e.addComponent(team);
+
+			e.addToWorld();
+		}
+	}
+
+	static class Expiry extends DelayedEntityProcessingSystem {
+		@Mapper ComponentMapper<Lifetime> lm;
+
+		@SuppressWarnings("unchecked")
+		Expiry() {
+			super(Aspect.getAspectForAll(Lifetime.class));
+		}
+
+		@Override
+		protected double getRemainingDelay(Entity e) {
+			return lm.get(e).remaining;
+		}
+
+		@Override
+		protected void processDelta(Entity e, double accumulatedDelta) {
+			lm.get(e).remaining -= accumulatedDelta;
+		}
+
+		@Override
+		protected void processExpired(Entity e) {
+			e.deleteFromWorld();
+		}
+	}
+
+	static class Movement extends EntityProcessingSystem {
+		@Mapper ComponentMapper<Position> pm;
+		@Mapper ComponentMapper<Velocity> vm;
+
+		@SuppressWarnings("unchecked")
+		Movement() {
+			super(Aspect.getAspectForAll(Position.class, Velocity.class));
+		}
+
+		@Override
+		protected void process(Entity e) {
+			Position p = pm.get(e);
+			Velocity v = vm.get(e);
+			p.x += v.x * world.getDelta();
+			p.y += v.y * world.getDelta();
+		}
+	}
+
+	static class Spin extends EntityProcessingSystem {
+		@Mapper ComponentMapper<Rotation> rm;
+
+		@SuppressWarnings("unchecked")
+		Spin() {
+			super(Aspect.getAspectForAll(Rotation.class));
+		}
+
+		@Override
+		protected void process(Entity e) {
+			rm.get(e).angle += world.getDelta();
+		}
+	}
+
+	/**
+	 * Adds or removes a Tint on renderable entities now and then, so the changed
+	 * queue sees steady traffic as well.
+	 */
+	static class Flicker extends EntityProcessingSystem {
+		@Mapper ComponentMapper<Tint> tm;
+		private int frame;
+
+		@SuppressWarnings("unchecked")
+		Flicker() {
+			super(Aspect.getAspectForAll(Renderable.class, Scale.class));
+		}
+
+		@Override
+		protected void begin() {
+			frame++;
+		}
+
+		@Override
+		protected void process(Entity e) {
+			if (((e.getId() + frame) & 63) != 0)
+				return;
+
+			if (tm.has(e))
+				e.removeComponent(Tint.class);
+			else
+				e.addComponent(new Tint());
+			e.changedInWorld();
+		}
+	}
+
+	static class Regeneration extends IntervalEntityProcessingSystem {
+		@Mapper ComponentMapper<Health> hm;
+		@Mapper ComponentMapper<Regen> rm;
+
+		@SuppressWarnings("unchecked")
+		Regeneration(double interval) {
+			super(Aspect.getAspectForAll(Health.class, Regen.class), interval);
+		}
+
+		@Override
+		protected void process(Entity e) {
+			hm.get(e).hitPoints += rm.get(e).amount + 1;
+		}
+	}
+
+	static class Tinting extends IntervalEntityProcessingSystem {
+		@Mapper ComponentMapper<Tint> tm;
+
+		@SuppressWarnings("unchecked")
+		Tinting(double interval) {
+			super(Aspect.getAspectForAll(Tint.class, Renderable.class), interval);
+		}
+
+		@Override
+		protected void process(Entity e) {
+			// Flicker may have taken it off earlier this frame
+			Tint tint = tm.getSafe(e);
+			if (tint != null)
+				tint.argb++;
+		}
+	}
+}
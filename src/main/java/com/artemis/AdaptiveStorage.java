@@ -0,0 +1,132 @@
+package com.artemis;
+
+/**
+ * Switches between a SparseSetStorage and a DenseStorage as the share of
+ * entity ids with a component changes, for types whose population swings,
+ * e.g. status effects that come in waves.
+ *
+ * Starts sparse. Turns dense once at least denseAbove of the id range up to
+ * the highest id with a component has one, and sparse again once fewer than
+ * sparseBelow do. The gap between both keeps it from switching back and forth;
+ * a switch copies all components of the type.
+ */
+public final class AdaptiveStorage extends ComponentStorage {
+	private static final int MIN_DENSE_SIZE = 1024;
+
+	private final double denseAbove;
+	private final double sparseBelow;
+
+	private DenseStorage dense;
+	private SparseSetStorage sparse;
+	private int idRange;
+	private int switches;
+
+	/**
+	 * Turns dense above a quarter of the id range and sparse below a sixteenth.
+	 */
+	public AdaptiveStorage() {
+		this(0.25, 0.0625);
+	}
+
+	/**
+	 * @param denseAbove share of the id range above which to turn dense.
+	 * @param sparseBelow share of the id range below which to turn sparse,
+	 * lower than denseAbove.
+	 */
+	public AdaptiveStorage(double denseAbove, double sparseBelow) {
+		if(denseAbove <= 0 || denseAbove > 1)
+			throw new IllegalArgumentException("denseAbove must be above 0 and at most 1: " + denseAbove);
+		if(sparseBelow < 0 || sparseBelow >= denseAbove)
+			throw new IllegalArgumentException("sparseBelow must be at least 0 and below denseAbove: " + sparseBelow);
+
+		this.denseAbove = denseAbove;
+		this.sparseBelow = sparseBelow;
+		sparse = new SparseSetStorage();
+	}
+
+	@Override
+	public Component get(int entityId) {
+		DenseStorage dense = this.dense;
+		return dense != null ? dense.get(entityId) : sparse.get(entityId);
+	}
+
+	@Override
+	public void set(int entityId, Component component) {
+		if(dense != null) {
+			dense.set(entityId, component);
+			if(component == null && dense.size() < dense.getIdRange() * sparseBelow)
+				toSparse();
+		} else {
+			sparse.set(entityId, component);
+			if(component != null) {
+				idRange = Math.max(idRange, entityId + 1);
+				int size = sparse.size();
+				if(size >= MIN_DENSE_SIZE && size >= idRange * denseAbove)
+					toDense();
+			}
+		}
+	}
+
+	private void toDense() {
+		DenseStorage storage = new DenseStorage();
+		for (int i = 0, s = sparse.size(); s > i; i++) {
+			storage.set(sparse.getIdAt(i), sparse.getAt(i));
+		}
+		dense = storage;
+		sparse = null;
+		switches++;
+	}
+
+	private void toSparse() {
+		SparseSetStorage storage = new SparseSetStorage(dense.size());
+		int range = 0;
+		for (int id = 0, s = dense.getIdRange(); s > id; id++) {
+			Component component = dense.get(id);
+			if(component != null) {
+				storage.set(id, component);
+				range = id + 1;
+			}
+		}
+		sparse = storage;
+		dense = null;
+		idRange = range;
+		switches++;
+	}
+
+	/**
+	 * @return true while components are stored densely.
+	 */
+	public boolean isDense() {
+		return dense != null;
+	}
+
+	/**
+	 * @return number of times the storage switched between sparse and dense.
+	 */
+	public int getSwitchCount() {
+		return switches;
+	}
+
+	@Override
+	public int size() {
+		return dense != null ? dense.size() : sparse.size();
+	}
+
+	@Override
+	public int getCapacity() {
+		return dense != null ? dense.getCapacity() : sparse.getCapacity();
+	}
+
+	@Override
+	public long estimateBytes() {
+		return dense != null ? dense.estimateBytes() : sparse.estimateBytes();
+	}
+
+	@Override
+	public void trim() {
+		if(dense != null)
+			dense.trim();
+		else
+			sparse.trim();
+	}
+}
@@ -0,0 +1,165 @@
+package com.artemis;
+
+import com.artemis.utils.Bag;
+import com.artemis.utils.ImmutableBag;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * All entities with exactly the same component types, stored together in
+ * chunks when the world uses archetype storage, see World.setArchetypeStorage().
+ *
+ * Every composition has two archetypes: one for entities that are in the world
+ * and enabled, and one for entities that are not yet added or are disabled.
+ * Systems only process the chunks of active archetypes.
+ */
+public final class Archetype {
+	private final BitSet componentBits;
+	private final boolean active;
+	final int[] types;
+	private final int[] columnByType;
+	private final int chunkCapacity;
+
+	private final Bag<Chunk> chunks;
+	private final Bag<Archetype> withType;
+	private final Bag<Archetype> withoutType;
+	Archetype twin;
+	private int size;
+
+	Archetype(BitSet componentBits, boolean active, int[] types, int chunkCapacity) {
+		this.componentBits = componentBits;
+		this.active = active;
+		this.types = types;
+		this.chunkCapacity = chunkCapacity;
+
+		columnByType = new int[componentBits.length()];
+		Arrays.fill(columnByType, -1);
+		for (int i = 0; i < types.length; i++) {
+			columnByType[types[i]] = i;
+		}
+
+		chunks = new Bag<>(4);
+		withType = new Bag<>(4);
+		withoutType = new Bag<>(4);
+	}
+
+	/**
+	 * @return true for entities in the world and enabled, false for entities
+	 * not yet added or disabled.
+	 */
+	public boolean isActive() {
+		return active;
+	}
+
+	/**
+	 * @param type component type to look for.
+	 * @return true if entities of this archetype possess the type.
+	 */
+	public boolean hasComponentType(ComponentType type) {
+		return componentBits.get(type.getIndex());
+	}
+
+	/**
+	 * @param aspect the aspect to match.
+	 * @return true if the aspect matches entities of this archetype.
+	 */
+	public boolean matches(Aspect aspect) {
+		return aspect.isInterested(componentBits);
+	}
+
+	/**
+	 * @return number of entities of this archetype.
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Chunks are filled in order, all but the last one are full.
+	 *
+	 * @return the chunks of this archetype.
+	 */
+	public ImmutableBag<Chunk> getChunks() {
+		return chunks;
+	}
+
+	int getColumn(int typeIndex) {
+		return typeIndex < columnByType.length ? columnByType[typeIndex] : -1;
+	}
+
+	Archetype getWithType(int typeIndex) {
+		return withType.isIndexWithinBounds(typeIndex) ? withType.get(typeIndex) : null;
+	}
+
+	void setWithType(int typeIndex, Archetype archetype) {
+		withType.set(typeIndex, archetype);
+	}
+
+	Archetype getWithoutType(int typeIndex) {
+		return withoutType.isIndexWithinBounds(typeIndex) ? withoutType.get(typeIndex) : null;
+	}
+
+	void setWithoutType(int typeIndex, Archetype archetype) {
+		withoutType.set(typeIndex, archetype);
+	}
+
+	BitSet getComponentBits() {
+		return componentBits;
+	}
+
+	/**
+	 * @return the chunk with a free row, the last one.
+	 */
+	Chunk chunkForAppend() {
+		Chunk last = chunks.isEmpty() ? null : chunks.get(chunks.size() - 1);
+		if(last == null || last.size == last.entities.length) {
+			last = new Chunk(this, chunkCapacity);
+			chunks.add(last);
+		}
+		size++;
+		return last;
+	}
+
+	/**
+	 * @return the last chunk, whose last row fills the holes of removed entities.
+	 */
+	Chunk lastChunk() {
+		return chunks.get(chunks.size() - 1);
+	}
+
+	/**
+	 * Called once the last row of the last chunk has been vacated. Drops the
+	 * chunk when it empties, but keeps one chunk so an archetype that entities
+	 * move in and out of does not reallocate it every time.
+	 */
+	void removedLastRow() {
+		size--;
+		Chunk last = lastChunk();
+		if(last.size == 0 && chunks.size() > 1)
+			chunks.removeLast();
+	}
+
+	/**
+	 * Drops all empty chunks.
+	 */
+	void trim() {
+		while(!chunks.isEmpty() && lastChunk().size == 0) {
+			chunks.removeLast();
+		}
+		chunks.trim();
+		withType.trim();
+		withoutType.trim();
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder("Archetype[");
+		for (int i = componentBits.nextSetBit(0); i >= 0; i = componentBits.nextSetBit(i+1)) {
+			if(i != componentBits.nextSetBit(0))
+				sb.append(", ");
+			sb.append(ComponentType.getTypeFor(i).getType().getSimpleName());
+		}
+		return sb.append(active ? "" : ", inactive").append("] (").append(size).append(")").toString();
+	}
+}
@@ -0,0 +1,281 @@
+package com.artemis;
+
+import com.artemis.utils.Bag;
+import com.artemis.utils.BitTable;
+import com.artemis.utils.ImmutableBag;
+import com.artemis.utils.IntBag;
+import com.artemis.utils.PagedBag;
+
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Component storage that groups entities by archetype, their exact set of
+ * component types, into chunks with one column per type. Used by the
+ * ComponentManager instead of one id indexed bag per type once
+ * World.setArchetypeStorage() is called.
+ *
+ * Adding or removing a component moves the entity, with all its components,
+ * to the chunk of the new archetype. Moves follow cached edges between
+ * archetypes, so only the first entity to take a new route looks up the
+ * composition.
+ */
+final class ArchetypeStorage {
+	private final ComponentManager cm;
+	private final BitTable componentBits;
+	private final int chunkCapacity;
+
+	private final Map<BitSet, Archetype> archetypesByComposition;
+	private final Bag<Archetype> archetypes;
+	private final PagedBag<Chunk> chunkById;
+	private final IntBag rowById;
+	private final BitSet active;
+	private final BitSet scratch;
+	private boolean processingChunks;
+
+	ArchetypeStorage(ComponentManager cm, BitTable componentBits, int chunkCapacity) {
+		this.cm = cm;
+		this.componentBits = componentBits;
+		this.chunkCapacity = chunkCapacity;
+
+		archetypesByComposition = new HashMap<>();
+		archetypes = new Bag<>();
+		chunkById = new PagedBag<>();
+		rowById = new IntBag();
+		active = new BitSet();
+		scratch = new BitSet();
+	}
+
+	/**
+	 * @return all archetypes created so far, in order of creation.
+	 */
+	ImmutableBag<Archetype> getArchetypes() {
+		return archetypes;
+	}
+
+	Component get(int entityId, int typeIndex) {
+		Chunk chunk = chunkById.get(entityId);
+		if(chunk == null)
+			return null;
+
+		int column = chunk.archetype.getColumn(typeIndex);
+		return column >= 0 ? chunk.columns[column][rowById.get(entityId)] : null;
+	}
+
+	/**
+	 * @return the chunk of the entity, null if it has no components.
+	 */
+	Chunk getChunk(Entity e) {
+		return chunkById.get(e.getId());
+	}
+
+	/**
+	 * While set, moving an entity into or out of an active archetype throws,
+	 * since it would shift the rows of the chunks being processed.
+	 */
+	void setProcessingChunks(boolean processingChunks) {
+		this.processingChunks = processingChunks;
+	}
+
+	/**
+	 * Called before a component is added to or removed from the entity, moves
+	 * never change whether the archetype is active.
+	 *
+	 * @throws IllegalStateException if chunks are processed and the entity
+	 * would move into or out of an active archetype.
+	 */
+	void checkMove(Entity e) {
+		if(!processingChunks)
+			return;
+
+		Chunk chunk = chunkById.get(e.getId());
+		if(chunk != null ? chunk.archetype.isActive() : active.get(e.getId()))
+			throw new IllegalStateException("Components of entities in the world must not be added or removed while chunks are processed");
+	}
+
+	/**
+	 * Replaces the component of a type the entity already has.
+	 */
+	void replace(Entity e, int typeIndex, Component component) {
+		Chunk chunk = chunkById.get(e.getId());
+		int column = chunk.archetype.getColumn(typeIndex);
+		if(column >= 0)
+			chunk.columns[column][rowById.get(e.getId())] = component;
+	}
+
+	/**
+	 * Moves the entity to the archetype with the type added, its bit must
+	 * already be set.
+	 */
+	void added(Entity e, int typeIndex, Component component) {
+		Chunk chunk = chunkById.get(e.getId());
+		Archetype target;
+		if(chunk == null) {
+			target = archetypeFor(e.getId(), active.get(e.getId()));
+		} else {
+			target = chunk.archetype.getWithType(typeIndex);
+			if(target == null) {
+				target = archetypeFor(e.getId(), chunk.archetype.isActive());
+				chunk.archetype.setWithType(typeIndex, target);
+			}
+		}
+
+		moveTo(e, target);
+		replace(e, typeIndex, component);
+	}
+
+	/**
+	 * Moves the entity to the archetype with the type removed, its bit must
+	 * already be cleared.
+	 */
+	void removed(Entity e, int typeIndex) {
+		Chunk chunk = chunkById.get(e.getId());
+		if(chunk == null)
+			return;
+
+		if(componentBits.isEmpty(e.getId())) {
+			leave(e.getId());
+			return;
+		}
+
+		Archetype target = chunk.archetype.getWithoutType(typeIndex);
+		if(target == null) {
+			target = archetypeFor(e.getId(), chunk.archetype.isActive());
+			chunk.archetype.setWithoutType(typeIndex, target);
+		}
+		moveTo(e, target);
+	}
+
+	/**
+	 * Moves the entity between the active and inactive archetype of its
+	 * composition, when it is added to the world, enabled or disabled.
+	 */
+	void setActive(Entity e, boolean isActive) {
+		active.set(e.getId(), isActive);
+
+		Chunk chunk = chunkById.get(e.getId());
+		if(chunk != null && chunk.archetype.isActive() != isActive)
+			moveTo(e, chunk.archetype.twin);
+	}
+
+	/**
+	 * Removes the entity and all its components, once it is deleted from the
+	 * world.
+	 */
+	void remove(Entity e) {
+		active.clear(e.getId());
+		leave(e.getId());
+	}
+
+	/*
+	 * Takes the entity out of its chunk, it stays active, so it returns to an
+	 * active archetype once it gets a component again.
+	 */
+	private void leave(int id) {
+		Chunk chunk = chunkById.get(id);
+		if(chunk != null) {
+			vacate(chunk, rowById.get(id));
+			chunkById.set(id, null);
+		}
+	}
+
+	private void moveTo(Entity e, Archetype target) {
+		int id = e.getId();
+		Chunk from = chunkById.get(id);
+
+		Chunk to = target.chunkForAppend();
+		int row = to.size++;
+		to.entities[row] = e;
+
+		if(from != null) {
+			int fromRow = rowById.get(id);
+			Archetype source = from.archetype;
+			for (int i = 0; i < target.types.length; i++) {
+				int column = source.getColumn(target.types[i]);
+				if(column >= 0)
+					to.columns[i][row] = from.columns[column][fromRow];
+			}
+			vacate(from, fromRow);
+		}
+
+		chunkById.set(id, to);
+		rowById.set(id, row);
+	}
+
+	/*
+	 * Fills the row with the last entity of the archetype, so chunks stay
+	 * packed from the front.
+	 */
+	private void vacate(Chunk chunk, int row) {
+		Archetype archetype = chunk.archetype;
+		Chunk last = archetype.lastChunk();
+		int lastRow = last.size - 1;
+
+		if(last != chunk || lastRow != row) {
+			Entity moved = last.entities[lastRow];
+			chunk.entities[row] = moved;
+			for (int i = 0; i < chunk.columns.length; i++) {
+				chunk.columns[i][row] = last.columns[i][lastRow];
+			}
+			chunkById.set(moved.getId(), chunk);
+			rowById.set(moved.getId(), row);
+		}
+
+		last.entities[lastRow] = null;
+		for (int i = 0; i < last.columns.length; i++) {
+			last.columns[i][lastRow] = null;
+		}
+		last.size--;
+		archetype.removedLastRow();
+	}
+
+	private Archetype archetypeFor(int entityId, boolean isActive) {
+		componentBits.getRow(entityId, scratch);
+		Archetype archetype = archetypesByComposition.get(scratch);
+		if(archetype == null) {
+			archetype = create((BitSet) scratch.clone(), true);
+			Archetype inactive = create(archetype.getComponentBits(), false);
+			archetype.twin = inactive;
+			inactive.twin = archetype;
+			archetypesByComposition.put(archetype.getComponentBits(), archetype);
+		}
+		return isActive ? archetype : archetype.twin;
+	}
+
+	private Archetype create(BitSet composition, boolean isActive) {
+		IntBag columns = new IntBag();
+		for (int i = composition.nextSetBit(0); i >= 0; i = composition.nextSetBit(i+1)) {
+			if(cm.getPackedStorage(i) == null)
+				columns.add(i);
+		}
+
+		int[] types = new int[columns.size()];
+		System.arraycopy(columns.getData(), 0, types, 0, types.length);
+		Archetype archetype = new Archetype(composition, isActive, types, chunkCapacity);
+		archetypes.add(archetype);
+		return archetype;
+	}
+
+	/**
+	 * Drops empty chunks and trims the id indexed locations.
+	 */
+	void compact() {
+		for (int i = 0, s = archetypes.size(); s > i; i++) {
+			archetypes.get(i).trim();
+		}
+		chunkById.trim();
+		rowById.trim();
+	}
+
+	/**
+	 * @return the rows allocated in all chunks.
+	 */
+	int getCapacity() {
+		int capacity = 0;
+		for (int i = 0, s = archetypes.size(); s > i; i++) {
+			capacity += archetypes.get(i).getChunks().size() * chunkCapacity;
+		}
+		return capacity;
+	}
+}
@@ -1,5 +1,7 @@
 package com.artemis;
 
+import com.artemis.utils.BitTable;
+
 import java.util.BitSet;
 
 /**
@@ -29,6 +31,8 @@ public class Aspect {
 	private final BitSet allSet;
 	private final BitSet exclusionSet;
 	private final BitSet oneSet;
+
+	private AspectMatcher matcher;
 	
 	private Aspect() {
 		this.allSet = new BitSet();
@@ -47,6 +51,59 @@ public class Aspect {
 	protected BitSet getOneSet() {
 		return oneSet;
 	}
+
+	/**
+	 * Checks if an entity possessing the given components matches this aspect.
+	 * An aspect without any all or one component types matches nothing.
+	 * 
+	 * @param componentBits the component type indices the entity possesses.
+	 * @return true if the aspect matches.
+	 */
+	public boolean isInterested(BitSet componentBits) {
+		if(allSet.isEmpty() && oneSet.isEmpty()) {
+			return false;
+		}
+
+		boolean interested = true; // possibly interested, let's try to prove it wrong.
+
+		// Check if the entity possesses ALL of the components defined in the aspect.
+		if(!allSet.isEmpty()) {
+			for (int i = allSet.nextSetBit(0); i >= 0; i = allSet.nextSetBit(i+1)) {
+				if(!componentBits.get(i)) {
+					interested = false;
+					break;
+				}
+			}
+		}
+		
+		// Check if the entity possesses ANY of the exclusion components, if it does then the system is not interested.
+		if(!exclusionSet.isEmpty() && interested) {
+			interested = !exclusionSet.intersects(componentBits);
+		}
+		
+		// Check if the entity possesses ANY of the components in the oneSet. If so, the system is interested.
+		if(!oneSet.isEmpty()) {
+			interested = oneSet.intersects(componentBits);
+		}
+
+		return interested;
+	}
+
+	/**
+	 * Checks if the entity in a row of component bits matches this aspect,
+	 * comparing whole words instead of single bits. Same rules as
+	 * isInterested(BitSet).
+	 * 
+	 * @param componentBits component bits of all entities, by entity id.
+	 * @param entityId id of the entity to check.
+	 * @return true if the aspect matches.
+	 */
+	public boolean isInterested(BitTable componentBits, int entityId) {
+		if(matcher == null)
+			matcher = AspectMatcher.compile(this);
+
+		return matcher.matches(componentBits, entityId);
+	}
 	
 	/**
 	 * Returns an aspect where an entity must possess all of the specified component types.
@@ -61,6 +118,7 @@ public class Aspect {
 		for (Class<? extends Component> t : types) {
 			allSet.set(ComponentType.getIndexFor(t));
 		}
+		matcher = null;
 
 		return this;
 	}
@@ -80,6 +138,7 @@ public class Aspect {
 		for (Class<? extends Component> t : types) {
 			exclusionSet.set(ComponentType.getIndexFor(t));
 		}
+		matcher = null;
 		return this;
 	}
 	
@@ -96,6 +155,7 @@ public class Aspect {
 		for (Class<? extends Component> t : types) {
 			oneSet.set(ComponentType.getIndexFor(t));
 		}
+		matcher = null;
 		return this;
 	}
 
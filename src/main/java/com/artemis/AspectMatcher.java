@@ -0,0 +1,90 @@
+package com.artemis;
+
+import com.artemis.utils.BitTable;
+
+import java.util.BitSet;
+
+/**
+ * An Aspect compiled for matching rows of component bits, following the same
+ * rules as Aspect.isInterested(BitSet).
+ *
+ * The masks are taken once, when compiling. Aspects whose component types all
+ * have an index below 64 compare the first word of the row only, the common
+ * case, so a match is one load and two ANDs. Every system compiles its aspect
+ * into the same final class and picks its case with a switch, so the call in
+ * EntitySystem.check() stays monomorphic however many systems there are.
+ */
+final class AspectMatcher {
+	private static final int NOTHING = 0;
+	private static final int ALL_WORD = 1;
+	private static final int ALL = 2;
+	private static final int ONE_WORD = 3;
+	private static final int ONE = 4;
+
+	private final int kind;
+	private final long allWord;
+	private final long exclusionWord;
+	private final long oneWord;
+	private final long[] allWords;
+	private final long[] exclusionWords;
+	private final long[] oneWords;
+
+	private AspectMatcher(BitSet all, BitSet exclusion, BitSet one) {
+		allWords = all.toLongArray();
+		exclusionWords = exclusion.toLongArray();
+		oneWords = one.toLongArray();
+		allWord = allWords.length > 0 ? allWords[0] : 0;
+		exclusionWord = exclusionWords.length > 0 ? exclusionWords[0] : 0;
+		oneWord = oneWords.length > 0 ? oneWords[0] : 0;
+
+		if(oneWords.length > 0)
+			kind = oneWords.length == 1 ? ONE_WORD : ONE; // a one set decides on its own
+		else if(allWords.length == 0)
+			kind = NOTHING;
+		else
+			kind = allWords.length == 1 && exclusionWords.length <= 1 ? ALL_WORD : ALL;
+	}
+
+	/**
+	 * @param aspect the aspect to compile, later changes to it are not seen.
+	 * @return a matcher for the aspect.
+	 */
+	static AspectMatcher compile(Aspect aspect) {
+		return compile(aspect.getAllSet(), aspect.getExclusionSet(), aspect.getOneSet());
+	}
+
+	static AspectMatcher compile(BitSet all, BitSet exclusion, BitSet one) {
+		return new AspectMatcher(all, exclusion, one);
+	}
+
+	/**
+	 * @param componentBits component bits of all entities, by entity id.
+	 * @param entityId id of the entity to check.
+	 * @return true if the aspect matches.
+	 */
+	boolean matches(BitTable componentBits, int entityId) {
+		switch(kind) {
+			case ALL_WORD: {
+				long word = componentBits.getWord(entityId, 0);
+				return (word & allWord) == allWord && (word & exclusionWord) == 0;
+			}
+			case ONE_WORD:
+				return (componentBits.getWord(entityId, 0) & oneWord) != 0;
+			case ALL:
+				return componentBits.containsAll(entityId, allWords)
+						&& !componentBits.intersects(entityId, exclusionWords);
+			case ONE:
+				return componentBits.intersects(entityId, oneWords);
+			default:
+				return false;
+		}
+	}
+
+	/**
+	 * @return true if no entity can match, as the aspect has neither all nor
+	 * one component types.
+	 */
+	boolean matchesNothing() {
+		return kind == NOTHING;
+	}
+}
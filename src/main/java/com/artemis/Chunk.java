@@ -0,0 +1,90 @@
+package com.artemis;
+
+import java.lang.reflect.Array;
+
+/**
+ * A fixed number of entities of one archetype, with one column per component
+ * type. Row i of every column holds the component of getEntity(i), so a system
+ * walking the columns from 0 to size() reads each array front to back.
+ *
+ * Columns are arrays of the component class itself, e.g. Position[], so they
+ * can be cast and read without casting every element. Packed components have
+ * no column, use a PackedComponentMapper for them.
+ *
+ * Rows are filled from the front. Removing an entity moves the last entity of
+ * the archetype into its row, so only the last chunk of an archetype is ever
+ * partly filled.
+ *
+ * @see ArchetypeStorage
+ */
+public final class Chunk {
+	final Archetype archetype;
+	final Entity[] entities;
+	final Component[][] columns;
+	int size;
+
+	Chunk(Archetype archetype, int capacity) {
+		this.archetype = archetype;
+		entities = new Entity[capacity];
+		columns = new Component[archetype.types.length][];
+		for (int i = 0; i < columns.length; i++) {
+			Class<? extends Component> type = ComponentType.getTypeFor(archetype.types[i]).getType();
+			columns[i] = (Component[]) Array.newInstance(type, capacity);
+		}
+	}
+
+	/**
+	 * @return the archetype of all entities in this chunk.
+	 */
+	public Archetype getArchetype() {
+		return archetype;
+	}
+
+	/**
+	 * @return number of rows in use.
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * @return number of rows the chunk has.
+	 */
+	public int getCapacity() {
+		return entities.length;
+	}
+
+	/**
+	 * @param row row of the entity, below size().
+	 * @return the entity in the row.
+	 */
+	public Entity getEntity(int row) {
+		return entities[row];
+	}
+
+	/**
+	 * @param type component type of the column.
+	 * @return the column, or null if the archetype has no column for the type.
+	 */
+	public Component[] getColumn(ComponentType type) {
+		int column = archetype.getColumn(type.getIndex());
+		return column >= 0 ? columns[column] : null;
+	}
+
+	/**
+	 * Resolves the column by class, prefer getColumn(ComponentType) in
+	 * systems that process many small chunks.
+	 *
+	 * @param type component class of the column.
+	 * @return the column, or null if the archetype has no column for the type.
+	 */
+	@SuppressWarnings("unchecked")
+	public <T extends Component> T[] getColumn(Class<T> type) {
+		return (T[]) getColumn(ComponentType.getTypeFor(type));
+	}
+
+	@Override
+	public String toString() {
+		return "Chunk[" + size + "/" + entities.length + " of " + archetype + "]";
+	}
+}
@@ -1,79 +1,422 @@
 package com.artemis;
 
 import com.artemis.utils.Bag;
+import com.artemis.utils.BitTable;
 
+import java.nio.ByteBuffer;
 import java.util.BitSet;
 
 public class ComponentManager extends Manager {
-	private final Bag<Bag<Component>> componentsByType;
-	private final Bag<Entity> deleted;
+	private final Bag<ComponentStorage> componentsByType;
+	private final Bag<PackedStorage> packedByType;
+	private final Bag<ComponentPool<?>> poolsByType;
+	private final Bag<ComponentMapper<?>> mappersByType;
+	private final EntitySet deleted;
+	private final BitTable componentBits;
+	private final Bag<BitSet> entitiesByType;
+	private ArchetypeStorage archetypes;
 
 	public ComponentManager() {
+		componentBits = new BitTable();
+		entitiesByType = new Bag<>();
 		componentsByType = new Bag<>();
-		deleted = new Bag<>();
+		packedByType = new Bag<>();
+		poolsByType = new Bag<>();
+		mappersByType = new Bag<>();
+		deleted = new EntitySet();
 	}
 	
 	@Override
 	protected void initialize() {
 	}
 
+	/**
+	 * Stores components in chunks grouped by archetype from now on, see
+	 * World.setArchetypeStorage().
+	 * 
+	 * @param chunkCapacity number of entities per chunk.
+	 */
+	void setArchetypeStorage(int chunkCapacity) {
+		if(chunkCapacity < 1)
+			throw new IllegalArgumentException("chunkCapacity must be positive: " + chunkCapacity);
+		if(archetypes != null || !componentsByType.isEmpty())
+			throw new IllegalStateException("Archetype storage must be set before components are added or mappers are created");
+
+		archetypes = new ArchetypeStorage(this, componentBits, chunkCapacity);
+	}
+
+	/**
+	 * @return the archetype storage, null unless it has been set.
+	 */
+	ArchetypeStorage getArchetypeStorage() {
+		return archetypes;
+	}
+
 	private void removeComponentsOfEntity(Entity e) {
-		BitSet componentBits = e.getComponentBits();
-		for (int i = componentBits.nextSetBit(0); i >= 0; i = componentBits.nextSetBit(i+1)) {
-			componentsByType.get(i).set(e.getId(), null);
+		int id = e.getId();
+		for (int i = componentBits.nextSetBit(id, 0); i >= 0; i = componentBits.nextSetBit(id, i+1)) {
+			if(archetypes != null) {
+				free(i, archetypes.get(id, i));
+			} else {
+				ComponentStorage components = componentsByType.get(i);
+				free(i, ComponentStorage.fetch(components, id));
+				components.set(id, null);
+			}
+			releasePacked(i, e);
+			entitiesByType.get(i).clear(id);
 		}
-		componentBits.clear();
+		if(archetypes != null)
+			archetypes.remove(e);
+		componentBits.clearRow(id);
 	}
 	
 	protected void addComponent(Entity e, ComponentType type, Component component) {
-		componentsByType.ensureCapacity(type.getIndex());
-		
-		Bag<Component> components = componentsByType.get(type.getIndex());
-		if(components == null) {
-			components = new Bag<>();
-			componentsByType.set(type.getIndex(), components);
+		if(component instanceof PackedComponent)
+			throw new IllegalArgumentException("Create packed components with a PackedComponentMapper: " + type);
+
+		if(archetypes != null) {
+			addToArchetype(e, type.getIndex(), component);
+			return;
 		}
-		
+
+		ComponentStorage components = getComponentsByType(type);
+		Component previous = ComponentStorage.fetch(components, e.getId());
+		if(previous != component && componentBits.get(e.getId(), type.getIndex()))
+			free(type.getIndex(), previous);
+
 		components.set(e.getId(), component);
 
-		e.getComponentBits().set(type.getIndex());
+		setBit(e.getId(), type.getIndex());
+	}
+
+	private void addToArchetype(Entity e, int index, Component component) {
+		if(componentBits.get(e.getId(), index)) {
+			Component previous = archetypes.get(e.getId(), index);
+			if(previous != component)
+				free(index, previous);
+			archetypes.replace(e, index, component);
+		} else {
+			archetypes.checkMove(e);
+			setBit(e.getId(), index);
+			archetypes.added(e, index, component);
+		}
+	}
+
+	/**
+	 * Creates a component, recycling a pooled instance for PooledComponent
+	 * types. Components of other types need a no-arg constructor.
+	 * 
+	 * @param type class of the component.
+	 * @return a new or reset component, not yet added to any entity.
+	 */
+	public <T extends Component> T create(Class<T> type) {
+		if(PooledComponent.class.isAssignableFrom(type))
+			return type.cast(getPool(type.asSubclass(PooledComponent.class)).obtain());
+
+		try {
+			return type.getDeclaredConstructor().newInstance();
+		} catch (ReflectiveOperationException e) {
+			throw new IllegalArgumentException(type.getName() + " needs an accessible no-arg constructor", e);
+		}
+	}
+
+	/**
+	 * @param type class of the pooled component.
+	 * @return the pool of the type, created on first use.
+	 */
+	public <T extends PooledComponent> ComponentPool<T> getPool(Class<T> type) {
+		return getPool(ComponentType.getIndexFor(type), type);
+	}
+
+	private <T extends PooledComponent> ComponentPool<T> getPool(int index, Class<T> type) {
+		ComponentPool<?> pool = poolsByType.isIndexWithinBounds(index) ? poolsByType.get(index) : null;
+		if(pool == null) {
+			pool = new ComponentPool<>(type);
+			poolsByType.set(index, pool);
+		}
+
+		@SuppressWarnings("unchecked")
+		ComponentPool<T> typed = (ComponentPool<T>) pool;
+		return typed;
+	}
+
+	/**
+	 * @param type class of the component.
+	 * @return the mapper of the type, created on first use.
+	 */
+	<T extends Component> ComponentMapper<T> getMapper(Class<T> type) {
+		int index = ComponentType.getIndexFor(type);
+		ComponentMapper<?> mapper = mappersByType.isIndexWithinBounds(index) ? mappersByType.get(index) : null;
+		if(mapper == null) {
+			mapper = new ComponentMapper<>(type, this);
+			mappersByType.set(index, mapper);
+		}
+
+		@SuppressWarnings("unchecked")
+		ComponentMapper<T> typed = (ComponentMapper<T>) mapper;
+		return typed;
+	}
+
+	/**
+	 * @return the pools created so far, for statistics.
+	 */
+	public Bag<ComponentPool<?>> getPools() {
+		Bag<ComponentPool<?>> pools = new Bag<>();
+		for (int i = 0, s = poolsByType.size(); s > i; i++) {
+			ComponentPool<?> pool = poolsByType.get(i);
+			if(pool != null)
+				pools.add(pool);
+		}
+		return pools;
+	}
+
+	/*
+	 * Components go back to the pool of the type they were stored under, and
+	 * only if they are of exactly that type, so removing a component never
+	 * registers a type or pools an instance of another class.
+	 */
+	private void free(int index, Component component) {
+		if(!(component instanceof PooledComponent))
+			return;
+
+		Class<? extends Component> type = ComponentType.getTypeFor(index).getType();
+		if(component.getClass() == type)
+			getPool(index, type.asSubclass(PooledComponent.class)).freeComponent((PooledComponent) component);
 	}
 
 	protected void removeComponent(Entity e, ComponentType type) {
-		if(e.getComponentBits().get(type.getIndex())) {
-			componentsByType.get(type.getIndex()).set(e.getId(), null);
-			e.getComponentBits().clear(type.getIndex());
+		if(componentBits.get(e.getId(), type.getIndex())) {
+			if(archetypes != null) {
+				archetypes.checkMove(e);
+				free(type.getIndex(), archetypes.get(e.getId(), type.getIndex()));
+			} else {
+				ComponentStorage components = componentsByType.get(type.getIndex());
+				free(type.getIndex(), ComponentStorage.fetch(components, e.getId()));
+				components.set(e.getId(), null);
+			}
+			releasePacked(type.getIndex(), e);
+			componentBits.clear(e.getId(), type.getIndex());
+			entitiesByType.get(type.getIndex()).clear(e.getId());
+			if(archetypes != null)
+				archetypes.removed(e, type.getIndex());
+		}
+	}
+
+	ByteBuffer addPackedComponent(Entity e, ComponentType type, PackedStorage storage) {
+		getComponentsByType(type);
+		if(componentBits.get(e.getId(), type.getIndex()))
+			storage.release(e.getId());
+		else if(archetypes != null)
+			addToArchetype(e, type.getIndex(), null);
+
+		setBit(e.getId(), type.getIndex());
+		return storage.allocate(e.getId());
+	}
+
+	/*
+	 * Component bits are kept twice: by entity for systems, and by type for
+	 * queries.
+	 */
+	private void setBit(int entityId, int index) {
+		componentBits.set(entityId, index);
+		BitSet entities = entitiesByType.isIndexWithinBounds(index) ? entitiesByType.get(index) : null;
+		if(entities == null) {
+			entities = new BitSet();
+			entitiesByType.set(index, entities);
+		}
+		entities.set(entityId);
+	}
+
+	PackedStorage getPackedStorage(ComponentType type, int size) {
+		PackedStorage storage = getPackedStorage(type.getIndex());
+		if(storage == null) {
+			storage = new PackedStorage(size);
+			packedByType.set(type.getIndex(), storage);
 		}
+		return storage;
+	}
+
+	PackedStorage getPackedStorage(int index) {
+		return packedByType.isIndexWithinBounds(index) ? packedByType.get(index) : null;
+	}
+
+	private void releasePacked(int index, Entity e) {
+		PackedStorage storage = getPackedStorage(index);
+		if(storage != null)
+			storage.release(e.getId());
 	}
 	
-	protected Bag<Component> getComponentsByType(ComponentType type) {
-		Bag<Component> components = componentsByType.get(type.getIndex());
+	/**
+	 * Chooses the storage of a component type, see World.setComponentStorage().
+	 * 
+	 * @param type the component type.
+	 * @param storage an empty storage, used for this type only.
+	 */
+	public void setStorage(ComponentType type, ComponentStorage storage) {
+		if(archetypes != null)
+			throw new IllegalStateException("Component storages are not used with archetype storage");
+		if(componentsByType.isIndexWithinBounds(type.getIndex()) && componentsByType.get(type.getIndex()) != null)
+			throw new IllegalStateException("Storage of " + type + " must be set before components are added or mappers are created");
+
+		componentsByType.set(type.getIndex(), storage);
+	}
+
+	/**
+	 * @param type the component type.
+	 * @return the storage of the type, a DenseStorage unless another one was set.
+	 */
+	protected ComponentStorage getComponentsByType(ComponentType type) {
+		ComponentStorage components = componentsByType.isIndexWithinBounds(type.getIndex())
+				? componentsByType.get(type.getIndex()) : null;
 		if(components == null) {
-			components = new Bag<>();
+			components = new DenseStorage();
 			componentsByType.set(type.getIndex(), components);
 		}
 		return components;
 	}
 	
 	protected Component getComponent(Entity e, ComponentType type) {
-		Bag<Component> components = componentsByType.get(type.getIndex());
+		if(archetypes != null)
+			return archetypes.get(e.getId(), type.getIndex());
+
+		ComponentStorage components = componentsByType.isIndexWithinBounds(type.getIndex())
+				? componentsByType.get(type.getIndex()) : null;
 		if(components != null) {
-			return components.get(e.getId());
+			return ComponentStorage.fetch(components, e.getId());
 		}
 		return null;
 	}
 	
-	public Bag<Component> getComponentsFor(Entity e, Bag<Component> fillBag) {
-		BitSet componentBits = e.getComponentBits();
+	@Override
+	protected void compact() {
+		for (int i = 0, s = componentsByType.size(); s > i; i++) {
+			ComponentStorage components = componentsByType.get(i);
+			if(components != null)
+				components.trim();
+		}
+		for (int i = 0, s = packedByType.size(); s > i; i++) {
+			PackedStorage storage = packedByType.get(i);
+			if(storage != null)
+				storage.trim();
+		}
+		for (int i = 0, s = poolsByType.size(); s > i; i++) {
+			ComponentPool<?> pool = poolsByType.get(i);
+			if(pool != null)
+				pool.clear();
+		}
+		for (int i = 0, s = entitiesByType.size(); s > i; i++) {
+			BitSet entities = entitiesByType.get(i);
+			if(entities != null)
+				entitiesByType.set(i, (BitSet) entities.clone()); // a clone only keeps the words in use
+		}
+		deleted.trim();
+		componentBits.trim();
+		if(archetypes != null)
+			archetypes.compact();
+	}
+
+	Bag<ComponentStorage> getComponentStorage() {
+		return componentsByType;
+	}
+
+	/**
+	 * @return the component types of every entity, one row per entity id.
+	 */
+	BitTable getComponentBits() {
+		return componentBits;
+	}
+	
+	/**
+	 * @return ids of the entities with a component of each type, by type index.
+	 */
+	Bag<BitSet> getEntityIndex() {
+		return entitiesByType;
+	}
+
+	/**
+	 * Finds the entities matching an aspect, see World.query(). Combines the
+	 * entity ids of each type in the aspect a word at a time.
+	 * 
+	 * @param aspect the component types to match.
+	 * @param fill cleared, then filled with the ids of the matching entities.
+	 * @return fill.
+	 */
+	BitSet query(Aspect aspect, BitSet fill) {
+		fill.clear();
+		BitSet all = aspect.getAllSet();
+		BitSet one = aspect.getOneSet();
+		if(!one.isEmpty()) {
+			// like isInterested(), a one set decides on its own
+			for (int i = one.nextSetBit(0); i >= 0; i = one.nextSetBit(i+1)) {
+				BitSet entities = getEntitiesWith(i);
+				if(entities != null)
+					fill.or(entities);
+			}
+			return fill;
+		}
+		if(all.isEmpty())
+			return fill;
+
+		int first = all.nextSetBit(0);
+		for (int i = first; i >= 0; i = all.nextSetBit(i+1)) {
+			BitSet entities = getEntitiesWith(i);
+			if(entities == null) {
+				fill.clear();
+				return fill;
+			}
+			if(i == first)
+				fill.or(entities);
+			else
+				fill.and(entities);
+		}
+
+		BitSet exclusion = aspect.getExclusionSet();
+		for (int i = exclusion.nextSetBit(0); i >= 0; i = exclusion.nextSetBit(i+1)) {
+			BitSet entities = getEntitiesWith(i);
+			if(entities != null)
+				fill.andNot(entities);
+		}
+		return fill;
+	}
+
+	private BitSet getEntitiesWith(int index) {
+		return entitiesByType.isIndexWithinBounds(index) ? entitiesByType.get(index) : null;
+	}
 
-		for (int i = componentBits.nextSetBit(0); i >= 0; i = componentBits.nextSetBit(i+1)) {
-			fillBag.add(componentsByType.get(i).get(e.getId()));
+	/**
+	 * Packed components have no instance of their own and are left out, read
+	 * them through a PackedComponentMapper.
+	 */
+	public Bag<Component> getComponentsFor(Entity e, Bag<Component> fillBag) {
+		int id = e.getId();
+		for (int i = componentBits.nextSetBit(id, 0); i >= 0; i = componentBits.nextSetBit(id, i+1)) {
+			if(getPackedStorage(i) != null)
+				continue;
+			fillBag.add(archetypes != null ? archetypes.get(id, i) : ComponentStorage.fetch(componentsByType.get(i), id));
 		}
 		
 		return fillBag;
 	}
 
 	
+	@Override
+	public void added(Entity e) {
+		if(archetypes != null)
+			archetypes.setActive(e, e.isEnabled());
+	}
+
+	@Override
+	public void enabled(Entity e) {
+		if(archetypes != null)
+			archetypes.setActive(e, true);
+	}
+
+	@Override
+	public void disabled(Entity e) {
+		if(archetypes != null)
+			archetypes.setActive(e, false);
+	}
+
 	@Override
 	public void deleted(Entity e) {
 		deleted.add(e);
@@ -81,8 +424,8 @@ public class ComponentManager extends Manager {
 	
 	protected void clean() {
 		if(deleted.size() > 0) {
-			for(Entity e : deleted) {
-				removeComponentsOfEntity(e);
+			for (int i = 0, s = deleted.size(); s > i; i++) {
+				removeComponentsOfEntity(deleted.get(i));
 			}
 			deleted.clear();
 		}
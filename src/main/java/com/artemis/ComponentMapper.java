@@ -1,36 +1,59 @@
 package com.artemis;
 
-import com.artemis.utils.Bag;
+import com.artemis.utils.BitTable;
 
 /**
  * High performance component retrieval from entities. Use this wherever you
  * need to retrieve components from entities often and fast.
  * 
+ * There is one mapper per component type and world. The storage of a type
+ * only ever holds components of that type, so get() returns them as they are
+ * and has() only looks at the entity's component bits.
+ * 
  * @author Arni Arent
  *
  * @param <A> the class type of the component
  */
 public class ComponentMapper<A extends Component> {
-	private final ComponentType type;
-	private final Class<A> classType;
-	private final Bag<Component> components;
+	private final int index;
+	private final ComponentStorage components;
+	private final ArchetypeStorage archetypes;
+	private final BitTable componentBits;
 
-	private ComponentMapper(Class<A> type, World world) {
-		this.type = ComponentType.getTypeFor(type);
-		components = world.getComponentManager().getComponentsByType(this.type);
-		this.classType = type;
+	ComponentMapper(Class<A> type, ComponentManager cm) {
+		index = ComponentType.getIndexFor(type);
+		archetypes = cm.getArchetypeStorage();
+		components = cm.getComponentsByType(ComponentType.getTypeFor(type));
+		componentBits = cm.getComponentBits();
 	}
 
 	/**
-	 * Fast but unsafe retrieval of a component for this entity.
-	 * No bounding checks, so this could throw an ArrayIndexOutOfBoundsExeption,
-	 * however in most scenarios you already know the entity possesses this component.
+	 * Fast retrieval of a component for this entity. In most scenarios you
+	 * already know the entity possesses this component, if it does not then
+	 * null is returned.
 	 * 
 	 * @param e the entity that should possess the component
 	 * @return the instance of the component
 	 */
 	public A get(Entity e) {
-		return classType.cast(components.get(e.getId()));
+		return get(e.getId());
+	}
+
+	/**
+	 * Fast retrieval of a component by entity id, see get(Entity). The id is
+	 * not checked against a generation: once its entity is deleted, this reads
+	 * the component of whichever entity got the id next. Check a kept handle
+	 * with World.isAlive(long) before using its id.
+	 * 
+	 * @param entityId the id of the entity that should possess the component
+	 * @return the instance of the component
+	 */
+	@SuppressWarnings("unchecked")
+	public A get(int entityId) {
+		if(archetypes != null)
+			return (A) archetypes.get(entityId, index);
+
+		return (A) ComponentStorage.fetch(components, entityId);
 	}
 
 	/**
@@ -41,10 +64,7 @@ public class ComponentMapper<A extends Component> {
 	 * @return the instance of the component
 	 */
 	public A getSafe(Entity e) {
-		if(components.isIndexWithinBounds(e.getId())) {
-			return classType.cast(components.get(e.getId()));
-		}
-		return null;
+		return get(e.getId());
 	}
 	
 	/**
@@ -53,18 +73,29 @@ public class ComponentMapper<A extends Component> {
 	 * @return true if the entity has this component type, false if it doesn't.
 	 */
 	public boolean has(Entity e) {
-		return getSafe(e) != null;		
+		return componentBits.get(e.getId(), index);
+	}
+
+	/**
+	 * Checks if the entity with this id has this type of component. Like
+	 * get(int), the id is not checked against a generation.
+	 * @param entityId the id of the entity to check
+	 * @return true if the entity has this component type, false if it doesn't.
+	 */
+	public boolean has(int entityId) {
+		return componentBits.get(entityId, index);
 	}
 
 	/**
-	 * Returns a component mapper for this type of components.
+	 * Returns the component mapper for this type of components, created on
+	 * first use and the same instance on every later call.
 	 * 
 	 * @param type the type of components this mapper uses.
 	 * @param world the world that this component mapper should use.
-	 * @return a new mapper.
+	 * @return the mapper of the type in the world.
 	 */
 	public static <T extends Component> ComponentMapper<T> getFor(Class<T> type, World world) {
-		return new ComponentMapper<>(type, world);
+		return world.getComponentManager().getMapper(type);
 	}
 
 }
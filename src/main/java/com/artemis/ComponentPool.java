@@ -0,0 +1,157 @@
+package com.artemis;
+
+import java.lang.reflect.Constructor;
+import java.util.ArrayDeque;
+
+/**
+ * Recycled instances of one PooledComponent type, with statistics on how
+ * often they are reused. Obtain pools from ComponentManager.getPool().
+ * 
+ * @param <T> the class type of the component
+ */
+public class ComponentPool<T extends PooledComponent> {
+	private final Class<T> type;
+	private final Constructor<T> constructor;
+	private final ArrayDeque<T> free;
+	private int maxFree;
+
+	private long hits;
+	private long misses;
+	private long freed;
+	private long dropped;
+
+	ComponentPool(Class<T> type) {
+		this.type = type;
+		try {
+			constructor = type.getDeclaredConstructor();
+			constructor.setAccessible(true);
+		} catch (ReflectiveOperationException e) {
+			throw new IllegalArgumentException(type.getName() + " needs a no-arg constructor", e);
+		}
+		free = new ArrayDeque<>();
+		maxFree = Integer.MAX_VALUE;
+	}
+
+	/**
+	 * @return a recycled instance if there is one, a new one otherwise.
+	 */
+	public T obtain() {
+		T component = free.pollLast();
+		if(component != null) {
+			hits++;
+		} else {
+			misses++;
+			component = newInstance();
+		}
+		component.pooled = false;
+		return component;
+	}
+
+	/**
+	 * Resets the component and keeps it for reuse. Components that are already
+	 * in the pool are ignored.
+	 * 
+	 * @param component no longer used by any entity.
+	 */
+	public void free(T component) {
+		if(component.pooled)
+			return;
+
+		component.reset();
+		component.pooled = true;
+		freed++;
+		if(free.size() < maxFree)
+			free.addLast(component);
+		else
+			dropped++;
+	}
+
+	void freeComponent(PooledComponent component) {
+		free(type.cast(component));
+	}
+
+	private T newInstance() {
+		try {
+			return constructor.newInstance();
+		} catch (ReflectiveOperationException e) {
+			throw new RuntimeException("Could not create " + type.getName(), e);
+		}
+	}
+
+	/**
+	 * Drops all kept instances, leaving them to the garbage collector.
+	 */
+	public void clear() {
+		free.clear();
+	}
+
+	/**
+	 * Limits how many instances are kept, further freed instances are dropped.
+	 * 
+	 * @param maxFree number of instances to keep at most.
+	 */
+	public void setMaxFree(int maxFree) {
+		if(maxFree < 0)
+			throw new IllegalArgumentException("maxFree must not be negative: " + maxFree);
+
+		this.maxFree = maxFree;
+		while(free.size() > maxFree)
+			free.pollFirst();
+	}
+
+	public int getMaxFree() {
+		return maxFree;
+	}
+
+	public Class<T> getType() {
+		return type;
+	}
+
+	/**
+	 * @return instances kept for reuse.
+	 */
+	public int getFreeCount() {
+		return free.size();
+	}
+
+	/**
+	 * @return obtained instances that were recycled.
+	 */
+	public long getHits() {
+		return hits;
+	}
+
+	/**
+	 * @return obtained instances that had to be allocated.
+	 */
+	public long getMisses() {
+		return misses;
+	}
+
+	/**
+	 * @return instances returned to the pool, including dropped ones.
+	 */
+	public long getFreed() {
+		return freed;
+	}
+
+	/**
+	 * @return freed instances that were dropped because the pool was full.
+	 */
+	public long getDropped() {
+		return dropped;
+	}
+
+	/**
+	 * @return share of obtained instances that were recycled, between 0 and 1.
+	 */
+	public double getHitRate() {
+		long obtained = hits + misses;
+		return obtained == 0 ? 0 : (double) hits / obtained;
+	}
+
+	@Override
+	public String toString() {
+		return "ComponentPool[" + type.getSimpleName() + "] hits=" + hits + " misses=" + misses + " free=" + free.size();
+	}
+}
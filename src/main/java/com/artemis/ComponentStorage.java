@@ -0,0 +1,69 @@
+package com.artemis;
+
+/**
+ * Stores the components of one component type by entity id. Every type gets a
+ * DenseStorage unless another storage is chosen for it with
+ * World.setComponentStorage(), before the first component of the type is added
+ * or its first mapper is created.
+ *
+ * <pre>
+ * world.setComponentStorage(Frozen.class, new SparseSetStorage());  // few entities have it
+ * world.setComponentStorage(Burning.class, new AdaptiveStorage());  // comes and goes
+ * </pre>
+ *
+ * The shipped storages are final, and mappers and the ComponentManager call
+ * them through fetch(), which tests for each of them before falling back to a
+ * virtual call. A call site reading components therefore stays monomorphic no
+ * matter how many storages a world mixes; only custom storages pay for a
+ * virtual call.
+ *
+ * Each instance serves exactly one component type of one world.
+ */
+public abstract class ComponentStorage {
+
+	/**
+	 * @param entityId id of the entity.
+	 * @return the component of the entity, null if it has none.
+	 */
+	public abstract Component get(int entityId);
+
+	/**
+	 * @param entityId id of the entity.
+	 * @param component the component, null to remove the entity's component.
+	 */
+	public abstract void set(int entityId, Component component);
+
+	/**
+	 * @return number of components stored.
+	 */
+	public abstract int size();
+
+	/**
+	 * @return number of components the storage can hold without allocating.
+	 */
+	public abstract int getCapacity();
+
+	/**
+	 * @return estimated heap bytes retained, including the components stored.
+	 */
+	public abstract long estimateBytes();
+
+	/**
+	 * Releases capacity the components stored do not need, see
+	 * World.compactStorage().
+	 */
+	public abstract void trim();
+
+	/**
+	 * Reads a component without a virtual call for the shipped storages.
+	 */
+	static Component fetch(ComponentStorage storage, int entityId) {
+		if(storage instanceof DenseStorage)
+			return ((DenseStorage) storage).get(entityId);
+		if(storage instanceof SparseSetStorage)
+			return ((SparseSetStorage) storage).get(entityId);
+		if(storage instanceof AdaptiveStorage)
+			return ((AdaptiveStorage) storage).get(entityId);
+		return storage.get(entityId);
+	}
+}
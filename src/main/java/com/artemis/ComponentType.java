@@ -1,5 +1,7 @@
 package com.artemis;
 
+import com.artemis.utils.Bag;
+
 import java.util.HashMap;
 
 public class ComponentType {
@@ -16,6 +18,13 @@ public class ComponentType {
 	public int getIndex() {
 		return index;
 	}
+
+	/**
+	 * @return the component class this type stands for.
+	 */
+	public Class<? extends Component> getType() {
+		return type;
+	}
 	
 	@Override
 	public String toString() {
@@ -23,6 +32,7 @@ public class ComponentType {
 	}
 
 	private static final HashMap<Class<? extends Component>, ComponentType> componentTypes = new HashMap<>();
+	private static final Bag<ComponentType> typesByIndex = new Bag<>();
 
 	public static ComponentType getTypeFor(Class<? extends Component> c) {
 		ComponentType type = componentTypes.get(c);
@@ -30,11 +40,20 @@ public class ComponentType {
 		if (type == null) {
 			type = new ComponentType(c);
 			componentTypes.put(c, type);
+			typesByIndex.set(type.getIndex(), type);
 		}
 
 		return type;
 	}
 
+	/**
+	 * @param index of a component type.
+	 * @return the type with this index, or null if there is none.
+	 */
+	public static ComponentType getTypeFor(int index) {
+		return typesByIndex.isIndexWithinBounds(index) ? typesByIndex.get(index) : null;
+	}
+
 	public static int getIndexFor(Class<? extends Component> c) {
 		return getTypeFor(c).getIndex();
 	}
@@ -0,0 +1,175 @@
+package com.artemis;
+
+import com.artemis.utils.Bag;
+import com.artemis.utils.ImmutableBag;
+
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Counts live entities per composition, the exact set of component types an
+ * entity possesses. Useful for capacity planning and for choosing storage
+ * layouts.
+ *
+ * The census is kept up to date as entities are added, changed and deleted
+ * during World.process(), so queries never walk the entities. Like systems, it
+ * only sees component changes that were announced with changedInWorld().
+ *
+ * <pre>
+ * CompositionCensus census = world.setManager(new CompositionCensus());
+ * ...
+ * for (CompositionCensus.Composition c : census.getCompositions())
+ *     System.out.println(c.getComponentTypes() + ": " + c.getEntityCount());
+ * </pre>
+ *
+ * Disabled entities are still counted.
+ */
+public class CompositionCensus extends Manager {
+	private final Map<BitSet, Composition> compositions;
+	private final Bag<Composition> compositionsBag;
+	private final Bag<Composition> compositionsByEntity;
+	private final BitSet scratch;
+	private int liveCompositions;
+
+	public CompositionCensus() {
+		scratch = new BitSet();
+		compositions = new HashMap<>();
+		compositionsBag = new Bag<>();
+		compositionsByEntity = new Bag<>();
+	}
+
+	/**
+	 * A distinct set of component types.
+	 */
+	public class Composition {
+		private final BitSet componentBits;
+		private final Bag<ComponentType> componentTypes;
+		private int entityCount;
+
+		private Composition(BitSet componentBits) {
+			this.componentBits = componentBits;
+			componentTypes = new Bag<>();
+			for (int i = componentBits.nextSetBit(0); i >= 0; i = componentBits.nextSetBit(i+1)) {
+				componentTypes.add(ComponentType.getTypeFor(i));
+			}
+		}
+
+		/**
+		 * @return the component types of this composition.
+		 */
+		public ImmutableBag<ComponentType> getComponentTypes() {
+			return componentTypes;
+		}
+
+		/**
+		 * @param type component type to look for.
+		 * @return true if entities of this composition possess the type.
+		 */
+		public boolean hasComponentType(ComponentType type) {
+			return componentBits.get(type.getIndex());
+		}
+
+		/**
+		 * @return number of live entities with exactly this composition.
+		 */
+		public int getEntityCount() {
+			return entityCount;
+		}
+
+		/**
+		 * Matches the aspects of the world's systems against this composition.
+		 *
+		 * @return the systems entities of this composition belong to.
+		 */
+		public Bag<EntitySystem> getSystems() {
+			Bag<EntitySystem> matching = new Bag<>();
+			ImmutableBag<EntitySystem> systems = world.getSystems();
+			for (int i = 0, s = systems.size(); s > i; i++) {
+				EntitySystem system = systems.get(i);
+				if(system.getAspect().isInterested(componentBits))
+					matching.add(system);
+			}
+			return matching;
+		}
+
+		@Override
+		public String toString() {
+			return "Composition" + componentTypes + " (" + entityCount + ")";
+		}
+	}
+
+	@Override
+	public void added(Entity e) {
+		track(e);
+	}
+
+	@Override
+	public void changed(Entity e) {
+		if(getComposition(e) != null)
+			track(e);
+	}
+
+	@Override
+	public void deleted(Entity e) {
+		Composition previous = getComposition(e);
+		if(previous != null) {
+			decrement(previous);
+			compositionsByEntity.set(e.getId(), null);
+		}
+	}
+
+	private void track(Entity e) {
+		BitSet componentBits = world.getComponentManager().getComponentBits().getRow(e.getId(), scratch);
+		Composition composition = compositions.get(componentBits);
+		if(composition == null) {
+			composition = new Composition((BitSet) componentBits.clone());
+			compositions.put(composition.componentBits, composition);
+			compositionsBag.add(composition);
+		}
+
+		Composition previous = getComposition(e);
+		if(previous == composition)
+			return;
+
+		if(previous != null)
+			decrement(previous);
+		if(composition.entityCount++ == 0)
+			liveCompositions++;
+		compositionsByEntity.set(e.getId(), composition);
+	}
+
+	private void decrement(Composition composition) {
+		if(--composition.entityCount == 0)
+			liveCompositions--;
+	}
+
+	/**
+	 * @param e an entity of the world.
+	 * @return the composition the entity was counted under, null if it is not in the world.
+	 */
+	public Composition getComposition(Entity e) {
+		int id = e.getId();
+		return compositionsByEntity.isIndexWithinBounds(id) ? compositionsByEntity.get(id) : null;
+	}
+
+	/**
+	 * @return all compositions that have live entities.
+	 */
+	public Bag<Composition> getCompositions() {
+		Bag<Composition> live = new Bag<>(Math.max(liveCompositions, 1));
+		for (int i = 0, s = compositionsBag.size(); s > i; i++) {
+			Composition composition = compositionsBag.get(i);
+			if(composition.entityCount > 0)
+				live.add(composition);
+		}
+		return live;
+	}
+
+	/**
+	 * @return number of distinct compositions that have live entities.
+	 */
+	public int getCompositionCount() {
+		return liveCompositions;
+	}
+}
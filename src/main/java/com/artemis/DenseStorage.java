@@ -0,0 +1,70 @@
+package com.artemis;
+
+import com.artemis.utils.MemoryLayout;
+import com.artemis.utils.PagedBag;
+
+/**
+ * Components in pages indexed directly by entity id, the default storage.
+ * A read is two array loads. Every page an entity id falls into is allocated
+ * in full, so it suits types most entities in an id range have.
+ *
+ * @see PagedBag
+ */
+public final class DenseStorage extends ComponentStorage {
+	private final PagedBag<Component> components;
+	private int size;
+
+	public DenseStorage() {
+		components = new PagedBag<>();
+	}
+
+	@Override
+	public Component get(int entityId) {
+		return components.get(entityId);
+	}
+
+	@Override
+	public void set(int entityId, Component component) {
+		Component previous = components.get(entityId);
+		if(previous == null && component != null)
+			size++;
+		else if(previous != null && component == null)
+			size--;
+
+		components.set(entityId, component);
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public int getCapacity() {
+		return components.getCapacity();
+	}
+
+	/**
+	 * @return one past the highest entity id a component was stored for.
+	 */
+	int getIdRange() {
+		return components.size();
+	}
+
+	@Override
+	public long estimateBytes() {
+		long bytes = MemoryLayout.referenceArraySize(components.getPageDirectoryLength())
+				+ components.getPageCount() * MemoryLayout.referenceArraySize(components.getPageSize());
+		for (int i = 0, s = components.size(); s > i; i++) {
+			Component component = components.get(i);
+			if(component != null)
+				bytes += MemoryLayout.shallowSize(component.getClass());
+		}
+		return bytes;
+	}
+
+	@Override
+	public void trim() {
+		components.trim();
+	}
+}
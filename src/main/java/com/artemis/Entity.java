@@ -10,25 +10,19 @@ import java.util.UUID;
  * The entity class. Cannot be instantiated outside the framework, you must
  * create new entities using World.
  * 
+ * Entity instances are reused for new entities once their id is recycled, so
+ * do not hold on to an Entity after deleting it, see getHandle().
+ * 
  * @author Arni Arent
  * 
  */
 public final class Entity {
 	private final int id;
-	private final BitSet componentBits;
-	private final BitSet systemBits;
-
 	private final World world;
-	private final EntityManager entityManager;
-	private final ComponentManager componentManager;
 	
 	protected Entity(World world, int id) {
 		this.world = world;
 		this.id = id;
-		this.entityManager = world.getEntityManager();
-		this.componentManager = world.getComponentManager();
-		systemBits = new BitSet();
-		componentBits = new BitSet();
 		
 		reset();
 	}
@@ -45,19 +39,36 @@ public final class Entity {
 	}
 
 	/**
-	 * Returns a BitSet instance containing bits of the components the entity possesses.
+	 * The id together with its generation, which changes whenever an entity
+	 * with this id is deleted. Keep the handle instead of the Entity where
+	 * the entity might be deleted in the meantime: the Entity instance is reused
+	 * for the next entity with the same id, the handle goes stale.
+	 * 
+	 * @return handle of the entity.
+	 * @see World#isAlive(long)
+	 */
+	public long getHandle() {
+		return world.getEntityManager().getHandle(id);
+	}
+
+	/**
+	 * Returns a copy of the bits of the components the entity possesses. The
+	 * bits themselves are kept by the ComponentManager, in a table indexed by
+	 * entity id.
 	 * @return
 	 */
 	protected BitSet getComponentBits() {
-		return componentBits;
+		return world.getComponentManager().getComponentBits().getRow(id, new BitSet());
 	}
 	
 	/**
-	 * Returns a BitSet instance containing bits of the components the entity possesses.
+	 * Returns a copy of the bits of the systems the entity belongs to. The
+	 * bits themselves are kept by the EntityManager, in a table indexed by
+	 * entity id.
 	 * @return
 	 */
 	protected BitSet getSystemBits() {
-		return systemBits;
+		return world.getEntityManager().getSystemBits().getRow(id, new BitSet());
 	}
 
 	/**
@@ -65,8 +76,8 @@ public final class Entity {
 	 * Will generate a new uuid for the entity.
 	 */
 	protected void reset() {
-		systemBits.clear();
-		componentBits.clear();
+		world.getEntityManager().getSystemBits().clearRow(id);
+		world.getComponentManager().getComponentBits().clearRow(id);
 		if(world.hasUuidManager())
 			world.getManager(UuidEntityManager.class).setUuid(this, UUID.randomUUID());
 	}
@@ -98,10 +109,24 @@ public final class Entity {
 	 * @return this entity for chaining.
 	 */
 	public Entity addComponent(Component component, ComponentType type) {
-		componentManager.addComponent(this, type, component);
+		world.getComponentManager().addComponent(this, type, component);
 		return this;
 	}
 
+	/**
+	 * Create a component and add it to this entity. Instances of
+	 * PooledComponent types are recycled, see PooledComponent.
+	 * 
+	 * @param type class of the component to create
+	 * 
+	 * @return the created component.
+	 */
+	public <T extends Component> T createComponent(Class<T> type) {
+		T component = world.getComponentManager().create(type);
+		addComponent(component, ComponentType.getTypeFor(type));
+		return component;
+	}
+
 	/**
 	 * Removes the component from this entity.
 	 * 
@@ -122,7 +147,7 @@ public final class Entity {
 	 * @return this entity for chaining.
 	 */
 	public Entity removeComponent(ComponentType component) {
-		componentManager.removeComponent(this, component);
+		world.getComponentManager().removeComponent(this, component);
 		return this;
 	}
 	
@@ -144,7 +169,7 @@ public final class Entity {
 	 * @return if it's active.
 	 */
 	public boolean isActive() {
-		return entityManager.isActive(id);
+		return world.getEntityManager().isActive(id);
 	}
 	
 	/**
@@ -155,7 +180,7 @@ public final class Entity {
 	 * @return if it's enabled
 	 */
 	public boolean isEnabled() {
-		return entityManager.isEnabled(id);
+		return world.getEntityManager().isEnabled(id);
 	}
 	
 	/**
@@ -170,7 +195,7 @@ public final class Entity {
 	 * @return
 	 */
 	public Component getComponent(ComponentType type) {
-		return componentManager.getComponent(this, type);
+		return world.getComponentManager().getComponent(this, type);
 	}
 
 	/**
@@ -189,14 +214,14 @@ public final class Entity {
 	}
 
 	/**
-	 * Returns a bag of all components this entity has.
+	 * Returns a bag of all components this entity has, except packed ones.
 	 * You need to reset the bag yourself if you intend to fill it more than once.
 	 * 
 	 * @param fillBag the bag to put the components into.
 	 * @return the fillBag with the components in.
 	 */
 	public Bag<Component> getComponents(Bag<Component> fillBag) {
-		return componentManager.getComponentsFor(this, fillBag);
+		return world.getComponentManager().getComponentsFor(this, fillBag);
 	}
 
 	/**
@@ -0,0 +1,46 @@
+package com.artemis;
+
+/**
+ * Packs an entity id and the generation of the id into one long.
+ * 
+ * Ids are reused once their entity is deleted, and every deletion bumps the
+ * generation of the id. A handle taken from Entity.getHandle() or World.create()
+ * therefore stops resolving once its entity is gone, even when the id already
+ * belongs to a new entity, see World.isAlive(long).
+ * 
+ * The low 32 bits hold the id, the high 32 bits the generation, so a handle
+ * could only be mistaken for a live one after its id has been reused 2^32
+ * times, years of reusing one id every frame.
+ */
+public final class EntityHandle {
+	public static final int ID_BITS = 32;
+	public static final int MAX_ID = Integer.MAX_VALUE;
+	private static final long ID_MASK = 0xFFFFFFFFL;
+
+	private EntityHandle() {}
+
+	/**
+	 * @param id of the entity.
+	 * @param generation of the id.
+	 * @return the handle.
+	 */
+	public static long of(int id, int generation) {
+		return (long) generation << ID_BITS | (id & ID_MASK);
+	}
+
+	/**
+	 * @param handle of an entity.
+	 * @return the entity id.
+	 */
+	public static int getId(long handle) {
+		return (int) handle;
+	}
+
+	/**
+	 * @param handle of an entity.
+	 * @return the generation of the entity id.
+	 */
+	public static int getGeneration(long handle) {
+		return (int) (handle >>> ID_BITS);
+	}
+}
@@ -1,12 +1,21 @@
 package com.artemis;
 
 import com.artemis.utils.Bag;
+import com.artemis.utils.BitTable;
+import com.artemis.utils.IntBag;
+import com.artemis.utils.MemoryLayout;
 
+import java.util.Arrays;
 import java.util.BitSet;
 
 public class EntityManager extends Manager {
 	private final Bag<Entity> entities;
-	private final BitSet disabled;
+	private final Bag<Entity> instances;
+	private final IntBag generations;
+	private BitSet live;
+	private BitSet disabled;
+	private final IntBag recyclable;
+	private final BitTable systemBits;
 	
 	private int active;
 	private long added;
@@ -17,7 +26,12 @@ public class EntityManager extends Manager {
 	
 	public EntityManager() {
 		entities = new Bag<>();
+		instances = new Bag<>();
+		generations = new IntBag();
+		live = new BitSet();
 		disabled = new BitSet();
+		recyclable = new IntBag();
+		systemBits = new BitTable();
 		identifierPool = new IdentifierPool();
 	}
 	
@@ -25,8 +39,22 @@ public class EntityManager extends Manager {
 	protected void initialize() {
 	}
 
+	/*
+	 * Every id keeps its Entity instance for the next entity that gets the id.
+	 * Its component and system bits live in tables indexed by id.
+	 */
 	protected Entity createEntityInstance() {
-		Entity e = new Entity(world, identifierPool.checkOut());
+		int id = identifierPool.checkOut();
+		Entity e = instances.isIndexWithinBounds(id) ? instances.get(id) : null;
+		if(e == null) {
+			e = new Entity(world, id);
+			instances.set(id, e);
+			if(id >= generations.size())
+				generations.set(id, 0);
+		} else {
+			e.reset();
+		}
+		live.set(id);
 		++created;
 		return e;
 	}
@@ -53,13 +81,56 @@ public class EntityManager extends Manager {
 		entities.set(e.getId(), null);
 		
 		disabled.clear(e.getId());
-		
-		identifierPool.checkIn(e.getId());
+
+		live.clear(e.getId());
+		generations.set(e.getId(), generations.get(e.getId()) + 1);
+		recyclable.add(e.getId());
 		
 		--active;
 		++deleted;
 	}
 
+	/*
+	 * Ids of deleted entities are reused only after their components have been
+	 * removed, so an entity created while the deletion is being announced can
+	 * not inherit stale components.
+	 */
+	protected void clean() {
+		for (int i = 0, s = recyclable.size(); s > i; i++) {
+			identifierPool.checkIn(recyclable.get(i));
+		}
+		recyclable.clear();
+	}
+
+	/**
+	 * @param entityId of the entity.
+	 * @return the handle of the entity that currently has the id.
+	 */
+	public long getHandle(int entityId) {
+		return EntityHandle.of(entityId, generations.get(entityId));
+	}
+
+	/**
+	 * Check if the entity of this handle still exists, it has been created but
+	 * its deletion has not been processed yet.
+	 * 
+	 * @param handle of the entity.
+	 * @return true if the handle still refers to its entity, false for
+	 * handles that were not made by a world, e.g. with a negative id.
+	 */
+	public boolean isAlive(long handle) {
+		int id = EntityHandle.getId(handle);
+		return id >= 0 && live.get(id) && generations.get(id) == EntityHandle.getGeneration(handle);
+	}
+
+	/**
+	 * @param handle of the entity.
+	 * @return the entity, or null if it no longer exists.
+	 */
+	public Entity getEntityForHandle(long handle) {
+		return isAlive(handle) ? instances.get(EntityHandle.getId(handle)) : null;
+	}
+
 
 	/**
 	 * Check if this entity is active.
@@ -128,27 +199,98 @@ public class EntityManager extends Manager {
 	
 	
 	
+	@Override
+	protected void compact() {
+		identifierPool.compact();
+		for (int i = 0, s = identifierPool.ids.size(); s > i; i++) {
+			instances.set(identifierPool.ids.get(i), null);
+		}
+		for (int id = identifierPool.nextAvailableId; id < instances.size(); id++) {
+			instances.set(id, null);
+		}
+		instances.trim();
+		entities.trim();
+		generations.trim();
+		recyclable.trim();
+		systemBits.trim();
+		live = (BitSet) live.clone(); // a clone only keeps the words in use
+		disabled = (BitSet) disabled.clone();
+	}
+
+	Bag<Entity> getEntityTable() {
+		return entities;
+	}
+
+	Bag<Entity> getEntityInstances() {
+		return instances;
+	}
+
+	long getGenerationBytes() {
+		return MemoryLayout.arraySize(generations.getCapacity(), 4);
+	}
+
+	/**
+	 * @return the systems every entity belongs to, one row per entity id.
+	 */
+	BitTable getSystemBits() {
+		return systemBits;
+	}
+
+	BitSet getDisabledBits() {
+		return disabled;
+	}
+
+	long getRecycledIdBytes() {
+		return identifierPool.estimateBytes();
+	}
+	
+	
 	/*
 	 * Used only internally to generate distinct ids for entities and reuse them.
 	 */
 	private class IdentifierPool {
-		private final Bag<Integer> ids;
+		private final IntBag ids;
 		private int nextAvailableId;
 
 		public IdentifierPool() {
-			ids = new Bag<>();
+			ids = new IntBag();
 		}
 		
 		public int checkOut() {
 			if(ids.size() > 0) {
 				return ids.removeLast();
 			}
+			if(nextAvailableId == EntityHandle.MAX_ID)
+				throw new IllegalStateException("Too many entities, ids are limited to " + EntityHandle.MAX_ID);
 			return nextAvailableId++;
 		}
 		
 		public void checkIn(int id) {
 			ids.add(id);
 		}
+
+		/*
+		 * Forgets free ids at the top of the range and orders the rest so the
+		 * lowest are handed out first, letting id indexed storage shrink.
+		 */
+		void compact() {
+			int[] data = ids.getData();
+			Arrays.sort(data, 0, ids.size());
+			while(!ids.isEmpty() && data[ids.size()-1] == nextAvailableId-1) {
+				ids.removeLast();
+				nextAvailableId--;
+			}
+			for (int i = 0, j = ids.size()-1; i < j; i++, j--) {
+				int id = data[i];
+				data[i] = data[j];
+				data[j] = id;
+			}
+			ids.trim();
+		}
+
+		long estimateBytes() {
+			return MemoryLayout.arraySize(ids.getCapacity(), 4);
+		}
 	}
 
 }
@@ -0,0 +1,217 @@
+package com.artemis;
+
+import com.artemis.utils.ImmutableBag;
+
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * A set of entities indexed by entity id. Membership is kept in a bitset and
+ * each entity's position in a dense array is remembered, so adding, removing and
+ * checking for an entity are O(1) while iteration stays a linear array walk.
+ *
+ * Like Bag it does not preserve the order of its entities: removing an entity
+ * moves the last entity into its place.
+ */
+public class EntitySet implements ImmutableBag<Entity> {
+	private BitSet members;
+	private Entity[] data;
+	private Entity[] scratch;
+	private int[] positions;
+	private int size;
+
+	/**
+	 * Constructs an empty set with an initial capacity of 64.
+	 */
+	public EntitySet() {
+		this(64);
+	}
+
+	/**
+	 * Constructs an empty set with the specified initial capacity.
+	 *
+	 * @param capacity the initial capacity of the set
+	 */
+	public EntitySet(int capacity) {
+		members = new BitSet();
+		data = new Entity[capacity];
+		positions = new int[capacity];
+	}
+
+	/**
+	 * Adds the entity unless the set already holds an entity with its id.
+	 *
+	 * @param e entity to add
+	 * @return true if the entity was added
+	 */
+	public boolean add(Entity e) {
+		if(e == null || members.get(e.getId()))
+			return false;
+
+		if(size == data.length) {
+			Entity[] oldData = data;
+			data = new Entity[(oldData.length * 3) / 2 + 1];
+			System.arraycopy(oldData, 0, data, 0, oldData.length);
+		}
+
+		int id = e.getId();
+		if(id >= positions.length) {
+			int[] oldPositions = positions;
+			positions = new int[Math.max((oldPositions.length * 3) / 2 + 1, id + 1)];
+			System.arraycopy(oldPositions, 0, positions, 0, oldPositions.length);
+		}
+
+		data[size] = e;
+		positions[id] = size++;
+		members.set(id);
+		return true;
+	}
+
+	/**
+	 * Removes the entity, moving the last entity of the set into its place.
+	 *
+	 * @param e entity to remove
+	 * @return true if the entity was in the set
+	 */
+	public boolean remove(Entity e) {
+		if(!contains(e))
+			return false;
+
+		int id = e.getId();
+		int index = positions[id];
+		Entity last = data[--size];
+		data[index] = last;
+		positions[last.getId()] = index;
+		data[size] = null;
+		members.clear(id);
+		return true;
+	}
+
+	/**
+	 * Check if the set contains this very entity instance.
+	 */
+	@Override
+	public boolean contains(Entity e) {
+		return e != null && members.get(e.getId()) && data[positions[e.getId()]] == e;
+	}
+
+	/**
+	 * Check if the set contains an entity with this id.
+	 */
+	public boolean containsId(int id) {
+		return members.get(id);
+	}
+
+	@Override
+	public Entity get(int index) {
+		return data[index];
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * @return the number of entities the set can hold without growing.
+	 */
+	public int getCapacity() {
+		return data.length;
+	}
+
+	/**
+	 * Reorders the entities by ascending id, so iterating the set walks id
+	 * indexed storage in memory order. Runs in linear time by walking the
+	 * membership bits, and reuses its buffer between calls.
+	 */
+	public void sortById() {
+		if(scratch == null || scratch.length < data.length)
+			scratch = new Entity[data.length];
+
+		int index = 0;
+		for (int id = members.nextSetBit(0); id >= 0; id = members.nextSetBit(id+1)) {
+			Entity e = data[positions[id]];
+			positions[id] = index;
+			scratch[index++] = e;
+		}
+
+		Entity[] sorted = scratch;
+		scratch = data;
+		data = sorted;
+		for (int i = 0; i < size; i++) {
+			scratch[i] = null;
+		}
+	}
+
+	/**
+	 * Shrinks the storage to the entities currently in the set.
+	 */
+	public void trim() {
+		if(data.length > size) {
+			Entity[] oldData = data;
+			data = new Entity[size];
+			System.arraycopy(oldData, 0, data, 0, size);
+		}
+		scratch = null;
+
+		int ids = members.length();
+		if(positions.length > ids) {
+			int[] oldPositions = positions;
+			positions = new int[ids];
+			System.arraycopy(oldPositions, 0, positions, 0, ids);
+		}
+		members = (BitSet) members.clone(); // a clone only keeps the words in use
+	}
+
+	/**
+	 * Removes all entities. Only touches the slots in use.
+	 */
+	public void clear() {
+		for (int i = 0; i < size; i++) {
+			members.clear(data[i].getId());
+			data[i] = null;
+		}
+		size = 0;
+	}
+
+	@Override
+	public Iterator<Entity> iterator() {
+		return new Iterator<Entity>() {
+			private int index;
+
+			@Override
+			public boolean hasNext() {
+				return index < size;
+			}
+
+			@Override
+			public Entity next() {
+				if(index >= size)
+					throw new NoSuchElementException();
+				return data[index++];
+			}
+
+			@Override
+			public void remove() {
+				throw new UnsupportedOperationException();
+			}
+		};
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder("[");
+		for (int i = 0; i < size; i++) {
+			if(i > 0)
+				sb.append(", ");
+			sb.append(data[i]);
+		}
+		return sb.append(']').toString();
+	}
+}
@@ -1,9 +1,8 @@
 package com.artemis;
 
-import com.artemis.utils.Bag;
+import com.artemis.utils.BitTable;
 import com.artemis.utils.ImmutableBag;
 
-import java.util.BitSet;
 import java.util.HashMap;
 
 /**
@@ -18,14 +17,15 @@ public abstract class EntitySystem implements EntityObserver {
 	private final int systemIndex;
 
 	protected World world;
+	private BitTable componentBits;
+	private BitTable systemBits;
 
-	private final Bag<Entity> actives;
+	private final EntitySet actives;
+	private boolean activesSorted;
+	private boolean activesDirty;
 
 	private final Aspect aspect;
-
-	private final BitSet allSet;
-	private final BitSet exclusionSet;
-	private final BitSet oneSet;
+	private final AspectMatcher matcher;
 
 	private boolean passive;
 
@@ -33,16 +33,15 @@ public abstract class EntitySystem implements EntityObserver {
 	
 	/**
 	 * Creates an entity system that uses the specified aspect as a matcher against entities.
+	 * The aspect is compiled here, so changes to it afterwards have no effect.
 	 * @param aspect to match against entities
 	 */
 	public EntitySystem(Aspect aspect) {
-		actives = new Bag<>();
+		actives = new EntitySet();
 		this.aspect = aspect;
-		allSet = aspect.getAllSet();
-		exclusionSet = aspect.getExclusionSet();
-		oneSet = aspect.getOneSet();
+		matcher = AspectMatcher.compile(aspect);
 		systemIndex = SystemIndexManager.getIndexFor(this.getClass());
-		dummy = allSet.isEmpty() && oneSet.isEmpty(); // This system can't possibly be interested in any entity, so it must be "dummy"
+		dummy = matcher.matchesNothing(); // This system can't possibly be interested in any entity, so it must be "dummy"
 	}
 	
 	/**
@@ -53,6 +52,10 @@ public abstract class EntitySystem implements EntityObserver {
 
 	public final void process() {
 		if(checkProcessing()) {
+			if(activesDirty) {
+				actives.sortById();
+				activesDirty = false;
+			}
 			begin();
 			processEntities(actives);
 			end();
@@ -105,30 +108,8 @@ public abstract class EntitySystem implements EntityObserver {
 			return;
 		}
 		
-		boolean contains = e.getSystemBits().get(systemIndex);
-		boolean interested = true; // possibly interested, let's try to prove it wrong.
-		
-		BitSet componentBits = e.getComponentBits();
-
-		// Check if the entity possesses ALL of the components defined in the aspect.
-		if(!allSet.isEmpty()) {
-			for (int i = allSet.nextSetBit(0); i >= 0; i = allSet.nextSetBit(i+1)) {
-				if(!componentBits.get(i)) {
-					interested = false;
-					break;
-				}
-			}
-		}
-		
-		// Check if the entity possesses ANY of the exclusion components, if it does then the system is not interested.
-		if(!exclusionSet.isEmpty() && interested) {
-			interested = !exclusionSet.intersects(componentBits);
-		}
-		
-		// Check if the entity possesses ANY of the components in the oneSet. If so, the system is interested.
-		if(!oneSet.isEmpty()) {
-			interested = oneSet.intersects(componentBits);
-		}
+		boolean contains = systemBits.get(e.getId(), systemIndex);
+		boolean interested = matcher.matches(componentBits, e.getId());
 
 		if (interested && !contains) {
 			insertToSystem(e);
@@ -137,15 +118,29 @@ public abstract class EntitySystem implements EntityObserver {
 		}
 	}
 
+	/**
+	 * @param entityId id of the entity to match.
+	 * @return true if the entity's components match the aspect.
+	 */
+	boolean isInterested(int entityId) {
+		return !dummy && matcher.matches(componentBits, entityId);
+	}
+
+	int getSystemIndex() {
+		return systemIndex;
+	}
+
 	private void removeFromSystem(Entity e) {
 		actives.remove(e);
-		e.getSystemBits().clear(systemIndex);
+		activesDirty = activesSorted;
+		systemBits.clear(e.getId(), systemIndex);
 		removed(e);
 	}
 
 	private void insertToSystem(Entity e) {
 		actives.add(e);
-		e.getSystemBits().set(systemIndex);
+		activesDirty = activesSorted;
+		systemBits.set(e.getId(), systemIndex);
 		inserted(e);
 	}
 	
@@ -162,14 +157,14 @@ public abstract class EntitySystem implements EntityObserver {
 	
 	@Override
 	public final void deleted(Entity e) {
-		if(e != null && e.getSystemBits().get(systemIndex)) {
+		if(e != null && systemBits.get(e.getId(), systemIndex)) {
 			removeFromSystem(e);
 		}
 	}
 	
 	@Override
 	public final void disabled(Entity e) {
-		if(e != null && e.getSystemBits().get(systemIndex)) {
+		if(e != null && systemBits.get(e.getId(), systemIndex)) {
 			removeFromSystem(e);
 		}
 	}
@@ -182,6 +177,8 @@ public abstract class EntitySystem implements EntityObserver {
 
 	protected final void setWorld(World world) {
 		this.world = world;
+		componentBits = world.getComponentManager().getComponentBits();
+		systemBits = world.getEntityManager().getSystemBits();
 	}
 	
 	protected boolean isPassive() {
@@ -192,9 +189,52 @@ public abstract class EntitySystem implements EntityObserver {
 		this.passive = passive;
 	}
 	
+	/**
+	 * Keep the actives ordered by entity id. Systems then visit entities in the
+	 * order their components are laid out in the component manager, which is
+	 * kinder to the CPU caches on large worlds. The order is restored once before
+	 * processing, in linear time, whenever entities were inserted or removed.
+	 * 
+	 * @param sorted true to process entities in id order.
+	 */
+	public void setActivesSorted(boolean sorted) {
+		activesSorted = sorted;
+		activesDirty = sorted;
+	}
+
+	/**
+	 * @return true if entities are processed in id order.
+	 */
+	public boolean isActivesSorted() {
+		return activesSorted;
+	}
+
+	void compactActives() {
+		actives.trim();
+	}
+
+	/**
+	 * @return the aspect this system matches entities against.
+	 */
+	public Aspect getAspect() {
+		return aspect;
+	}
+	
+	/**
+	 * The entities this system processes. For ad-hoc queries over many
+	 * entities use getActives().parallelStream(), which splits the actives
+	 * evenly between threads. Only stream them between World.process() calls,
+	 * while the actives do not change.
+	 * 
+	 * @return the entities of this system.
+	 */
 	public ImmutableBag<Entity> getActives() {
 		return actives;
 	}
+
+	int getActivesCapacity() {
+		return actives.getCapacity();
+	}
 	
 	
 	
@@ -12,6 +12,12 @@ public abstract class Manager implements EntityObserver {
 	
 	protected void initialize() {};
 
+	/**
+	 * Called by World.compactStorage(), release storage kept from a past peak of
+	 * entities here.
+	 */
+	protected void compact() {}
+
 	protected void setWorld(World world) {
 		this.world = world;
 	}
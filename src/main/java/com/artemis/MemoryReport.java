@@ -0,0 +1,251 @@
+package com.artemis;
+
+import com.artemis.utils.Bag;
+import com.artemis.utils.ImmutableBag;
+import com.artemis.utils.MemoryLayout;
+
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Estimated heap retained by a world's component storage, system actives and
+ * entity bookkeeping, see World.getMemoryReport().
+ *
+ * Packed components are reported with the off-heap bytes of their buffers.
+ * With archetype storage the components are reported per archetype instead,
+ * see getArchetypes().
+ *
+ * Each usage compares live slots with the capacity that has been allocated for
+ * them, so storage left oversized after a load spike stands out.
+ *
+ * @see MemoryLayout
+ */
+public class MemoryReport {
+
+	/**
+	 * Slots and estimated bytes of one kind of storage.
+	 */
+	public static class Usage {
+		private final String name;
+		private final int live;
+		private final int capacity;
+		private final long bytes;
+
+		Usage(String name, int live, int capacity, long bytes) {
+			this.name = name;
+			this.live = live;
+			this.capacity = capacity;
+			this.bytes = bytes;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		/**
+		 * @return slots holding something.
+		 */
+		public int getLive() {
+			return live;
+		}
+
+		/**
+		 * @return slots allocated.
+		 */
+		public int getCapacity() {
+			return capacity;
+		}
+
+		/**
+		 * @return live slots over capacity, between 0 and 1.
+		 */
+		public double getOccupancy() {
+			return capacity == 0 ? 1 : (double) live / capacity;
+		}
+
+		/**
+		 * @return estimated bytes retained, including the objects in live slots.
+		 */
+		public long getBytes() {
+			return bytes;
+		}
+
+		@Override
+		public String toString() {
+			return String.format("%-24s %10d / %-10d %12d bytes", name, live, capacity, bytes);
+		}
+	}
+
+	private final Map<ComponentType, Usage> components;
+	private final Map<EntitySystem, Usage> systems;
+	private final Map<Archetype, Usage> archetypes;
+	private final Usage entities;
+	private final long totalBytes;
+
+	MemoryReport(World world) {
+		long total = 0;
+
+		components = new LinkedHashMap<>();
+		Bag<ComponentStorage> componentsByType = world.getComponentManager().getComponentStorage();
+		for (int i = 0, s = componentsByType.size(); s > i; i++) {
+			ComponentStorage storage = componentsByType.get(i);
+			if(storage == null)
+				continue;
+
+			ComponentType type = ComponentType.getTypeFor(i);
+			PackedStorage packed = world.getComponentManager().getPackedStorage(i);
+			Usage usage = packed != null ? packedUsage(type, packed) : componentUsage(type, storage);
+			components.put(type, usage);
+			total += usage.getBytes();
+		}
+
+		archetypes = new LinkedHashMap<>();
+		if(world.hasArchetypeStorage()) {
+			ImmutableBag<Archetype> archetypesBag = world.getArchetypes();
+			for (int i = 0, s = archetypesBag.size(); s > i; i++) {
+				Archetype archetype = archetypesBag.get(i);
+				Usage usage = archetypeUsage(archetype);
+				archetypes.put(archetype, usage);
+				total += usage.getBytes();
+			}
+		}
+
+		systems = new LinkedHashMap<>();
+		ImmutableBag<EntitySystem> systemsBag = world.getSystems();
+		for (int i = 0, s = systemsBag.size(); s > i; i++) {
+			EntitySystem system = systemsBag.get(i);
+			int capacity = system.getActivesCapacity();
+			Usage usage = new Usage(system.getClass().getSimpleName(), system.getActives().size(), capacity,
+					MemoryLayout.referenceArraySize(capacity));
+			systems.put(system, usage);
+			total += usage.getBytes();
+		}
+
+		entities = entityUsage(world.getEntityManager(), world.getComponentManager());
+		total += entities.getBytes();
+
+		totalBytes = total;
+	}
+
+	private static Usage componentUsage(ComponentType type, ComponentStorage storage) {
+		return new Usage(type.getType().getSimpleName(), storage.size(), storage.getCapacity(),
+				storage.estimateBytes());
+	}
+
+	private static Usage packedUsage(ComponentType type, PackedStorage storage) {
+		return new Usage(type.getType().getSimpleName() + " (off-heap)", storage.getLive(), storage.getCapacity(),
+				storage.getBytes());
+	}
+
+	private static Usage archetypeUsage(Archetype archetype) {
+		ImmutableBag<Chunk> chunks = archetype.getChunks();
+		int capacity = 0;
+		long bytes = MemoryLayout.referenceArraySize(chunks.size());
+		for (int i = 0, s = chunks.size(); s > i; i++) {
+			Chunk chunk = chunks.get(i);
+			capacity += chunk.getCapacity();
+			bytes += MemoryLayout.shallowSize(Chunk.class);
+			bytes += (chunk.columns.length + 1) * MemoryLayout.referenceArraySize(chunk.getCapacity());
+			for (Component[] column : chunk.columns) {
+				for (int row = 0, rows = chunk.size(); rows > row; row++) {
+					if(column[row] != null)
+						bytes += MemoryLayout.shallowSize(column[row].getClass());
+				}
+			}
+		}
+		return new Usage(archetype.toString(), archetype.size(), capacity, bytes);
+	}
+
+	private static Usage entityUsage(EntityManager em, ComponentManager cm) {
+		Bag<Entity> table = em.getEntityTable();
+		Bag<Entity> instances = em.getEntityInstances();
+		long bytes = MemoryLayout.referenceArraySize(table.getCapacity());
+		bytes += MemoryLayout.referenceArraySize(instances.getCapacity());
+		bytes += bitSetSize(em.getDisabledBits());
+		bytes += em.getRecycledIdBytes();
+		bytes += em.getGenerationBytes();
+		bytes += em.getSystemBits().estimateBytes();
+		bytes += cm.getComponentBits().estimateBytes();
+		Bag<BitSet> index = cm.getEntityIndex();
+		bytes += MemoryLayout.referenceArraySize(index.getCapacity());
+		for (int i = 0, s = index.size(); s > i; i++) {
+			if(index.get(i) != null)
+				bytes += bitSetSize(index.get(i));
+		}
+
+		int live = 0;
+		for (int i = 0, s = table.size(); s > i; i++) {
+			if(table.get(i) != null)
+				live++;
+		}
+		for (int i = 0, s = instances.size(); s > i; i++) {
+			Entity e = instances.get(i);
+			if(e != null)
+				bytes += MemoryLayout.shallowSize(Entity.class);
+		}
+		return new Usage("entities", live, table.getCapacity(), bytes);
+	}
+
+	private static long bitSetSize(BitSet bits) {
+		return MemoryLayout.shallowSize(BitSet.class) + MemoryLayout.arraySize(bits.size() / 64, 8);
+	}
+
+	/**
+	 * @return component storage per component type used in the world.
+	 */
+	public Map<ComponentType, Usage> getComponents() {
+		return Collections.unmodifiableMap(components);
+	}
+
+	/**
+	 * @return chunks and the components in them per archetype, empty unless
+	 * the world uses archetype storage.
+	 */
+	public Map<Archetype, Usage> getArchetypes() {
+		return Collections.unmodifiableMap(archetypes);
+	}
+
+	/**
+	 * Only the actives of each system are accounted for, not what the
+	 * implementations keep themselves.
+	 *
+	 * @return actives storage per system.
+	 */
+	public Map<EntitySystem, Usage> getSystems() {
+		return Collections.unmodifiableMap(systems);
+	}
+
+	/**
+	 * @return Entity instances, including those kept for recycled ids, plus the
+	 * tables of component and system bits, the entities of each component
+	 * type, entities, generations, disabled and recycled ids.
+	 */
+	public Usage getEntities() {
+		return entities;
+	}
+
+	/**
+	 * @return sum of all usages in bytes.
+	 */
+	public long getTotalBytes() {
+		return totalBytes;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder("MemoryReport[").append(totalBytes).append(" bytes]\n");
+		for (Usage usage : components.values()) {
+			sb.append("  component ").append(usage).append('\n');
+		}
+		for (Usage usage : archetypes.values()) {
+			sb.append("  archetype ").append(usage).append('\n');
+		}
+		for (Usage usage : systems.values()) {
+			sb.append("  system    ").append(usage).append('\n');
+		}
+		sb.append("            ").append(entities).append('\n');
+		return sb.toString();
+	}
+}
@@ -0,0 +1,50 @@
+package com.artemis;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A component whose fields live off-heap, packed back to back for all
+ * entities in a ByteBuffer indexed by entity id, so the GC never sees them and
+ * walking entities in id order walks memory linearly.
+ * 
+ * Instances are flyweights. A PackedComponentMapper points its instance at an
+ * entity's bytes, and the subclass reads and writes its fields relative to
+ * offset:
+ * <pre>
+ * public class Position extends PackedComponent {
+ *     private static final int X = 0, Y = 4;
+ *
+ *     protected int getSize() { return 8; }
+ *
+ *     public float x() { return buffer.getFloat(offset + X); }
+ *     public void x(float x) { buffer.putFloat(offset + X, x); }
+ *     ...
+ * }
+ * </pre>
+ * Packed components are created with PackedComponentMapper.create(Entity),
+ * never with Entity.addComponent(). Entity.getComponent() returns null for
+ * them, but they count for aspects like any other component.
+ * 
+ * Subclasses need a no-arg constructor.
+ */
+public abstract class PackedComponent extends Component {
+	/**
+	 * The bytes of the entity this flyweight points at, native byte order.
+	 */
+	protected ByteBuffer buffer;
+
+	/**
+	 * Position of the entity's first byte in the buffer.
+	 */
+	protected int offset;
+
+	/**
+	 * @return number of bytes each entity needs, the same for all instances.
+	 */
+	protected abstract int getSize();
+
+	void moveTo(ByteBuffer buffer, int offset) {
+		this.buffer = buffer;
+		this.offset = offset;
+	}
+}
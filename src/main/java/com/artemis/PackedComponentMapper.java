@@ -0,0 +1,95 @@
+package com.artemis;
+
+/**
+ * Creates, reads and removes packed components, see PackedComponent.
+ * 
+ * Every mapper owns one flyweight. get(), getSafe() and create() point it at
+ * the entity and return it, so a returned component is only valid until the
+ * next call on the same mapper. Use one mapper per field you need at a time.
+ * 
+ * @param <A> the class type of the component
+ */
+public class PackedComponentMapper<A extends PackedComponent> {
+	private final ComponentType type;
+	private final ComponentManager cm;
+	private final PackedStorage storage;
+	private final A flyweight;
+
+	private PackedComponentMapper(Class<A> type, World world) {
+		this.type = ComponentType.getTypeFor(type);
+		try {
+			flyweight = type.getDeclaredConstructor().newInstance();
+		} catch (ReflectiveOperationException e) {
+			throw new IllegalArgumentException(type.getName() + " needs an accessible no-arg constructor", e);
+		}
+		cm = world.getComponentManager();
+		storage = cm.getPackedStorage(this.type, flyweight.getSize());
+	}
+
+	/**
+	 * Adds the component to the entity with all fields zeroed. Like adding any
+	 * component, call Entity.changedInWorld() if the entity is already in the
+	 * world.
+	 * 
+	 * @param e the entity to add the component to
+	 * @return the component of the entity
+	 */
+	public A create(Entity e) {
+		flyweight.moveTo(cm.addPackedComponent(e, type, storage), storage.getOffset(e.getId()));
+		return flyweight;
+	}
+
+	/**
+	 * Fast retrieval of a component for this entity, for when you already know
+	 * the entity possesses it. Otherwise the fields are meaningless, or this
+	 * throws a NullPointerException.
+	 * 
+	 * @param e the entity that should possess the component
+	 * @return the component of the entity
+	 */
+	public A get(Entity e) {
+		int id = e.getId();
+		flyweight.moveTo(storage.getPage(id), storage.getOffset(id));
+		return flyweight;
+	}
+
+	/**
+	 * Safe retrieval of a component for this entity.
+	 * 
+	 * @param e the entity that should possess the component
+	 * @return the component of the entity, or null if it has none.
+	 */
+	public A getSafe(Entity e) {
+		return has(e) ? get(e) : null;
+	}
+
+	/**
+	 * Checks if the entity has this type of component.
+	 * @param e the entity to check
+	 * @return true if the entity has this component type, false if it doesn't.
+	 */
+	public boolean has(Entity e) {
+		return cm.getComponentBits().get(e.getId(), type.getIndex());
+	}
+
+	/**
+	 * Removes the component from the entity. Call Entity.changedInWorld()
+	 * afterwards if the entity is in the world.
+	 * 
+	 * @param e the entity to remove the component from
+	 */
+	public void remove(Entity e) {
+		cm.removeComponent(e, type);
+	}
+
+	/**
+	 * Returns a packed component mapper for this type of components.
+	 * 
+	 * @param type the type of components this mapper uses.
+	 * @param world the world that this component mapper should use.
+	 * @return a new mapper.
+	 */
+	public static <T extends PackedComponent> PackedComponentMapper<T> getFor(Class<T> type, World world) {
+		return new PackedComponentMapper<>(type, world);
+	}
+}
@@ -0,0 +1,104 @@
+package com.artemis;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/*
+ * Off-heap bytes of one packed component type. Entities are kept in direct
+ * buffer pages of about 64 KiB that are allocated on first use and never
+ * moved, like the pages of PagedBag.
+ */
+final class PackedStorage {
+	private static final int PAGE_BYTES = 1 << 16;
+
+	private final int size;
+	private final int pageShift;
+	private final int pageMask;
+
+	private ByteBuffer[] pages;
+	private int[] live;
+	private int liveTotal;
+	private int pageCount;
+
+	PackedStorage(int size) {
+		if(size <= 0)
+			throw new IllegalArgumentException("packed component size must be positive: " + size);
+
+		this.size = size;
+		pageShift = 31 - Integer.numberOfLeadingZeros(Math.max(1, PAGE_BYTES / size));
+		pageMask = (1 << pageShift) - 1;
+		pages = new ByteBuffer[8];
+		live = new int[8];
+	}
+
+	ByteBuffer getPage(int id) {
+		int page = id >>> pageShift;
+		return page < pages.length ? pages[page] : null;
+	}
+
+	int getOffset(int id) {
+		return (id & pageMask) * size;
+	}
+
+	/*
+	 * Makes room for the entity and zeroes its bytes.
+	 */
+	ByteBuffer allocate(int id) {
+		int page = id >>> pageShift;
+		if(page >= pages.length) {
+			int length = Math.max(pages.length * 2, page + 1);
+			ByteBuffer[] oldPages = pages;
+			pages = new ByteBuffer[length];
+			System.arraycopy(oldPages, 0, pages, 0, oldPages.length);
+			int[] oldLive = live;
+			live = new int[length];
+			System.arraycopy(oldLive, 0, live, 0, oldLive.length);
+		}
+
+		ByteBuffer buffer = pages[page];
+		if(buffer == null) {
+			buffer = ByteBuffer.allocateDirect(size << pageShift).order(ByteOrder.nativeOrder());
+			pages[page] = buffer;
+			pageCount++;
+		} else {
+			int offset = getOffset(id);
+			for (int i = 0; i < size; i++) {
+				buffer.put(offset + i, (byte) 0);
+			}
+		}
+
+		live[page]++;
+		liveTotal++;
+		return buffer;
+	}
+
+	void release(int id) {
+		live[id >>> pageShift]--;
+		liveTotal--;
+	}
+
+	/*
+	 * Drops pages without live entities, their memory is freed once the
+	 * buffers are collected.
+	 */
+	void trim() {
+		for (int page = 0; page < pages.length; page++) {
+			if(pages[page] != null && live[page] == 0) {
+				pages[page] = null;
+				pageCount--;
+			}
+		}
+	}
+
+	int getLive() {
+		return liveTotal;
+	}
+
+	int getCapacity() {
+		return pageCount << pageShift;
+	}
+
+	long getBytes() {
+		return (long) pageCount * (size << pageShift);
+	}
+}
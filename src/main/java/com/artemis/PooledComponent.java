@@ -0,0 +1,23 @@
+package com.artemis;
+
+/**
+ * A component that is recycled instead of left to the garbage collector.
+ * 
+ * When an entity is deleted, or the component is removed from or replaced on
+ * its entity, the component is reset and kept in its type's ComponentPool.
+ * Entity.createComponent() hands out recycled instances before allocating new
+ * ones. Do not keep references to a pooled component after it has left its
+ * entity, it will show up on another one, and never add one instance to
+ * several entities.
+ * 
+ * Subclasses need a no-arg constructor.
+ */
+public abstract class PooledComponent extends Component {
+	boolean pooled;
+
+	/**
+	 * Return every field to its initial value, called when the component goes
+	 * back to the pool.
+	 */
+	protected abstract void reset();
+}
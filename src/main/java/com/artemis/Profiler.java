@@ -0,0 +1,51 @@
+package com.artemis;
+
+
+/**
+ * Observes the work done by World.process(). Profilers are opt-in: as long as
+ * none is set on the world, processing skips all profiling hooks.
+ *
+ * Hooks are invoked on the thread calling World.process(), in order: frameBegin,
+ * then phaseBegin/phaseEnd around every notification phase that has pending
+ * entities and around the component clean-up, then systemBegin/systemEnd around
+ * every processed system, and finally frameEnd.
+ *
+ * @see com.artemis.profiling.FrameProfiler
+ */
+public abstract class Profiler {
+
+	/**
+	 * The stages of World.process() before the systems are processed.
+	 */
+	public enum Phase {
+		ADDED, CHANGED, DISABLED, ENABLED, DELETED, CLEAN
+	}
+
+	protected World world;
+
+	protected void setWorld(World world) {
+		this.world = world;
+	}
+
+	protected World getWorld() {
+		return world;
+	}
+
+	protected void frameBegin() {
+	}
+
+	protected void frameEnd() {
+	}
+
+	protected void phaseBegin(Phase phase) {
+	}
+
+	protected void phaseEnd(Phase phase) {
+	}
+
+	protected void systemBegin(EntitySystem system) {
+	}
+
+	protected void systemEnd(EntitySystem system) {
+	}
+}
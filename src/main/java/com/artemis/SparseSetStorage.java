@@ -0,0 +1,197 @@
+package com.artemis;
+
+import com.artemis.utils.MemoryLayout;
+
+/**
+ * Components packed into an array of their own, with a sparse index from
+ * entity id to position. Memory grows with the number of components rather
+ * than the range of entity ids, so it suits types only a few entities have.
+ *
+ * The index is paged in pages of 256 ids that are released as soon as none of
+ * their ids has a component. A read is three array loads. Removing a component
+ * moves the last component into its place.
+ */
+public final class SparseSetStorage extends ComponentStorage {
+	private static final int PAGE_SHIFT = 8;
+	private static final int PAGE_MASK = (1 << PAGE_SHIFT) - 1;
+
+	private int[][] pages;
+	private int[] pageSizes;
+	private int pageCount;
+
+	private Component[] components;
+	private int[] ids;
+	private int size;
+
+	public SparseSetStorage() {
+		this(16);
+	}
+
+	/**
+	 * @param capacity number of components to make room for.
+	 */
+	public SparseSetStorage(int capacity) {
+		pages = new int[8][];
+		pageSizes = new int[8];
+		components = new Component[Math.max(capacity, 1)];
+		ids = new int[components.length];
+	}
+
+	@Override
+	public Component get(int entityId) {
+		int page = entityId >>> PAGE_SHIFT;
+		if(page >= pages.length)
+			return null;
+
+		int[] slots = pages[page];
+		if(slots == null)
+			return null;
+
+		int slot = slots[entityId & PAGE_MASK] - 1;
+		return slot >= 0 ? components[slot] : null;
+	}
+
+	@Override
+	public void set(int entityId, Component component) {
+		if(component == null) {
+			remove(entityId);
+			return;
+		}
+
+		int[] slots = slotsFor(entityId);
+		int slot = slots[entityId & PAGE_MASK] - 1;
+		if(slot >= 0) {
+			components[slot] = component;
+			return;
+		}
+
+		if(size == components.length)
+			grow();
+
+		components[size] = component;
+		ids[size] = entityId;
+		slots[entityId & PAGE_MASK] = ++size;
+		pageSizes[entityId >>> PAGE_SHIFT]++;
+	}
+
+	private void remove(int entityId) {
+		int page = entityId >>> PAGE_SHIFT;
+		if(page >= pages.length || pages[page] == null)
+			return;
+
+		int[] slots = pages[page];
+		int slot = slots[entityId & PAGE_MASK] - 1;
+		if(slot < 0)
+			return;
+
+		int last = --size;
+		if(slot != last) {
+			int moved = ids[last];
+			components[slot] = components[last];
+			ids[slot] = moved;
+			pages[moved >>> PAGE_SHIFT][moved & PAGE_MASK] = slot + 1;
+		}
+		components[last] = null;
+
+		slots[entityId & PAGE_MASK] = 0;
+		if(--pageSizes[page] == 0) {
+			pages[page] = null;
+			pageCount--;
+		}
+	}
+
+	private int[] slotsFor(int entityId) {
+		int page = entityId >>> PAGE_SHIFT;
+		if(page >= pages.length) {
+			int length = Math.max(pages.length * 2, page + 1);
+			int[][] oldPages = pages;
+			pages = new int[length][];
+			System.arraycopy(oldPages, 0, pages, 0, oldPages.length);
+			int[] oldSizes = pageSizes;
+			pageSizes = new int[length];
+			System.arraycopy(oldSizes, 0, pageSizes, 0, oldSizes.length);
+		}
+
+		int[] slots = pages[page];
+		if(slots == null) {
+			slots = new int[1 << PAGE_SHIFT];
+			pages[page] = slots;
+			pageCount++;
+		}
+		return slots;
+	}
+
+	private void grow() {
+		int capacity = components.length * 3 / 2 + 1;
+		Component[] oldComponents = components;
+		components = new Component[capacity];
+		System.arraycopy(oldComponents, 0, components, 0, size);
+		int[] oldIds = ids;
+		ids = new int[capacity];
+		System.arraycopy(oldIds, 0, ids, 0, size);
+	}
+
+	/**
+	 * @param index position in the packed array, below size().
+	 * @return id of the entity whose component is at the position.
+	 */
+	int getIdAt(int index) {
+		return ids[index];
+	}
+
+	/**
+	 * @param index position in the packed array, below size().
+	 * @return the component at the position.
+	 */
+	Component getAt(int index) {
+		return components[index];
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public int getCapacity() {
+		return components.length;
+	}
+
+	@Override
+	public long estimateBytes() {
+		long bytes = MemoryLayout.referenceArraySize(pages.length)
+				+ MemoryLayout.arraySize(pageSizes.length, 4)
+				+ pageCount * MemoryLayout.arraySize(1 << PAGE_SHIFT, 4)
+				+ MemoryLayout.referenceArraySize(components.length)
+				+ MemoryLayout.arraySize(ids.length, 4);
+		for (int i = 0; i < size; i++) {
+			bytes += MemoryLayout.shallowSize(components[i].getClass());
+		}
+		return bytes;
+	}
+
+	@Override
+	public void trim() {
+		int capacity = Math.max(size, 1);
+		if(components.length > capacity) {
+			Component[] oldComponents = components;
+			components = new Component[capacity];
+			System.arraycopy(oldComponents, 0, components, 0, size);
+			int[] oldIds = ids;
+			ids = new int[capacity];
+			System.arraycopy(oldIds, 0, ids, 0, size);
+		}
+
+		int lastPage = pages.length - 1;
+		while(lastPage >= 0 && pages[lastPage] == null)
+			lastPage--;
+		if(lastPage + 1 < pages.length) {
+			int[][] oldPages = pages;
+			pages = new int[lastPage + 1][];
+			System.arraycopy(oldPages, 0, pages, 0, pages.length);
+			int[] oldSizes = pageSizes;
+			pageSizes = new int[lastPage + 1];
+			System.arraycopy(oldSizes, 0, pageSizes, 0, pageSizes.length);
+		}
+	}
+}
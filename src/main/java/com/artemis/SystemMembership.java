@@ -0,0 +1,143 @@
+package com.artemis;
+
+import com.artemis.utils.Bag;
+import com.artemis.utils.BitTable;
+
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The systems of a world interested in each composition, the exact set of
+ * component types an entity possesses. Entities with the same composition
+ * always match the same systems, so each composition is matched against all
+ * systems once, and later entities only compare their system bits with the
+ * cached ones.
+ *
+ * Aspects are compiled when systems are constructed, so the cache only goes
+ * stale when systems are added or removed; World clears it then.
+ */
+final class SystemMembership {
+	private final Bag<EntitySystem> systems;
+	private final BitTable componentBits;
+	private final BitTable systemBits;
+	private final Map<BitSet, Entry> entries;
+	private final BitSet scratch;
+
+	/**
+	 * The systems one composition belongs to.
+	 */
+	static final class Entry {
+		private final BitSet composition;
+		private final long[] systemWords;
+		private final EntitySystem[] systems;
+
+		private Entry(BitSet composition, long[] systemWords, EntitySystem[] systems) {
+			this.composition = composition;
+			this.systemWords = systemWords;
+			this.systems = systems;
+		}
+
+		/**
+		 * @return the interested systems, in the order of the world's systems.
+		 */
+		EntitySystem[] getSystems() {
+			return systems;
+		}
+
+		/**
+		 * @param systemIndex index of a system.
+		 * @return true if the system is interested in the composition.
+		 */
+		boolean contains(int systemIndex) {
+			int word = systemIndex >>> 6;
+			return word < systemWords.length && (systemWords[word] & (1L << systemIndex)) != 0;
+		}
+	}
+
+	SystemMembership(Bag<EntitySystem> systems, BitTable componentBits, BitTable systemBits) {
+		this.systems = systems;
+		this.componentBits = componentBits;
+		this.systemBits = systemBits;
+		entries = new HashMap<>();
+		scratch = new BitSet();
+	}
+
+	/**
+	 * @param entityId id of the entity.
+	 * @return the systems the entity's current composition belongs to.
+	 */
+	Entry get(int entityId) {
+		Entry entry = entries.get(componentBits.getRow(entityId, scratch));
+		if(entry == null) {
+			entry = create(entityId, (BitSet) scratch.clone());
+			entries.put(entry.composition, entry);
+		}
+		return entry;
+	}
+
+	private Entry create(int entityId, BitSet composition) {
+		BitSet indices = new BitSet();
+		Bag<EntitySystem> interested = new Bag<>();
+		for (int i = 0, s = systems.size(); s > i; i++) {
+			EntitySystem system = systems.get(i);
+			if(system.isInterested(entityId)) {
+				indices.set(system.getSystemIndex());
+				interested.add(system);
+			}
+		}
+
+		EntitySystem[] array = new EntitySystem[interested.size()];
+		for (int i = 0; i < array.length; i++) {
+			array[i] = interested.get(i);
+		}
+		return new Entry(composition, indices.toLongArray(), array);
+	}
+
+	/**
+	 * @param entityId id of the entity.
+	 * @param entry the systems of a composition.
+	 * @return true if the entity still has the composition of the entry,
+	 * false once a callback added or removed one of its components.
+	 */
+	boolean hasComposition(int entityId, Entry entry) {
+		return componentBits.rowEquals(entityId, entry.composition);
+	}
+
+	/**
+	 * @param entityId id of the entity.
+	 * @param entry the systems of the entity's composition.
+	 * @return true if the entity belongs to exactly the systems of the entry.
+	 */
+	boolean isSettled(int entityId, Entry entry) {
+		long[] words = entry.systemWords;
+		for (int i = 0, s = Math.max(words.length, systemBits.getWordsPerRow()); s > i; i++) {
+			long expected = i < words.length ? words[i] : 0;
+			if(systemBits.getWord(entityId, i) != expected)
+				return false;
+		}
+		return true;
+	}
+
+	/**
+	 * @param entityId id of the entity.
+	 * @return true if the entity belongs to no system.
+	 */
+	boolean isUnclaimed(int entityId) {
+		return systemBits.isEmpty(entityId);
+	}
+
+	/**
+	 * Forgets all compositions, after systems were added or removed.
+	 */
+	void clear() {
+		entries.clear();
+	}
+
+	/**
+	 * @return number of compositions seen since the systems last changed.
+	 */
+	int size() {
+		return entries.size();
+	}
+}
@@ -2,11 +2,14 @@ package com.artemis;
 
 import com.artemis.annotations.Mapper;
 import com.artemis.managers.UuidEntityManager;
+import com.artemis.profiling.FlightRecorderProfiler;
 import com.artemis.utils.Bag;
+import com.artemis.utils.BitTable;
 import com.artemis.utils.ImmutableBag;
 
 import java.lang.reflect.Field;
 import java.lang.reflect.ParameterizedType;
+import java.util.BitSet;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.UUID;
@@ -26,17 +29,28 @@ public class World {
 	private final ComponentManager cm;
 
 	private double delta;
-	private final Bag<Entity> added;
-	private final Bag<Entity> changed;
-	private final Bag<Entity> deleted;
-	private final Bag<Entity> enable;
-	private final Bag<Entity> disable;
+	private long frames;
+	private final EntitySet added;
+	private final EntitySet changed;
+	private final EntitySet deleted;
+	private final EntitySet enable;
+	private final EntitySet disable;
 
 	private final Map<Class<? extends Manager>, Manager> managers;
 	private final Bag<Manager> managersBag;
 	
 	private final Map<Class<?>, EntitySystem> systems;
 	private final Bag<EntitySystem> systemsBag;
+	private final SystemMembership membership;
+
+	private double compactionOccupancy;
+	private int compactionFrames;
+	private int compactionWindow;
+	private int lowOccupancyFrames;
+
+	private final Bag<Profiler> profilers;
+	private final FlightRecorderProfiler flightRecorder;
+	private boolean flightRecording;
 
 	private boolean hasUuidManager = false;
 	boolean hasUuidManager() { return hasUuidManager; }
@@ -48,17 +62,22 @@ public class World {
 		systems = new HashMap<>();
 		systemsBag = new Bag<>();
 
-		added = new Bag<>();
-		changed = new Bag<>();
-		deleted = new Bag<>();
-		enable = new Bag<>();
-		disable = new Bag<>();
+		profilers = new Bag<>();
+		flightRecorder = createFlightRecorder();
+
+		added = new EntitySet();
+		changed = new EntitySet();
+		deleted = new EntitySet();
+		enable = new EntitySet();
+		disable = new EntitySet();
 
 		cm = new ComponentManager();
 		setManager(cm);
 		
 		em = new EntityManager();
 		setManager(em);
+
+		membership = new SystemMembership(systemsBag, cm.getComponentBits(), em.getSystemBits());
 	}
 
 	
@@ -96,7 +115,79 @@ public class World {
 	public ComponentManager getComponentManager() {
 		return cm;
 	}
-	
+
+	/**
+	 * Chooses how the components of one type are stored, e.g. a
+	 * SparseSetStorage for a type few entities have. Types get a DenseStorage
+	 * otherwise. Must be set before the first component of the type is added
+	 * and before its first mapper is created.
+	 *
+	 * @param type the component type.
+	 * @param storage an empty storage, not used by any other type or world.
+	 * @throws IllegalStateException if the type already has a storage, or the
+	 * world uses archetype storage.
+	 */
+	public void setComponentStorage(Class<? extends Component> type, ComponentStorage storage) {
+		cm.setStorage(ComponentType.getTypeFor(type), storage);
+	}
+
+	/**
+	 * Stores components grouped by archetype instead of in one bag per
+	 * component type: entities with the same component types share chunks of
+	 * the given capacity, with one array per type. Adding or removing a
+	 * component moves the entity to the chunks of its new archetype.
+	 *
+	 * Suits worlds where many entities share few compositions and systems
+	 * walk them all every frame, see ChunkProcessingSystem. Must be set before
+	 * any component is added and before any mapper is created, so before
+	 * initialize() if systems or managers use @Mapper fields.
+	 *
+	 * @param chunkCapacity number of entities per chunk, e.g. 1024.
+	 * @throws IllegalStateException if components or mappers already exist.
+	 */
+	public void setArchetypeStorage(int chunkCapacity) {
+		cm.setArchetypeStorage(chunkCapacity);
+	}
+
+	/**
+	 * @return true if components are stored by archetype.
+	 */
+	public boolean hasArchetypeStorage() {
+		return cm.getArchetypeStorage() != null;
+	}
+
+	/**
+	 * Archetypes are only ever added, so a caller can remember how many it has
+	 * seen and only look at the new ones.
+	 *
+	 * @return all archetypes created so far, in order of creation.
+	 * @throws IllegalStateException unless archetype storage is set.
+	 */
+	public ImmutableBag<Archetype> getArchetypes() {
+		ArchetypeStorage archetypes = cm.getArchetypeStorage();
+		if(archetypes == null)
+			throw new IllegalStateException("World does not use archetype storage");
+
+		return archetypes.getArchetypes();
+	}
+
+	/**
+	 * Used by ChunkProcessingSystem around its chunk loop. While set, adding
+	 * or removing a component of an entity in the world throws, as the entity
+	 * would move between archetypes and shift the rows of the chunks being
+	 * processed. Entities not yet added to the world may still change.
+	 *
+	 * @param processingChunks true while chunks are processed.
+	 * @throws IllegalStateException unless archetype storage is set.
+	 */
+	public void setProcessingChunks(boolean processingChunks) {
+		ArchetypeStorage archetypes = cm.getArchetypeStorage();
+		if(archetypes == null)
+			throw new IllegalStateException("World does not use archetype storage");
+
+		archetypes.setProcessingChunks(processingChunks);
+	}
+
 	
 	
 
@@ -138,6 +229,43 @@ public class World {
 			hasUuidManager = false;
 	}
 
+
+	/**
+	 * Add a profiler to this world. It will observe every following
+	 * World.process() call until it is deleted.
+	 * 
+	 * @param profiler to be added
+	 * @return the added profiler.
+	 */
+	public <T extends Profiler> T setProfiler(T profiler) {
+		profilers.add(profiler);
+		profiler.setWorld(this);
+		return profiler;
+	}
+
+	/**
+	 * Returns a profiler of the specified type.
+	 * 
+	 * @param profilerType class type of the profiler
+	 * @return the profiler, or null if no such profiler was added.
+	 */
+	public <T extends Profiler> T getProfiler(Class<T> profilerType) {
+		for (int i = 0, s = profilers.size(); s > i; i++) {
+			Profiler profiler = profilers.get(i);
+			if(profiler.getClass() == profilerType)
+				return profilerType.cast(profiler);
+		}
+		return null;
+	}
+
+	/**
+	 * Deletes the profiler from this world.
+	 * @param profiler to delete.
+	 */
+	public void deleteProfiler(Profiler profiler) {
+		profilers.remove(profiler);
+	}
+
 	
 	
 	
@@ -161,6 +289,51 @@ public class World {
 	
 
 
+	/**
+	 * How many times this world has been processed.
+	 * 
+	 * @return number of World.process() calls so far.
+	 */
+	public long getFrameCount() {
+		return frames;
+	}
+
+	/**
+	 * @return entities added since the last World.process() call.
+	 */
+	public int getPendingAddedCount() {
+		return added.size();
+	}
+
+	/**
+	 * @return entities changed since the last World.process() call.
+	 */
+	public int getPendingChangedCount() {
+		return changed.size();
+	}
+
+	/**
+	 * @return entities deleted since the last World.process() call.
+	 */
+	public int getPendingDeletedCount() {
+		return deleted.size();
+	}
+
+	/**
+	 * @return entities enabled since the last World.process() call.
+	 */
+	public int getPendingEnabledCount() {
+		return enable.size();
+	}
+
+	/**
+	 * @return entities disabled since the last World.process() call.
+	 */
+	public int getPendingDisabledCount() {
+		return disable.size();
+	}
+
+
 	/**
 	 * Adds a entity to this world.
 	 * 
@@ -187,9 +360,7 @@ public class World {
 	 * @param e entity
 	 */
 	public void deleteEntity(Entity e) {
-		if (!deleted.contains(e)) {
-			deleted.add(e);
-		}
+		deleted.add(e);
 	}
 
 	/**
@@ -239,6 +410,52 @@ public class World {
 	}
 
 
+	/**
+	 * Create a new or reused entity and add it to this world. Components can be
+	 * added to it until the next World.process() call without announcing the
+	 * change, see getEntityForHandle(long).
+	 * 
+	 * @return handle of the entity.
+	 */
+	public long create() {
+		Entity e = createEntity();
+		addEntity(e);
+		return e.getHandle();
+	}
+
+	/**
+	 * Check if the entity of a handle still exists: it has been created but its
+	 * deletion has not been processed yet.
+	 * 
+	 * @param handle of the entity.
+	 * @return true if the handle still refers to its entity.
+	 */
+	public boolean isAlive(long handle) {
+		return em.isAlive(handle);
+	}
+
+	/**
+	 * Get the entity of a handle.
+	 * 
+	 * @param handle of the entity.
+	 * @return the entity, or null if it no longer exists.
+	 */
+	public Entity getEntityForHandle(long handle) {
+		return em.getEntityForHandle(handle);
+	}
+
+	/**
+	 * Delete the entity of a handle from the world. Does nothing if the entity
+	 * no longer exists.
+	 * 
+	 * @param handle of the entity.
+	 */
+	public void delete(long handle) {
+		Entity e = em.getEntityForHandle(handle);
+		if(e != null)
+			deleteEntity(e);
+	}
+
 	/**
 	 * Get a entity having the specified id.
 	 * 
@@ -249,6 +466,36 @@ public class World {
 		return em.getEntity(entityId);
 	}
 
+	/**
+	 * Finds the entities matching an aspect without a system, e.g. for tools or
+	 * one-off queries. Each component type keeps the ids of the entities that
+	 * have it, so a query takes a few bitset operations per type in the aspect
+	 * rather than a look at every entity.
+	 * 
+	 * Matches the same entities as a system with the aspect, except that
+	 * entities count as soon as their components are added: including those
+	 * not yet added to the world and disabled ones, until their deletion is
+	 * processed.
+	 * 
+	 * @param aspect the component types to match.
+	 * @return ids of the matching entities.
+	 */
+	public BitSet query(Aspect aspect) {
+		return cm.query(aspect, new BitSet());
+	}
+
+	/**
+	 * Finds the entities matching an aspect, like query(Aspect), reusing a
+	 * bitset for the result.
+	 * 
+	 * @param aspect the component types to match.
+	 * @param fill cleared, then filled with the ids of the matching entities.
+	 * @return fill.
+	 */
+	public BitSet query(Aspect aspect, BitSet fill) {
+		return cm.query(aspect, fill);
+	}
+
 	
 
 
@@ -284,6 +531,7 @@ public class World {
 		
 		systems.put(system.getClass(), system);
 		systemsBag.add(system);
+		membership.clear();
 		
 		return system;
 	}
@@ -295,17 +543,75 @@ public class World {
 	public void deleteSystem(EntitySystem system) {
 		systems.remove(system.getClass());
 		systemsBag.remove(system);
+		membership.clear();
+	}
+
+	/*
+	 * Only systems whose membership changes are notified. The systems of each
+	 * composition are cached, so an entity that already belongs to exactly
+	 * those systems, e.g. after a change that did not affect any aspect, costs
+	 * a lookup and a compare. New entities only visit the systems of their
+	 * composition, and leaving entities only the systems they belong to.
+	 *
+	 * If a callback such as inserted() adds or removes a component, the
+	 * cached systems no longer fit, so every system checks the entity again.
+	 */
+	private void notifySystems(Performer performer, Entity e, boolean leaving) {
+		int id = e.getId();
+		if(leaving && membership.isUnclaimed(id))
+			return;
+
+		SystemMembership.Entry entry = membership.get(id);
+		if(membership.isSettled(id, entry)) {
+			if(leaving)
+				notifySystems(performer, e, entry.getSystems());
+			return;
+		}
+		if(!leaving && membership.isUnclaimed(id)) {
+			EntitySystem[] systems = entry.getSystems();
+			for (int i = 0; i < systems.length; i++) {
+				performer.perform(systems[i], e);
+				if(!membership.hasComposition(id, entry)) {
+					notifySystems(performer, e, systemsBag);
+					return;
+				}
+			}
+			return;
+		}
+
+		BitTable systemBits = em.getSystemBits();
+		for (int i = 0, s = systemsBag.size(); s > i; i++) {
+			EntitySystem system = systemsBag.get(i);
+			boolean member = systemBits.get(id, system.getSystemIndex());
+			if(leaving ? member : member != entry.contains(system.getSystemIndex())) {
+				performer.perform(system, e);
+				if(!leaving && !membership.hasComposition(id, entry)) {
+					notifySystems(performer, e, systemsBag);
+					return;
+				}
+			}
+		}
 	}
 
-	private void notifySystems(Performer performer, Entity e) {
-		for(EntitySystem system : systemsBag) {
+	private static void notifySystems(Performer performer, Entity e, ImmutableBag<EntitySystem> systems) {
+		for (int i = 0, s = systems.size(); s > i; i++) {
+			performer.perform(systems.get(i), e);
+		}
+	}
+
+	private static void notifySystems(Performer performer, Entity e, EntitySystem[] systems) {
+		for (EntitySystem system : systems) {
 			performer.perform(system, e);
 		}
 	}
 
+	SystemMembership getSystemMembership() {
+		return membership;
+	}
+
 	private void notifyManagers(Performer performer, Entity e) {
-		for(Manager m : managersBag) {
-			performer.perform(m, e);
+		for (int i = 0, s = managersBag.size(); s > i; i++) {
+			performer.perform(managersBag.get(i), e);
 		}
 	}
 	
@@ -323,70 +629,223 @@ public class World {
 	/**
 	 * Performs an action on each entity.
 	 * @param entities
+	 * @param phase the phase reported to profilers
+	 * @param profiling whether profilers should be notified
 	 * @param performer
 	 */
-	private void check(Bag<Entity> entities, Performer performer) {
+	private void check(EntitySet entities, Profiler.Phase phase, boolean profiling, Performer performer) {
 		if (!entities.isEmpty()) {
-			for (Entity e : entities) {
+			if(profiling)
+				phaseBegin(phase);
+
+			boolean leaving = performer == DISABLED || performer == DELETED;
+			for (int i = 0; entities.size() > i; i++) {
+				Entity e = entities.get(i);
 				notifyManagers(performer, e);
-				notifySystems(performer, e);
+				notifySystems(performer, e, leaving);
 			}
 			entities.clear();
+
+			if(profiling)
+				phaseEnd(phase);
 		}
 	}
 
 	
 	/**
 	 * Process all non-passive systems.
+	 * 
+	 * A frame without entities added, changed, disabled, enabled or deleted
+	 * allocates nothing in the framework itself.
 	 */
 	public void process() {
-		check(added, new Performer() {
-			@Override
-			public void perform(EntityObserver observer, Entity e) {
-				observer.added(e);
-			}
-		});
+		frames++;
+
+		if(flightRecorder != null && flightRecorder.isRecording() != flightRecording)
+			toggleFlightRecorder();
+
+		final boolean profiling = !profilers.isEmpty();
+		if(profiling)
+			frameBegin();
+
+		check(added, Profiler.Phase.ADDED, profiling, ADDED);
 		
-		check(changed, new Performer() {
-			@Override
-			public void perform(EntityObserver observer, Entity e) {
-				observer.changed(e);
-			}
-		});
+		check(changed, Profiler.Phase.CHANGED, profiling, CHANGED);
 		
-		check(disable, new Performer() {
-			@Override
-			public void perform(EntityObserver observer, Entity e) {
-				observer.disabled(e);
-			}
-		});
+		check(disable, Profiler.Phase.DISABLED, profiling, DISABLED);
 		
-		check(enable, new Performer() {
-			@Override
-			public void perform(EntityObserver observer, Entity e) {
-				observer.enabled(e);
-			}
-		});
+		check(enable, Profiler.Phase.ENABLED, profiling, ENABLED);
 		
-		check(deleted, new Performer() {
-			@Override
-			public void perform(EntityObserver observer, Entity e) {
-				observer.deleted(e);
-			}
-		});
+		check(deleted, Profiler.Phase.DELETED, profiling, DELETED);
 		
-		cm.clean();
+		if(profiling) {
+			phaseBegin(Profiler.Phase.CLEAN);
+			cm.clean();
+			em.clean();
+			phaseEnd(Profiler.Phase.CLEAN);
+		} else {
+			cm.clean();
+			em.clean();
+		}
 		
-		for(EntitySystem system : systemsBag) {
+		for (int i = 0, s = systemsBag.size(); s > i; i++) {
+			EntitySystem system = systemsBag.get(i);
 			if(!system.isPassive()) {
-				system.process();
+				if(profiling) {
+					systemBegin(system);
+					system.process();
+					systemEnd(system);
+				} else {
+					system.process();
+				}
 			}
 		}
+
+		if(compactionFrames > 0)
+			autoCompact();
+
+		if(profiling)
+			frameEnd();
+	}
+
+	/**
+	 * Releases capacity kept from a past peak of entities: component storage,
+	 * the actives of every system, the entity table, the pending queues, and
+	 * whatever managers release in Manager.compact(). Recycled ids are handed
+	 * out lowest first afterwards, so the id range, and with it the id indexed
+	 * storage, can keep shrinking as entities come and go.
+	 * 
+	 * Walks all storage, call it between World.process() calls when the world
+	 * has shrunk, e.g. after an event or a level change.
+	 */
+	public void compactStorage() {
+		for (int i = 0, s = managersBag.size(); s > i; i++) {
+			managersBag.get(i).compact();
+		}
+		for (int i = 0, s = systemsBag.size(); s > i; i++) {
+			systemsBag.get(i).compactActives();
+		}
+		added.trim();
+		changed.trim();
+		deleted.trim();
+		enable.trim();
+		disable.trim();
+	}
+
+	/**
+	 * Compact storage automatically once the active entities stay below the
+	 * given share of the entity table's capacity for the given number of frames.
+	 * 
+	 * If a compaction cannot raise the occupancy, because live entities hold ids
+	 * spread over the whole range, the number of frames to wait doubles until a
+	 * compaction succeeds again. Tables of less than 1024 entities are left alone.
+	 * 
+	 * @param minOccupancy share of the capacity, e.g. 0.25, 0 disables compaction.
+	 * @param frames number of consecutive frames the occupancy must stay low.
+	 */
+	public void setAutoCompaction(double minOccupancy, int frames) {
+		if(minOccupancy < 0 || minOccupancy > 1)
+			throw new IllegalArgumentException("minOccupancy must be between 0 and 1: " + minOccupancy);
+		if(frames < 0)
+			throw new IllegalArgumentException("frames must not be negative: " + frames);
+
+		compactionOccupancy = minOccupancy;
+		compactionFrames = minOccupancy > 0 ? Math.max(frames, 1) : 0;
+		compactionWindow = compactionFrames;
+		lowOccupancyFrames = 0;
+	}
+
+	private void autoCompact() {
+		if(!isOccupancyLow()) {
+			lowOccupancyFrames = 0;
+			return;
+		}
+
+		if(++lowOccupancyFrames >= compactionWindow) {
+			compactStorage();
+			lowOccupancyFrames = 0;
+			if(!isOccupancyLow())
+				compactionWindow = compactionFrames;
+			else if(compactionWindow < Integer.MAX_VALUE / 2)
+				compactionWindow *= 2;
+		}
+	}
+
+	private boolean isOccupancyLow() {
+		int capacity = em.getEntityTable().getCapacity();
+		return capacity >= 1024 && em.getActiveEntityCount() < capacity * compactionOccupancy;
+	}
+
+	/*
+	 * The flight recorder profiler is only set while one of its events is enabled.
+	 */
+	private void toggleFlightRecorder() {
+		flightRecording = !flightRecording;
+		if(flightRecording)
+			setProfiler(flightRecorder);
+		else
+			deleteProfiler(flightRecorder);
+	}
+
+	private static FlightRecorderProfiler createFlightRecorder() {
+		try {
+			return new FlightRecorderProfiler();
+		} catch (LinkageError e) {
+			return null; // runtime without the jdk.jfr module
+		}
+	}
+
+	private void frameBegin() {
+		for (int i = 0, s = profilers.size(); s > i; i++) {
+			profilers.get(i).frameBegin();
+		}
+	}
+
+	private void frameEnd() {
+		for (int i = 0, s = profilers.size(); s > i; i++) {
+			profilers.get(i).frameEnd();
+		}
+	}
+
+	private void phaseBegin(Profiler.Phase phase) {
+		for (int i = 0, s = profilers.size(); s > i; i++) {
+			profilers.get(i).phaseBegin(phase);
+		}
+	}
+
+	private void phaseEnd(Profiler.Phase phase) {
+		for (int i = 0, s = profilers.size(); s > i; i++) {
+			profilers.get(i).phaseEnd(phase);
+		}
+	}
+
+	private void systemBegin(EntitySystem system) {
+		for (int i = 0, s = profilers.size(); s > i; i++) {
+			profilers.get(i).systemBegin(system);
+		}
+	}
+
+	private void systemEnd(EntitySystem system) {
+		for (int i = 0, s = profilers.size(); s > i; i++) {
+			profilers.get(i).systemEnd(system);
+		}
 	}
 	
 
 	/**
-	 * Retrieves a ComponentMapper instance for fast retrieval of components from entities.
+	 * Estimates the heap retained by component storage, system actives and
+	 * entity bookkeeping. Walks all storage, so avoid calling it every frame.
+	 * 
+	 * @return a snapshot of the current memory usage.
+	 */
+	public MemoryReport getMemoryReport() {
+		return new MemoryReport(this);
+	}
+	
+
+	/**
+	 * Retrieves the ComponentMapper for fast retrieval of components from entities.
+	 * Each component type has one mapper per world.
 	 * 
 	 * @param type of component to get mapper for.
 	 * @return mapper for specified component type.
@@ -395,6 +854,16 @@ public class World {
 		return ComponentMapper.getFor(type, this);
 	}
 
+	/**
+	 * Retrieves a PackedComponentMapper instance for creating and accessing off-heap components.
+	 * 
+	 * @param type of packed component to get mapper for.
+	 * @return mapper for specified component type.
+	 */
+	public <T extends PackedComponent> PackedComponentMapper<T> getPackedMapper(Class<T> type) {
+		return PackedComponentMapper.getFor(type, this);
+	}
+
 	/*
 	 * Only used internally to maintain clean code.
 	 */
@@ -402,6 +871,41 @@ public class World {
 		void perform(EntityObserver observer, Entity e);
 	}
 
+	private static final Performer ADDED = new Performer() {
+		@Override
+		public void perform(EntityObserver observer, Entity e) {
+			observer.added(e);
+		}
+	};
+
+	private static final Performer CHANGED = new Performer() {
+		@Override
+		public void perform(EntityObserver observer, Entity e) {
+			observer.changed(e);
+		}
+	};
+
+	private static final Performer DISABLED = new Performer() {
+		@Override
+		public void perform(EntityObserver observer, Entity e) {
+			observer.disabled(e);
+		}
+	};
+
+	private static final Performer ENABLED = new Performer() {
+		@Override
+		public void perform(EntityObserver observer, Entity e) {
+			observer.enabled(e);
+		}
+	};
+
+	private static final Performer DELETED = new Performer() {
+		@Override
+		public void perform(EntityObserver observer, Entity e) {
+			observer.deleted(e);
+		}
+	};
+
 	
 	
 	private static class ComponentMapperInitHelper {
@@ -426,8 +930,12 @@ public class World {
 
 						boolean accessible = field.isAccessible();
 						field.setAccessible(true);
-						if(field.get(target) == null)
-							field.set(target, world.getMapper(componentType));
+						if(field.get(target) == null) {
+							if(field.getType() == PackedComponentMapper.class)
+								field.set(target, world.getPackedMapper(componentType.asSubclass(PackedComponent.class)));
+							else
+								field.set(target, world.getMapper(componentType));
+						}
 						field.setAccessible(accessible);
 					}
 				}
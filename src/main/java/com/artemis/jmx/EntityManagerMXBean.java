@@ -0,0 +1,25 @@
+package com.artemis.jmx;
+
+/**
+ * Entity counters of a World's EntityManager, registered by JmxManager.
+ *
+ * The per frame rates are averaged over the frames processed since the
+ * previous time the rates were read.
+ */
+public interface EntityManagerMXBean {
+
+	int getActiveEntityCount();
+
+	long getTotalCreated();
+
+	long getTotalAdded();
+
+	long getTotalDeleted();
+
+	double getCreatedPerFrame();
+
+	double getAddedPerFrame();
+
+	double getDeletedPerFrame();
+
+}
@@ -0,0 +1,12 @@
+package com.artemis.jmx;
+
+/**
+ * Statistics of a single EntitySystem, registered by JmxManager.
+ */
+public interface EntitySystemMXBean {
+
+	String getSystemClass();
+
+	int getActiveCount();
+
+}
@@ -0,0 +1,240 @@
+package com.artemis.jmx;
+
+import com.artemis.EntityManager;
+import com.artemis.EntitySystem;
+import com.artemis.Manager;
+import com.artemis.World;
+import com.artemis.utils.Bag;
+import com.artemis.utils.ImmutableBag;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+
+/**
+ * Publishes runtime statistics of the world as platform MBeans, so they can be
+ * watched with JConsole, VisualVM or any other JMX client. The beans are
+ * registered under the com.artemis domain:
+ * <pre>
+ * com.artemis:type=World,world=&lt;name&gt;
+ * com.artemis:type=EntityManager,world=&lt;name&gt;
+ * com.artemis:type=EntitySystem,world=&lt;name&gt;,name=&lt;system class&gt;
+ * </pre>
+ *
+ * Beans are registered when the world is initialized, systems added later are
+ * picked up by calling register() again. Attributes are read from the JMX
+ * threads without synchronization, so they may lag the world by a frame.
+ *
+ * @see WorldMXBean
+ * @see EntityManagerMXBean
+ * @see EntitySystemMXBean
+ */
+public class JmxManager extends Manager {
+	private static final String DOMAIN = "com.artemis";
+
+	private final String name;
+	private final Bag<ObjectName> registered;
+
+	/**
+	 * @param name identifies the world in the object names, must be a valid ObjectName value.
+	 */
+	public JmxManager(String name) {
+		this.name = name;
+		registered = new Bag<>();
+	}
+
+	@Override
+	protected void initialize() {
+		register();
+	}
+
+	/**
+	 * Registers the beans of the world and of all its current systems,
+	 * replacing any beans previously registered by this manager.
+	 */
+	public void register() {
+		unregister();
+
+		register(new WorldStatistics(world), "type=World,world=" + name);
+		register(new EntityManagerStatistics(world), "type=EntityManager,world=" + name);
+
+		ImmutableBag<EntitySystem> systems = world.getSystems();
+		for (int i = 0, s = systems.size(); s > i; i++) {
+			EntitySystem system = systems.get(i);
+			register(new EntitySystemStatistics(system),
+					"type=EntitySystem,world=" + name + ",name=" + system.getClass().getName() + "#" + i);
+		}
+	}
+
+	/**
+	 * Removes all beans registered by this manager from the platform MBean server.
+	 */
+	public void unregister() {
+		MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		try {
+			for (ObjectName objectName : registered) {
+				if(server.isRegistered(objectName))
+					server.unregisterMBean(objectName);
+			}
+		} catch (Exception e) {
+			throw new RuntimeException("Error while unregistering MBeans", e);
+		}
+		registered.clear();
+	}
+
+	private void register(Object bean, String properties) {
+		try {
+			ObjectName objectName = new ObjectName(DOMAIN + ":" + properties);
+			ManagementFactory.getPlatformMBeanServer().registerMBean(bean, objectName);
+			registered.add(objectName);
+		} catch (Exception e) {
+			throw new RuntimeException("Error while registering MBean " + properties, e);
+		}
+	}
+
+
+	private static class WorldStatistics implements WorldMXBean {
+		private final World world;
+
+		WorldStatistics(World world) {
+			this.world = world;
+		}
+
+		@Override
+		public long getFrameCount() {
+			return world.getFrameCount();
+		}
+
+		@Override
+		public int getSystemCount() {
+			return world.getSystems().size();
+		}
+
+		@Override
+		public int getPendingAddedCount() {
+			return world.getPendingAddedCount();
+		}
+
+		@Override
+		public int getPendingChangedCount() {
+			return world.getPendingChangedCount();
+		}
+
+		@Override
+		public int getPendingDeletedCount() {
+			return world.getPendingDeletedCount();
+		}
+
+		@Override
+		public int getPendingEnabledCount() {
+			return world.getPendingEnabledCount();
+		}
+
+		@Override
+		public int getPendingDisabledCount() {
+			return world.getPendingDisabledCount();
+		}
+	}
+
+	private static class EntityManagerStatistics implements EntityManagerMXBean {
+		private final World world;
+		private final EntityManager em;
+
+		private long lastFrame;
+		private long lastCreated;
+		private long lastAdded;
+		private long lastDeleted;
+
+		private double createdPerFrame;
+		private double addedPerFrame;
+		private double deletedPerFrame;
+
+		EntityManagerStatistics(World world) {
+			this.world = world;
+			this.em = world.getEntityManager();
+			lastFrame = world.getFrameCount();
+			lastCreated = em.getTotalCreated();
+			lastAdded = em.getTotalAdded();
+			lastDeleted = em.getTotalDeleted();
+		}
+
+		/*
+		 * Recomputes the rates if the world has been processed since the last sample.
+		 */
+		private synchronized void sample() {
+			long frame = world.getFrameCount();
+			long frames = frame - lastFrame;
+			if(frames <= 0)
+				return;
+
+			long created = em.getTotalCreated();
+			long added = em.getTotalAdded();
+			long deleted = em.getTotalDeleted();
+
+			createdPerFrame = (double) (created - lastCreated) / frames;
+			addedPerFrame = (double) (added - lastAdded) / frames;
+			deletedPerFrame = (double) (deleted - lastDeleted) / frames;
+
+			lastFrame = frame;
+			lastCreated = created;
+			lastAdded = added;
+			lastDeleted = deleted;
+		}
+
+		@Override
+		public int getActiveEntityCount() {
+			return em.getActiveEntityCount();
+		}
+
+		@Override
+		public long getTotalCreated() {
+			return em.getTotalCreated();
+		}
+
+		@Override
+		public long getTotalAdded() {
+			return em.getTotalAdded();
+		}
+
+		@Override
+		public long getTotalDeleted() {
+			return em.getTotalDeleted();
+		}
+
+		@Override
+		public synchronized double getCreatedPerFrame() {
+			sample();
+			return createdPerFrame;
+		}
+
+		@Override
+		public synchronized double getAddedPerFrame() {
+			sample();
+			return addedPerFrame;
+		}
+
+		@Override
+		public synchronized double getDeletedPerFrame() {
+			sample();
+			return deletedPerFrame;
+		}
+	}
+
+	private static class EntitySystemStatistics implements EntitySystemMXBean {
+		private final EntitySystem system;
+
+		EntitySystemStatistics(EntitySystem system) {
+			this.system = system;
+		}
+
+		@Override
+		public String getSystemClass() {
+			return system.getClass().getName();
+		}
+
+		@Override
+		public int getActiveCount() {
+			return system.getActives().size();
+		}
+	}
+}
@@ -0,0 +1,22 @@
+package com.artemis.jmx;
+
+/**
+ * Runtime statistics of a World, registered by JmxManager.
+ */
+public interface WorldMXBean {
+
+	long getFrameCount();
+
+	int getSystemCount();
+
+	int getPendingAddedCount();
+
+	int getPendingChangedCount();
+
+	int getPendingDeletedCount();
+
+	int getPendingEnabledCount();
+
+	int getPendingDisabledCount();
+
+}
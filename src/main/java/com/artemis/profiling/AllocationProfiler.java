@@ -0,0 +1,53 @@
+package com.artemis.profiling;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Records bytes allocated by the thread processing the world: over the whole
+ * frame, in each notification phase and in each processed system.
+ *
+ * A histogram's total is the number of bytes allocated so far, its max the most
+ * allocated in a single frame.
+ *
+ * <pre>
+ * AllocationProfiler profiler = world.setProfiler(new AllocationProfiler());
+ * ...
+ * long garbage = profiler.getSystemHistogram(particleSystem).getTotal();
+ * </pre>
+ *
+ * Needs a JVM supporting com.sun.management.ThreadMXBean with thread allocated
+ * memory measurement, such as HotSpot.
+ */
+public class AllocationProfiler extends SamplingProfiler {
+	private final com.sun.management.ThreadMXBean threads;
+	private long threadId;
+
+	/**
+	 * @throws UnsupportedOperationException if the JVM can't measure allocated memory per thread.
+	 */
+	public AllocationProfiler() {
+		ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+		if(!(bean instanceof com.sun.management.ThreadMXBean))
+			throw new UnsupportedOperationException("Thread allocated memory is not supported by this JVM");
+
+		threads = (com.sun.management.ThreadMXBean) bean;
+		if(!threads.isThreadAllocatedMemorySupported())
+			throw new UnsupportedOperationException("Thread allocated memory is not supported by this JVM");
+		threads.setThreadAllocatedMemoryEnabled(true);
+
+		threadId = Thread.currentThread().getId();
+		calibrate();
+	}
+
+	@Override
+	protected void frameBegin() {
+		threadId = Thread.currentThread().getId();
+		super.frameBegin();
+	}
+
+	@Override
+	protected long sample() {
+		return threads.getThreadAllocatedBytes(threadId);
+	}
+}
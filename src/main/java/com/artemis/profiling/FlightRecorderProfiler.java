@@ -0,0 +1,163 @@
+package com.artemis.profiling;
+
+import com.artemis.EntitySystem;
+import com.artemis.Profiler;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Emits JDK Flight Recorder events for World.process(), so frames show up in
+ * the same timeline as GC, allocation and lock events:
+ * <pre>
+ * com.artemis.Frame      one per World.process() call
+ * com.artemis.System     one per processed system, with its entity count
+ * com.artemis.Lifecycle  one per notification phase, with the entities it handled
+ * </pre>
+ *
+ * The events are disabled by default, enable them in the recording settings,
+ * e.g. with a .jfc file or com.artemis.Frame#enabled=true. Every world owns one
+ * of these profilers and only sets it while one of the events is enabled, so
+ * it costs nothing otherwise.
+ */
+public class FlightRecorderProfiler extends Profiler {
+	private static final EventType FRAME = EventType.getEventType(FrameEvent.class);
+	private static final EventType SYSTEM = EventType.getEventType(SystemEvent.class);
+	private static final EventType LIFECYCLE = EventType.getEventType(LifecycleEvent.class);
+
+	private FrameEvent frame;
+	private SystemEvent system;
+	private LifecycleEvent lifecycle;
+	private int deletedThisFrame;
+
+	/**
+	 * @return true if any of the events is enabled in a running recording.
+	 */
+	public boolean isRecording() {
+		return FRAME.isEnabled() || SYSTEM.isEnabled() || LIFECYCLE.isEnabled();
+	}
+
+	@Override
+	protected void frameBegin() {
+		deletedThisFrame = 0;
+		if(FRAME.isEnabled()) {
+			frame = new FrameEvent();
+			frame.begin();
+		}
+	}
+
+	@Override
+	protected void frameEnd() {
+		if(frame != null) {
+			frame.frame = world.getFrameCount();
+			frame.activeEntities = world.getEntityManager().getActiveEntityCount();
+			frame.commit();
+			frame = null;
+		}
+	}
+
+	@Override
+	protected void phaseBegin(Phase phase) {
+		int entities = pendingCount(phase);
+		if(phase == Phase.DELETED)
+			deletedThisFrame = entities;
+
+		if(LIFECYCLE.isEnabled()) {
+			lifecycle = new LifecycleEvent();
+			lifecycle.phase = phase.name();
+			lifecycle.entities = entities;
+			lifecycle.begin();
+		}
+	}
+
+	@Override
+	protected void phaseEnd(Phase phase) {
+		if(lifecycle != null) {
+			lifecycle.commit();
+			lifecycle = null;
+		}
+	}
+
+	@Override
+	protected void systemBegin(EntitySystem system) {
+		if(SYSTEM.isEnabled()) {
+			this.system = new SystemEvent();
+			this.system.system = system.getClass();
+			this.system.entities = system.getActives().size();
+			this.system.begin();
+		}
+	}
+
+	@Override
+	protected void systemEnd(EntitySystem system) {
+		if(this.system != null) {
+			this.system.commit();
+			this.system = null;
+		}
+	}
+
+	private int pendingCount(Phase phase) {
+		switch (phase) {
+			case ADDED:
+				return world.getPendingAddedCount();
+			case CHANGED:
+				return world.getPendingChangedCount();
+			case DISABLED:
+				return world.getPendingDisabledCount();
+			case ENABLED:
+				return world.getPendingEnabledCount();
+			case DELETED:
+				return world.getPendingDeletedCount();
+			default:
+				return deletedThisFrame;
+		}
+	}
+
+
+	@Name("com.artemis.Frame")
+	@Label("Frame")
+	@Description("A World.process() call")
+	@Category("Artemis")
+	@Enabled(false)
+	@StackTrace(false)
+	static class FrameEvent extends Event {
+		@Label("Frame Number")
+		long frame;
+
+		@Label("Active Entities")
+		int activeEntities;
+	}
+
+	@Name("com.artemis.System")
+	@Label("System")
+	@Description("Processing of one EntitySystem")
+	@Category("Artemis")
+	@Enabled(false)
+	@StackTrace(false)
+	static class SystemEvent extends Event {
+		@Label("System")
+		Class<?> system;
+
+		@Label("Entities")
+		int entities;
+	}
+
+	@Name("com.artemis.Lifecycle")
+	@Label("Entity Lifecycle")
+	@Description("Notification of added, changed, disabled, enabled or deleted entities, or the clean-up of deleted components")
+	@Category("Artemis")
+	@Enabled(false)
+	@StackTrace(false)
+	static class LifecycleEvent extends Event {
+		@Label("Phase")
+		String phase;
+
+		@Label("Entities")
+		int entities;
+	}
+}
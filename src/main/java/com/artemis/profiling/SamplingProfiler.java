@@ -0,0 +1,144 @@
+package com.artemis.profiling;
+
+import com.artemis.EntitySystem;
+import com.artemis.Profiler;
+import com.artemis.utils.Histogram;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Base for profilers that read a monotonic counter, such as a clock, before and
+ * after each part of World.process() and record the difference in histograms:
+ * one for the whole frame, one per notification phase and one per system.
+ *
+ * Nothing is allocated while recording, apart from one histogram the first time
+ * a system is seen.
+ */
+public abstract class SamplingProfiler extends Profiler {
+	private final Histogram frame;
+	private final Histogram[] phases;
+	private final Map<EntitySystem, Histogram> systems;
+
+	private long sampleOverhead;
+
+	private long frameStart;
+	private long phaseStart;
+	private long systemStart;
+
+	protected SamplingProfiler() {
+		frame = new Histogram();
+		phases = new Histogram[Phase.values().length];
+		for (int i = 0; i < phases.length; i++) {
+			phases[i] = new Histogram();
+		}
+		systems = new IdentityHashMap<>();
+	}
+
+	/**
+	 * Reads the counter. Called on the thread processing the world.
+	 *
+	 * @return current value of the counter.
+	 */
+	protected abstract long sample();
+
+	/**
+	 * Measures how much two back-to-back samples differ and subtracts that from
+	 * every recorded value, for counters that are disturbed by reading them.
+	 */
+	protected void calibrate() {
+		long overhead = Long.MAX_VALUE;
+		for (int i = 0; i < 16; i++) {
+			long start = sample();
+			overhead = Math.min(overhead, sample() - start);
+		}
+		sampleOverhead = Math.max(overhead, 0);
+	}
+
+	private void record(Histogram histogram, long start, long end) {
+		histogram.record(end - start - sampleOverhead);
+	}
+
+	@Override
+	protected void frameBegin() {
+		frameStart = sample();
+	}
+
+	@Override
+	protected void frameEnd() {
+		record(frame, frameStart, sample());
+	}
+
+	@Override
+	protected void phaseBegin(Phase phase) {
+		phaseStart = sample();
+	}
+
+	@Override
+	protected void phaseEnd(Phase phase) {
+		record(phases[phase.ordinal()], phaseStart, sample());
+	}
+
+	@Override
+	protected void systemBegin(EntitySystem system) {
+		systemStart = sample();
+	}
+
+	@Override
+	protected void systemEnd(EntitySystem system) {
+		long end = sample();
+		Histogram histogram = systems.get(system);
+		if(histogram == null) {
+			histogram = new Histogram();
+			systems.put(system, histogram);
+		}
+		record(histogram, systemStart, end);
+	}
+
+	/**
+	 * @return values recorded for each World.process() call.
+	 */
+	public Histogram getFrameHistogram() {
+		return frame;
+	}
+
+	/**
+	 * Phases are only recorded in frames where they had work to do, the clean
+	 * phase is recorded every frame.
+	 *
+	 * @param phase the notification phase.
+	 * @return values recorded for the phase.
+	 */
+	public Histogram getPhaseHistogram(Phase phase) {
+		return phases[phase.ordinal()];
+	}
+
+	/**
+	 * @param system a system of the profiled world.
+	 * @return values recorded for the system, null if it has not been processed yet.
+	 */
+	public Histogram getSystemHistogram(EntitySystem system) {
+		return systems.get(system);
+	}
+
+	/**
+	 * @return histograms of all systems processed so far.
+	 */
+	public Map<EntitySystem, Histogram> getSystemHistograms() {
+		return Collections.unmodifiableMap(systems);
+	}
+
+	/**
+	 * Forget everything recorded so far.
+	 */
+	public void reset() {
+		frame.reset();
+		for (Histogram phase : phases) {
+			phase.reset();
+		}
+		for (Histogram system : systems.values()) {
+			system.reset();
+		}
+	}
+}
@@ -0,0 +1,94 @@
+package com.artemis.systems;
+
+import com.artemis.Archetype;
+import com.artemis.Aspect;
+import com.artemis.Chunk;
+import com.artemis.Entity;
+import com.artemis.EntitySystem;
+import com.artemis.utils.Bag;
+import com.artemis.utils.ImmutableBag;
+
+/**
+ * A system that processes the chunks of all archetypes its aspect matches,
+ * for worlds with archetype storage, see World.setArchetypeStorage(). Each
+ * chunk hands out one array per component type, so the loop over a chunk reads
+ * every array front to back:
+ *
+ * <pre>
+ * protected void process(Chunk chunk) {
+ *     Position[] positions = (Position[]) chunk.getColumn(positionType);
+ *     Velocity[] velocities = (Velocity[]) chunk.getColumn(velocityType);
+ *     for (int i = 0, s = chunk.size(); s > i; i++)
+ *         positions[i].x += velocities[i].x;
+ * }
+ * </pre>
+ *
+ * Only entities that are in the world and enabled are processed. Chunks follow
+ * component changes right away, where the actives of a system only change
+ * once the entity is announced with changedInWorld(), so a component added
+ * earlier in a frame, e.g. by another system, is processed in the same frame.
+ *
+ * Components of entities in the world cannot be added or removed from
+ * process(Chunk), doing so throws an IllegalStateException. The entity would
+ * move to another archetype at once, and the last entity of its archetype
+ * would take its row, so the loop over the chunk would skip that entity and
+ * might process the moved one again in the chunks of its new archetype.
+ * Collect the entities instead and change them in end(), once all chunks have
+ * been processed. Entities created during process(Chunk) can get components
+ * as usual until they are added to the world.
+ */
+public abstract class ChunkProcessingSystem extends EntitySystem {
+	private final Bag<Archetype> matching;
+	private int archetypesSeen;
+
+	public ChunkProcessingSystem(Aspect aspect) {
+		super(aspect);
+		matching = new Bag<>();
+	}
+
+	/**
+	 * Process the entities of a chunk, all of them match the aspect. Must not
+	 * add or remove components of entities in the world, see the class
+	 * documentation.
+	 * @throws IllegalStateException if it adds or removes such a component.
+	 * @param chunk a chunk with at least one entity.
+	 */
+	protected abstract void process(Chunk chunk);
+
+	@Override
+	protected final void processEntities(ImmutableBag<Entity> entities) {
+		ImmutableBag<Archetype> archetypes = world.getArchetypes();
+		for (int s = archetypes.size(); s > archetypesSeen; archetypesSeen++) {
+			Archetype archetype = archetypes.get(archetypesSeen);
+			if(archetype.isActive() && archetype.matches(getAspect()))
+				matching.add(archetype);
+		}
+
+		world.setProcessingChunks(true);
+		try {
+			for (int i = 0, s = matching.size(); s > i; i++) {
+				ImmutableBag<Chunk> chunks = matching.get(i).getChunks();
+				for (int j = 0, c = chunks.size(); c > j; j++) {
+					Chunk chunk = chunks.get(j);
+					if(chunk.size() > 0)
+						process(chunk);
+				}
+			}
+		} finally {
+			world.setProcessingChunks(false);
+		}
+	}
+
+	/**
+	 * @return the archetypes whose chunks this system processed in its last
+	 * run, including those that were empty.
+	 */
+	public ImmutableBag<Archetype> getArchetypes() {
+		return matching;
+	}
+
+	@Override
+	protected boolean checkProcessing() {
+		return true;
+	}
+}
@@ -43,7 +43,8 @@ public abstract class DelayedEntityProcessingSystem extends EntitySystem {
 	protected final void processEntities(ImmutableBag<Entity> entities) {
         double tempAcc = acc;
         stop();
-		for (Entity entity : entities) {
+		for (int i = 0, s = entities.size(); s > i; i++) {
+			Entity entity = entities.get(i);
 			processDelta(entity, tempAcc);
             double remaining = getRemainingDelay(entity);
             if (remaining <= 0.0) {
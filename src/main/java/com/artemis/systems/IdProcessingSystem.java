@@ -0,0 +1,42 @@
+package com.artemis.systems;
+
+import com.artemis.Aspect;
+import com.artemis.Entity;
+import com.artemis.EntitySystem;
+import com.artemis.utils.ImmutableBag;
+
+/**
+ * A typical entity system that processes entities by id, for use with the
+ * id taking methods of ComponentMapper.
+ * 
+ * <pre>
+ * protected void process(int entityId) {
+ *     pm.get(entityId).x += vm.get(entityId).x;
+ * }
+ * </pre>
+ */
+public abstract class IdProcessingSystem extends EntitySystem {
+
+	public IdProcessingSystem(Aspect aspect) {
+		super(aspect);
+	}
+
+	/**
+	 * Process an entity this system is interested in.
+	 * @param entityId the id of the entity to process.
+	 */
+	protected abstract void process(int entityId);
+
+	@Override
+	protected final void processEntities(ImmutableBag<Entity> entities) {
+		for (int i = 0, s = entities.size(); s > i; i++) {
+			process(entities.get(i).getId());
+		}
+	}
+
+	@Override
+	protected boolean checkProcessing() {
+		return true;
+	}
+
+}
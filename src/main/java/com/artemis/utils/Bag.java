@@ -1,6 +1,8 @@
 package com.artemis.utils;
 
 import java.util.*;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Collection type a bit like ArrayList but does not preserve the order of its
@@ -261,7 +263,7 @@ public class Bag<E> implements ImmutableBag<E>, Set<E> {
 	 */
 	public void set(int index, E e) {
 		if(index >= data.length) {
-			grow(index*2);
+			grow(Math.max(index*2, index+1));
 		}
         ++modCount;
 		size = Math.max(index+1, size);
@@ -282,7 +284,29 @@ public class Bag<E> implements ImmutableBag<E>, Set<E> {
 
 	public void ensureCapacity(int index) {
 		if(index >= data.length) {
-			grow(index*2);
+			grow(Math.max(index*2, index+1));
+		}
+	}
+
+	/**
+	 * Drops trailing null elements and shrinks the capacity to the remaining
+	 * size, releasing what a bag indexed by entity id kept after a spike.
+	 */
+	@SuppressWarnings("unchecked")
+	public void trim() {
+		int newSize = size;
+		while(newSize > 0 && data[newSize-1] == null)
+			newSize--;
+
+		if(newSize != size) {
+			++modCount;
+			size = newSize;
+		}
+
+		if(data.length > size) {
+			E[] oldData = data;
+			data = (E[])new Object[size];
+			System.arraycopy(oldData, 0, data, 0, size);
 		}
 	}
 
@@ -348,6 +372,25 @@ public class Bag<E> implements ImmutableBag<E>, Set<E> {
         return a;
     }
 
+    /**
+     * Splits by index range and reports exact sizes, unlike the default
+     * Set spliterator. The bag must not be modified while it is in use.
+     */
+    @Override
+    public Spliterator<E> spliterator() {
+        return new BagSpliterator<>(this, Spliterator.DISTINCT);
+    }
+
+    @Override
+    public Stream<E> stream() {
+        return StreamSupport.stream(spliterator(), false);
+    }
+
+    @Override
+    public Stream<E> parallelStream() {
+        return StreamSupport.stream(spliterator(), true);
+    }
+
     @Override
     public Iterator<E> iterator() {
         return new Iterator<E>() {
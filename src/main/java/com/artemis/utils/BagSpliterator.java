@@ -0,0 +1,79 @@
+package com.artemis.utils;
+
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * Spliterator over a range of indices of an ImmutableBag. It reports its exact
+ * size and splits the range in halves, so parallel streams over large bags
+ * divide the work evenly between threads.
+ *
+ * The end of the range is taken from the bag when traversal or splitting
+ * starts, and the bag must not be modified after that.
+ */
+final class BagSpliterator<E> implements Spliterator<E> {
+	private final ImmutableBag<E> bag;
+	private final int characteristics;
+	private int index;
+	private int fence;
+
+	BagSpliterator(ImmutableBag<E> bag, int characteristics) {
+		this(bag, 0, -1, characteristics);
+	}
+
+	private BagSpliterator(ImmutableBag<E> bag, int origin, int fence, int characteristics) {
+		this.bag = bag;
+		this.index = origin;
+		this.fence = fence;
+		this.characteristics = characteristics | Spliterator.SIZED | Spliterator.SUBSIZED;
+	}
+
+	private int getFence() {
+		if(fence < 0)
+			fence = bag.size();
+		return fence;
+	}
+
+	@Override
+	public Spliterator<E> trySplit() {
+		int lo = index, mid = (lo + getFence()) >>> 1;
+		if(lo >= mid)
+			return null;
+
+		index = mid;
+		return new BagSpliterator<>(bag, lo, mid, characteristics);
+	}
+
+	@Override
+	public boolean tryAdvance(Consumer<? super E> action) {
+		if(action == null)
+			throw new NullPointerException();
+
+		if(index < getFence()) {
+			action.accept(bag.get(index++));
+			return true;
+		}
+		return false;
+	}
+
+	@Override
+	public void forEachRemaining(Consumer<? super E> action) {
+		if(action == null)
+			throw new NullPointerException();
+
+		for (int i = index, hi = getFence(); hi > i; i++) {
+			action.accept(bag.get(i));
+		}
+		index = getFence();
+	}
+
+	@Override
+	public long estimateSize() {
+		return getFence() - index;
+	}
+
+	@Override
+	public int characteristics() {
+		return characteristics;
+	}
+}
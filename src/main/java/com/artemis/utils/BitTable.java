@@ -0,0 +1,326 @@
+package com.artemis.utils;
+
+import java.util.BitSet;
+
+/**
+ * A table of bit rows indexed by entity id, kept in paged long arrays, e.g.
+ * the component types or systems of every entity.
+ *
+ * Each row takes as many longs as the highest bit set in any row needs, one
+ * long while fewer than 64 bits are in use, two for up to 128 and so on. Rows
+ * are laid out next to each other, so a row costs no object of its own and
+ * matching a row against a mask is a few word operations. Setting a bit beyond
+ * the current row width widens all allocated pages once.
+ *
+ * Like PagedBag, pages are allocated on first use and growing only copies the
+ * page directory. Rows in pages that were never written read as empty.
+ */
+public class BitTable {
+	private final int pageShift;
+	private final int pageMask;
+
+	private long[][] pages;
+	private int pageCount;
+	private int words;
+
+	/**
+	 * Constructs an empty table with pages of 1024 rows.
+	 */
+	public BitTable() {
+		this(10);
+	}
+
+	/**
+	 * Constructs an empty table with pages of 2^pageShift rows.
+	 *
+	 * @param pageShift log2 of the rows per page, between 0 and 24
+	 */
+	public BitTable(int pageShift) {
+		if(pageShift < 0 || pageShift > 24)
+			throw new IllegalArgumentException("pageShift must be between 0 and 24: " + pageShift);
+
+		this.pageShift = pageShift;
+		pageMask = (1 << pageShift) - 1;
+		pages = new long[8][];
+		words = 1;
+	}
+
+	/**
+	 * @param row the row, e.g. an entity id
+	 * @param bit index of the bit
+	 * @return true if the bit is set in the row
+	 */
+	public boolean get(int row, int bit) {
+		int word = bit >>> 6;
+		long[] data = page(row);
+		if(data == null || word >= words)
+			return false;
+
+		return (data[(row & pageMask) * words + word] & (1L << bit)) != 0;
+	}
+
+	/**
+	 * Sets a bit, allocating the row's page or widening the rows if needed.
+	 *
+	 * @param row the row, e.g. an entity id
+	 * @param bit index of the bit
+	 */
+	public void set(int row, int bit) {
+		int word = bit >>> 6;
+		if(word >= words)
+			widen(word + 1);
+
+		int page = row >>> pageShift;
+		if(page >= pages.length) {
+			long[][] grown = new long[Math.max(pages.length * 2, page + 1)][];
+			System.arraycopy(pages, 0, grown, 0, pages.length);
+			pages = grown;
+		}
+
+		long[] data = pages[page];
+		if(data == null) {
+			data = new long[words << pageShift];
+			pages[page] = data;
+			pageCount++;
+		}
+
+		data[(row & pageMask) * words + word] |= 1L << bit;
+	}
+
+	/**
+	 * Clears a bit, never allocates.
+	 *
+	 * @param row the row, e.g. an entity id
+	 * @param bit index of the bit
+	 */
+	public void clear(int row, int bit) {
+		int word = bit >>> 6;
+		long[] data = page(row);
+		if(data != null && word < words)
+			data[(row & pageMask) * words + word] &= ~(1L << bit);
+	}
+
+	/**
+	 * Clears all bits of a row.
+	 *
+	 * @param row the row, e.g. an entity id
+	 */
+	public void clearRow(int row) {
+		long[] data = page(row);
+		if(data != null) {
+			int offset = (row & pageMask) * words;
+			for (int i = 0; i < words; i++) {
+				data[offset + i] = 0;
+			}
+		}
+	}
+
+	/**
+	 * @param row the row, e.g. an entity id
+	 * @return true if no bit is set in the row
+	 */
+	public boolean isEmpty(int row) {
+		long[] data = page(row);
+		if(data != null) {
+			int offset = (row & pageMask) * words;
+			for (int i = 0; i < words; i++) {
+				if(data[offset + i] != 0)
+					return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * @param row the row, e.g. an entity id
+	 * @param from bit to start looking at, inclusive
+	 * @return index of the next set bit in the row, -1 if there is none
+	 */
+	public int nextSetBit(int row, int from) {
+		long[] data = page(row);
+		int word = from >>> 6;
+		if(data == null || word >= words)
+			return -1;
+
+		int offset = (row & pageMask) * words;
+		long bits = data[offset + word] & (-1L << from);
+		while(true) {
+			if(bits != 0)
+				return (word << 6) + Long.numberOfTrailingZeros(bits);
+			if(++word == words)
+				return -1;
+			bits = data[offset + word];
+		}
+	}
+
+	/**
+	 * @param row the row, e.g. an entity id
+	 * @param mask bits as returned by BitSet.toLongArray()
+	 * @return true if all bits of the mask are set in the row
+	 */
+	public boolean containsAll(int row, long[] mask) {
+		long[] data = page(row);
+		int offset = (row & pageMask) * words;
+		for (int i = 0; i < mask.length; i++) {
+			long bits = data != null && i < words ? data[offset + i] : 0;
+			if((bits & mask[i]) != mask[i])
+				return false;
+		}
+		return true;
+	}
+
+	/**
+	 * @param row the row, e.g. an entity id
+	 * @param word index of the word, bit / 64
+	 * @return the bits of the word, 0 beyond the row width
+	 */
+	public long getWord(int row, int word) {
+		long[] data = page(row);
+		if(data == null || word >= words)
+			return 0;
+
+		return data[(row & pageMask) * words + word];
+	}
+
+	/**
+	 * @param row the row, e.g. an entity id
+	 * @param mask bits as returned by BitSet.toLongArray()
+	 * @return true if any bit of the mask is set in the row
+	 */
+	public boolean intersects(int row, long[] mask) {
+		long[] data = page(row);
+		if(data == null)
+			return false;
+
+		int offset = (row & pageMask) * words;
+		for (int i = 0, s = Math.min(mask.length, words); s > i; i++) {
+			if((data[offset + i] & mask[i]) != 0)
+				return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Copies a row into a BitSet, for callers that need one.
+	 *
+	 * @param row the row, e.g. an entity id
+	 * @param fill the set to copy into, cleared first
+	 * @return the fill set
+	 */
+	public BitSet getRow(int row, BitSet fill) {
+		fill.clear();
+		for (int i = nextSetBit(row, 0); i >= 0; i = nextSetBit(row, i+1)) {
+			fill.set(i);
+		}
+		return fill;
+	}
+
+	/**
+	 * Compares a row with a BitSet without copying it.
+	 *
+	 * @param row the row, e.g. an entity id
+	 * @param bits the set to compare with
+	 * @return true if the row holds exactly the bits of the set
+	 */
+	public boolean rowEquals(int row, BitSet bits) {
+		int i = nextSetBit(row, 0);
+		int j = bits.nextSetBit(0);
+		while(i == j && i >= 0) {
+			i = nextSetBit(row, i+1);
+			j = bits.nextSetBit(j+1);
+		}
+		return i == j;
+	}
+
+	/**
+	 * @return longs each row takes.
+	 */
+	public int getWordsPerRow() {
+		return words;
+	}
+
+	/**
+	 * @return number of rows per page.
+	 */
+	public int getPageSize() {
+		return 1 << pageShift;
+	}
+
+	/**
+	 * @return number of pages allocated.
+	 */
+	public int getPageCount() {
+		return pageCount;
+	}
+
+	/**
+	 * @return number of rows the allocated pages can hold.
+	 */
+	public int getCapacity() {
+		return pageCount << pageShift;
+	}
+
+	/**
+	 * @return estimated bytes retained by the page directory and pages.
+	 */
+	public long estimateBytes() {
+		return MemoryLayout.referenceArraySize(pages.length)
+				+ pageCount * MemoryLayout.arraySize(words << pageShift, 8);
+	}
+
+	/**
+	 * Releases pages where no row has a bit set and shrinks the page directory
+	 * to the last page in use. Walks every allocated page, so call it only when
+	 * the table is known to have emptied out, not every frame.
+	 */
+	public void trim() {
+		int lastPage = -1;
+		for (int page = 0; page < pages.length; page++) {
+			long[] data = pages[page];
+			if(data == null)
+				continue;
+
+			if(isEmpty(data)) {
+				pages[page] = null;
+				pageCount--;
+			} else {
+				lastPage = page;
+			}
+		}
+
+		if(lastPage + 1 < pages.length) {
+			long[][] trimmed = new long[lastPage + 1][];
+			System.arraycopy(pages, 0, trimmed, 0, trimmed.length);
+			pages = trimmed;
+		}
+	}
+
+	private static boolean isEmpty(long[] data) {
+		for (int i = 0; i < data.length; i++) {
+			if(data[i] != 0)
+				return false;
+		}
+		return true;
+	}
+
+	private long[] page(int row) {
+		int page = row >>> pageShift;
+		return page < pages.length ? pages[page] : null;
+	}
+
+	private void widen(int minWords) {
+		int wider = Math.max(words * 2, minWords);
+		for (int page = 0; page < pages.length; page++) {
+			long[] data = pages[page];
+			if(data == null)
+				continue;
+
+			long[] widened = new long[wider << pageShift];
+			for (int row = 0, rows = 1 << pageShift; rows > row; row++) {
+				System.arraycopy(data, row * words, widened, row * wider, words);
+			}
+			pages[page] = widened;
+		}
+		words = wider;
+	}
+}
@@ -0,0 +1,131 @@
+package com.artemis.utils;
+
+/**
+ * Fixed size log-linear histogram of non-negative long values, e.g. durations in
+ * nanoseconds. Each power of two is split into 32 buckets, so any recorded value
+ * is reported within about 3% of its real value.
+ *
+ * Recording never allocates, which makes it safe to use inside the game loop.
+ */
+public class Histogram {
+	private static final int SUB_BUCKET_BITS = 5;
+	private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+	private final long[] counts;
+	private long count;
+	private long total;
+	private long min;
+	private long max;
+
+	public Histogram() {
+		counts = new long[64 << SUB_BUCKET_BITS];
+		reset();
+	}
+
+	/**
+	 * Adds a value to the histogram, negative values are recorded as zero.
+	 *
+	 * @param value the value to record
+	 */
+	public void record(long value) {
+		if(value < 0)
+			value = 0;
+
+		counts[indexFor(value)]++;
+		count++;
+		total += value;
+		min = Math.min(min, value);
+		max = Math.max(max, value);
+	}
+
+	/**
+	 * Forget all recorded values.
+	 */
+	public void reset() {
+		for (int i = 0; i < counts.length; i++) {
+			counts[i] = 0;
+		}
+		count = 0;
+		total = 0;
+		min = Long.MAX_VALUE;
+		max = 0;
+	}
+
+	/**
+	 * @return how many values have been recorded.
+	 */
+	public long getCount() {
+		return count;
+	}
+
+	/**
+	 * @return sum of all recorded values.
+	 */
+	public long getTotal() {
+		return total;
+	}
+
+	/**
+	 * @return smallest recorded value, zero if nothing was recorded.
+	 */
+	public long getMin() {
+		return count == 0 ? 0 : min;
+	}
+
+	/**
+	 * @return largest recorded value, zero if nothing was recorded.
+	 */
+	public long getMax() {
+		return max;
+	}
+
+	/**
+	 * @return mean of all recorded values, zero if nothing was recorded.
+	 */
+	public double getMean() {
+		return count == 0 ? 0 : (double) total / count;
+	}
+
+	/**
+	 * Returns the value below which the given fraction of the recorded values fall.
+	 *
+	 * @param fraction between 0 and 1, e.g. 0.99 for the 99th percentile.
+	 * @return the value at the percentile, zero if nothing was recorded.
+	 */
+	public long getPercentile(double fraction) {
+		if(count == 0)
+			return 0;
+
+		long rank = Math.max((long) Math.ceil(fraction * count), 1);
+		long seen = 0;
+		for (int i = 0; i < counts.length; i++) {
+			seen += counts[i];
+			if(seen >= rank)
+				return Math.max(Math.min(highestValueFor(i), max), getMin());
+		}
+		return max;
+	}
+
+	@Override
+	public String toString() {
+		return "Histogram[count=" + count + ", mean=" + (long) getMean() + ", p50=" + getPercentile(0.5)
+			+ ", p99=" + getPercentile(0.99) + ", max=" + max + "]";
+	}
+
+	private static int indexFor(long value) {
+		if(value < SUB_BUCKETS)
+			return (int) value;
+
+		int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+		return ((shift + 1) << SUB_BUCKET_BITS) + (int) ((value >>> shift) & (SUB_BUCKETS - 1));
+	}
+
+	private static long highestValueFor(int index) {
+		if(index < SUB_BUCKETS)
+			return index;
+
+		int shift = (index >>> SUB_BUCKET_BITS) - 1;
+		long lowest = (long) (SUB_BUCKETS + (index & (SUB_BUCKETS - 1))) << shift;
+		return lowest + ((1L << shift) - 1);
+	}
+}
@@ -1,5 +1,9 @@
 package com.artemis.utils;
 
+import java.util.Spliterator;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
 public interface ImmutableBag<E> extends Iterable<E> {
 
 	E get(int index);
@@ -10,4 +14,27 @@ public interface ImmutableBag<E> extends Iterable<E> {
 	
 	boolean contains(E e);
 
+	/**
+	 * Splits by index range, reporting exact sizes. The bag must not be
+	 * modified while the spliterator is in use.
+	 */
+	@Override
+	default Spliterator<E> spliterator() {
+		return new BagSpliterator<>(this, 0);
+	}
+
+	/**
+	 * @return a sequential stream over the elements, see spliterator().
+	 */
+	default Stream<E> stream() {
+		return StreamSupport.stream(spliterator(), false);
+	}
+
+	/**
+	 * @return a parallel stream over the elements, see spliterator().
+	 */
+	default Stream<E> parallelStream() {
+		return StreamSupport.stream(spliterator(), true);
+	}
+
 }
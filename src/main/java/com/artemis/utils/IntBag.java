@@ -0,0 +1,192 @@
+package com.artemis.utils;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * A Bag of primitive ints, for ids and indices that would otherwise be boxed.
+ *
+ * Unlike Bag it does not check for duplicates when adding, so adding is O(1).
+ * Iterate it by index, or walk getData() up to size():
+ * <pre>
+ * for (int i = 0, s = ids.size(); s > i; i++) {
+ *     int id = ids.get(i);
+ *     ...
+ * }
+ * </pre>
+ */
+public class IntBag {
+	private int[] data;
+	private int size = 0;
+
+	/**
+	 * Constructs an empty IntBag with an initial capacity of 64.
+	 */
+	public IntBag() {
+		this(64);
+	}
+
+	/**
+	 * Constructs an empty IntBag with the specified initial capacity.
+	 * 
+	 * @param capacity the initial capacity of IntBag
+	 */
+	public IntBag(int capacity) {
+		data = new int[capacity];
+	}
+
+	/**
+	 * Removes the value at the specified position, by overwriting it with the
+	 * last value.
+	 * 
+	 * @param index the index of the value to be removed
+	 * @return the value that was removed
+	 */
+	public int remove(int index) {
+		if(index >= size)
+			throw new ArrayIndexOutOfBoundsException(index);
+
+		int value = data[index];
+		data[index] = data[--size];
+		return value;
+	}
+
+	/**
+	 * Remove and return the last value in the bag.
+	 * 
+	 * @return the last value in the bag.
+	 * @throws NoSuchElementException if the bag is empty.
+	 */
+	public int removeLast() {
+		if(size == 0)
+			throw new NoSuchElementException("removeLast on empty bag");
+
+		return data[--size];
+	}
+
+	/**
+	 * Check if the bag contains this value. This is a linear scan.
+	 */
+	public boolean contains(int value) {
+		for (int i = 0; i < size; i++) {
+			if(data[i] == value)
+				return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Returns the value at the specified position.
+	 * 
+	 * @param index index of the value to return
+	 * @return the value at the specified position
+	 */
+	public int get(int index) {
+		if(index >= size)
+			throw new ArrayIndexOutOfBoundsException(index);
+
+		return data[index];
+	}
+
+	/**
+	 * Returns the number of values in this bag.
+	 * 
+	 * @return the number of values in this bag
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Returns the number of values the bag can hold without growing.
+	 * 
+	 * @return the number of values the bag can hold without growing.
+	 */
+	public int getCapacity() {
+		return data.length;
+	}
+
+	/**
+	 * Returns true if this bag contains no values.
+	 * 
+	 * @return true if this bag contains no values
+	 */
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Adds the value to the end of this bag, growing it if needed.
+	 * 
+	 * @param value value to be added
+	 */
+	public void add(int value) {
+		if(size == data.length)
+			grow((data.length * 3) / 2 + 1);
+
+		data[size++] = value;
+	}
+
+	/**
+	 * Set the value at specified index, growing the bag if needed. Positions
+	 * between the old size and the index read as 0.
+	 * 
+	 * @param index position of the value
+	 * @param value the value
+	 */
+	public void set(int index, int value) {
+		if(index >= data.length)
+			grow(Math.max((data.length * 3) / 2 + 1, index + 1));
+
+		size = Math.max(index + 1, size);
+		data[index] = value;
+	}
+
+	private void grow(int newCapacity) {
+		data = Arrays.copyOf(data, newCapacity);
+	}
+
+	/**
+	 * Make room for at least the index without further growing.
+	 */
+	public void ensureCapacity(int index) {
+		if(index >= data.length)
+			grow(index + 1);
+	}
+
+	/**
+	 * Shrinks the capacity to the current size.
+	 */
+	public void trim() {
+		if(data.length > size)
+			grow(size);
+	}
+
+	/**
+	 * Removes all values from this bag, keeping the capacity.
+	 */
+	public void clear() {
+		size = 0;
+	}
+
+	/**
+	 * The backing array, only the first size() values are in use. The array is
+	 * replaced when the bag grows, so do not hold on to it across adds.
+	 * 
+	 * @return the backing array.
+	 */
+	public int[] getData() {
+		return data;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder("[");
+		for (int i = 0; i < size; i++) {
+			if(i > 0)
+				sb.append(", ");
+			sb.append(data[i]);
+		}
+		return sb.append(']').toString();
+	}
+}
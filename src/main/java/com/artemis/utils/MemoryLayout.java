@@ -0,0 +1,98 @@
+package com.artemis.utils;
+
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Estimates the heap footprint of objects and arrays from the object layout of
+ * the running JVM: reference size, object header size and 8 byte alignment.
+ *
+ * The estimates ignore field packing and padding done by the JVM, so they may be
+ * off by a few bytes per object, but they are cheap and need no agent.
+ */
+public final class MemoryLayout {
+	private static final int REFERENCE_SIZE;
+	private static final int OBJECT_HEADER_SIZE;
+	private static final int ARRAY_HEADER_SIZE;
+
+	private static final Map<Class<?>, Long> shallowSizes = new HashMap<>();
+
+	static {
+		boolean compressedOops = true;
+		try {
+			com.sun.management.HotSpotDiagnosticMXBean hotspot =
+					ManagementFactory.getPlatformMXBean(com.sun.management.HotSpotDiagnosticMXBean.class);
+			compressedOops = Boolean.parseBoolean(hotspot.getVMOption("UseCompressedOops").getValue());
+		} catch (Exception | LinkageError e) {
+			// not a HotSpot JVM, assume the common 64 bit layout
+		}
+		REFERENCE_SIZE = compressedOops ? 4 : 8;
+		OBJECT_HEADER_SIZE = 12;
+		ARRAY_HEADER_SIZE = 16;
+	}
+
+	private MemoryLayout() {}
+
+	/**
+	 * @return size of an object reference in bytes.
+	 */
+	public static int referenceSize() {
+		return REFERENCE_SIZE;
+	}
+
+	/**
+	 * @param length number of elements.
+	 * @param elementSize size of each element in bytes.
+	 * @return bytes used by an array.
+	 */
+	public static long arraySize(int length, int elementSize) {
+		return align(ARRAY_HEADER_SIZE + (long) length * elementSize);
+	}
+
+	/**
+	 * @param length number of elements.
+	 * @return bytes used by an array of references, not counting the referenced objects.
+	 */
+	public static long referenceArraySize(int length) {
+		return arraySize(length, REFERENCE_SIZE);
+	}
+
+	/**
+	 * @param type class of the object.
+	 * @return bytes used by an instance of the class, not counting referenced objects.
+	 */
+	public static synchronized long shallowSize(Class<?> type) {
+		Long size = shallowSizes.get(type);
+		if(size == null) {
+			long fields = 0;
+			for (Class<?> c = type; c != null; c = c.getSuperclass()) {
+				for (Field field : c.getDeclaredFields()) {
+					if(!Modifier.isStatic(field.getModifiers()))
+						fields += fieldSize(field.getType());
+				}
+			}
+			size = align(OBJECT_HEADER_SIZE + fields);
+			shallowSizes.put(type, size);
+		}
+		return size;
+	}
+
+	private static int fieldSize(Class<?> type) {
+		if(type == long.class || type == double.class)
+			return 8;
+		if(type == int.class || type == float.class)
+			return 4;
+		if(type == short.class || type == char.class)
+			return 2;
+		if(type == byte.class || type == boolean.class)
+			return 1;
+		return REFERENCE_SIZE;
+	}
+
+	private static long align(long size) {
+		return (size + 7) & ~7L;
+	}
+}
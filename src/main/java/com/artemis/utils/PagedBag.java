@@ -0,0 +1,210 @@
+package com.artemis.utils;
+
+/**
+ * An index addressed bag that stores its elements in fixed-size pages, for
+ * storage indexed by entity id.
+ *
+ * Pages are allocated the first time an index in them is set and are never
+ * copied or moved afterwards. Growing only copies the page directory, one
+ * reference per page, so a bag covering millions of ids never needs one huge
+ * array and never copies its elements. Indices in pages that were never set
+ * read as null, so get() needs no bounds check by the caller.
+ *
+ * Like the rest of the world it is meant to be written by one thread. The page
+ * directory is published safely though, and pages never move, so a reader on
+ * another thread always sees a consistent, if possibly stale, element.
+ */
+public class PagedBag<E> {
+	private final int pageShift;
+	private final int pageMask;
+
+	private volatile Object[][] pages;
+	private int pageCount;
+	private int size;
+
+	/**
+	 * Constructs an empty bag with pages of 1024 elements.
+	 */
+	public PagedBag() {
+		this(10);
+	}
+
+	/**
+	 * Constructs an empty bag with pages of 2^pageShift elements.
+	 *
+	 * @param pageShift log2 of the page size, between 0 and 30
+	 */
+	public PagedBag(int pageShift) {
+		if(pageShift < 0 || pageShift > 30)
+			throw new IllegalArgumentException("pageShift must be between 0 and 30: " + pageShift);
+
+		this.pageShift = pageShift;
+		pageMask = (1 << pageShift) - 1;
+		pages = new Object[8][];
+	}
+
+	/**
+	 * Returns the element at the specified index.
+	 *
+	 * @param index index of the element to return
+	 * @return the element, null if no element was set at the index
+	 */
+	@SuppressWarnings("unchecked")
+	public E get(int index) {
+		Object[][] pages = this.pages;
+		int page = index >>> pageShift;
+		if(page >= pages.length || pages[page] == null)
+			return null;
+
+		return (E) pages[page][index & pageMask];
+	}
+
+	/**
+	 * Set element at specified index, allocating its page if needed.
+	 *
+	 * @param index position of element
+	 * @param e the element
+	 */
+	public void set(int index, E e) {
+		int page = index >>> pageShift;
+		Object[][] pages = this.pages;
+		if(page >= pages.length) {
+			if(e == null)
+				return;
+
+			Object[][] grown = new Object[Math.max(pages.length * 2, page + 1)][];
+			System.arraycopy(pages, 0, grown, 0, pages.length);
+			this.pages = pages = grown;
+		}
+
+		Object[] data = pages[page];
+		if(data == null) {
+			if(e == null)
+				return;
+
+			data = new Object[1 << pageShift];
+			pages[page] = data;
+			pageCount++;
+		}
+
+		data[index & pageMask] = e;
+		size = Math.max(index + 1, size);
+	}
+
+	/**
+	 * Returns one past the highest index an element has been set at.
+	 *
+	 * @return the number of indices in use, including unset ones below the highest.
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Returns true if no element has ever been set.
+	 *
+	 * @return true if this bag is empty
+	 */
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Returns the number of elements the allocated pages can hold.
+	 *
+	 * @return elements the bag can hold without allocating pages.
+	 */
+	public int getCapacity() {
+		return pageCount << pageShift;
+	}
+
+	/**
+	 * @return number of elements per page.
+	 */
+	public int getPageSize() {
+		return 1 << pageShift;
+	}
+
+	/**
+	 * @return number of pages allocated.
+	 */
+	public int getPageCount() {
+		return pageCount;
+	}
+
+	/**
+	 * @return length of the page directory.
+	 */
+	public int getPageDirectoryLength() {
+		return pages.length;
+	}
+
+	/**
+	 * Checks if an element could be stored at this index without allocating.
+	 */
+	public boolean isIndexWithinBounds(int index) {
+		Object[][] pages = this.pages;
+		int page = index >>> pageShift;
+		return page < pages.length && pages[page] != null;
+	}
+
+	/**
+	 * Releases pages that hold no elements and shrinks the page directory to
+	 * the last page in use. Walks every allocated page, so call it only when
+	 * the storage is known to have emptied out, not every frame.
+	 */
+	public void trim() {
+		Object[][] pages = this.pages;
+		int lastPage = -1;
+		for (int page = 0; page < pages.length; page++) {
+			Object[] data = pages[page];
+			if(data == null)
+				continue;
+
+			if(isEmpty(data)) {
+				pages[page] = null;
+				pageCount--;
+			} else {
+				lastPage = page;
+			}
+		}
+
+		if(lastPage + 1 < pages.length) {
+			Object[][] trimmed = new Object[lastPage + 1][];
+			System.arraycopy(pages, 0, trimmed, 0, trimmed.length);
+			this.pages = trimmed;
+		}
+
+		size = 0;
+		if(lastPage >= 0) {
+			Object[] data = pages[lastPage];
+			int index = data.length - 1;
+			while(data[index] == null)
+				index--;
+			size = (lastPage << pageShift) + index + 1;
+		}
+	}
+
+	private static boolean isEmpty(Object[] data) {
+		for (int i = 0; i < data.length; i++) {
+			if(data[i] != null)
+				return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Removes all elements. Allocated pages are kept and cleared.
+	 */
+	public void clear() {
+		Object[][] pages = this.pages;
+		for (Object[] data : pages) {
+			if(data != null) {
+				for (int i = 0; i < data.length; i++) {
+					data[i] = null;
+				}
+			}
+		}
+		size = 0;
+	}
+}
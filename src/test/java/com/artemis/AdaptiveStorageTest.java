@@ -0,0 +1,92 @@
+package com.artemis;
+
+import com.artemis.component.ComponentX;
+import com.artemis.component.ComponentY;
+import com.artemis.utils.Bag;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class AdaptiveStorageTest {
+
+    @Test
+    public void testSwitchesWithOccupancy() {
+        AdaptiveStorage storage = new AdaptiveStorage();
+        ComponentX[] components = new ComponentX[4096];
+        for (int i = 0; i < 1024; i++) {
+            components[i * 4] = new ComponentX();
+            storage.set(i * 4, components[i * 4]);
+        }
+        assertTrue(storage.isDense());
+        assertEquals(1, storage.getSwitchCount());
+        assertEquals(1024, storage.size());
+
+        for (int i = 0; i < 1024; i++) {
+            if (i % 32 != 0)
+                storage.set(i * 4, null);
+        }
+        assertFalse(storage.isDense());
+        assertEquals(2, storage.getSwitchCount());
+        assertEquals(32, storage.size());
+        for (int i = 0; i < 1024; i++) {
+            if (i % 32 == 0)
+                assertSame(components[i * 4], storage.get(i * 4));
+            else
+                assertNull(storage.get(i * 4));
+        }
+    }
+
+    @Test
+    public void testStaysSparseForSpreadIds() {
+        AdaptiveStorage storage = new AdaptiveStorage();
+        for (int i = 0; i < 5000; i++) {
+            storage.set(i * 100, new ComponentX());
+        }
+        assertFalse(storage.isDense());
+        assertEquals(0, storage.getSwitchCount());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testThresholdsMustLeaveAGap() {
+        new AdaptiveStorage(0.25, 0.25);
+    }
+
+    @Test
+    public void testChosenPerType() {
+        World world = new World();
+        world.setComponentStorage(ComponentX.class, new AdaptiveStorage());
+        world.setComponentStorage(ComponentY.class, new SparseSetStorage());
+        world.initialize();
+        ComponentMapper<ComponentX> xm = world.getMapper(ComponentX.class);
+        ComponentMapper<ComponentY> ym = world.getMapper(ComponentY.class);
+
+        Entity e = world.createEntity();
+        ComponentX x = new ComponentX();
+        e.addComponent(x);
+        e.addToWorld();
+        world.process();
+        assertSame(x, xm.get(e));
+        assertFalse(ym.has(e));
+
+        e.addComponent(new ComponentY());
+        assertTrue(ym.has(e));
+        assertEquals(2, e.getComponents(new Bag<Component>()).size());
+
+        e.deleteFromWorld();
+        world.process();
+        assertNull(xm.get(e));
+        assertNull(ym.get(e));
+        assertEquals(0, world.getMemoryReport().getComponents().get(ComponentType.getTypeFor(ComponentY.class)).getLive());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testMustBeChosenBeforeUse() {
+        World world = new World();
+        world.getMapper(ComponentX.class);
+        world.setComponentStorage(ComponentX.class, new SparseSetStorage());
+    }
+}
@@ -0,0 +1,210 @@
+package com.artemis;
+
+import com.artemis.component.ComponentX;
+import com.artemis.component.ComponentY;
+import com.artemis.utils.Bag;
+import com.artemis.utils.ImmutableBag;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class ArchetypeStorageTest {
+    private World world;
+    private ArchetypeStorage storage;
+    private ComponentMapper<ComponentX> xm;
+
+    @Before
+    public void setup() {
+        world = new World();
+        world.setArchetypeStorage(4);
+        world.initialize();
+        storage = world.getComponentManager().getArchetypeStorage();
+        xm = world.getMapper(ComponentX.class);
+    }
+
+    @Test
+    public void componentsMoveWithTheirEntity() {
+        Entity e = world.createEntity();
+        ComponentX x = new ComponentX();
+        ComponentY y = new ComponentY();
+        e.addComponent(x);
+        Archetype onlyX = storage.getChunk(e).getArchetype();
+        assertTrue(onlyX.hasComponentType(ComponentType.getTypeFor(ComponentX.class)));
+        assertFalse(onlyX.isActive());
+
+        e.addComponent(y);
+        Chunk chunk = storage.getChunk(e);
+        assertSame(x, chunk.getColumn(ComponentX.class)[0]);
+        assertSame(y, chunk.getColumn(ComponentY.class)[0]);
+        assertSame(e, chunk.getEntity(0));
+        assertEquals(0, onlyX.size());
+
+        e.removeComponent(ComponentX.class);
+        assertNull(xm.get(e));
+        assertSame(y, e.getComponent(ComponentY.class));
+        assertEquals(1, e.getComponents(new Bag<Component>()).size());
+
+        e.removeComponent(ComponentY.class);
+        assertNull(storage.getChunk(e));
+    }
+
+    @Test
+    public void removingFillsTheHoleWithTheLastEntity() {
+        List<Entity> entities = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            Entity e = world.createEntity();
+            ComponentX x = new ComponentX();
+            x.text = "e" + i;
+            e.addComponent(x);
+            e.addToWorld();
+            entities.add(e);
+        }
+        world.process();
+
+        Archetype archetype = storage.getChunk(entities.get(0)).getArchetype();
+        assertTrue(archetype.isActive());
+        assertEquals(10, archetype.size());
+        assertEquals(3, archetype.getChunks().size());
+
+        entities.get(1).deleteFromWorld();
+        entities.get(5).deleteFromWorld();
+        entities.get(9).deleteFromWorld();
+        world.process();
+
+        assertEquals(7, archetype.size());
+        assertEquals(2, archetype.getChunks().size());
+        assertEquals(4, archetype.getChunks().get(0).size());
+        assertEquals(3, archetype.getChunks().get(1).size());
+        for (int i : new int[] {0, 2, 3, 4, 6, 7, 8}) {
+            Entity e = entities.get(i);
+            assertEquals("e" + i, xm.get(e).text);
+            Chunk chunk = storage.getChunk(e);
+            boolean found = false;
+            for (int row = 0; row < chunk.size(); row++) {
+                if (chunk.getEntity(row) == e) {
+                    assertSame(xm.get(e), chunk.getColumn(ComponentX.class)[row]);
+                    found = true;
+                }
+            }
+            assertTrue(found);
+        }
+    }
+
+    @Test
+    public void disabledEntitiesMoveToTheInactiveArchetype() {
+        Entity e = world.createEntity();
+        e.addComponent(new ComponentX());
+        e.addToWorld();
+        world.process();
+        assertTrue(storage.getChunk(e).getArchetype().isActive());
+
+        e.disable();
+        world.process();
+        assertFalse(storage.getChunk(e).getArchetype().isActive());
+        assertNotNull(xm.get(e));
+
+        e.enable();
+        world.process();
+        assertTrue(storage.getChunk(e).getArchetype().isActive());
+
+        e.deleteFromWorld();
+        world.process();
+        assertNull(storage.getChunk(e));
+    }
+
+    @Test
+    public void entitiesKeepTheirStateWithoutComponents() {
+        Entity enabled = world.createEntity();
+        enabled.addComponent(new ComponentX());
+        enabled.addToWorld();
+        Entity disabled = world.createEntity();
+        disabled.addComponent(new ComponentX());
+        disabled.addToWorld();
+        world.process();
+        disabled.disable();
+        world.process();
+
+        enabled.removeComponent(ComponentX.class);
+        disabled.removeComponent(ComponentX.class);
+        assertNull(storage.getChunk(enabled));
+        assertNull(storage.getChunk(disabled));
+
+        enabled.addComponent(new ComponentX());
+        disabled.addComponent(new ComponentX());
+        assertTrue(storage.getChunk(enabled).getArchetype().isActive());
+        assertFalse(storage.getChunk(disabled).getArchetype().isActive());
+    }
+
+    @Test
+    public void pooledComponentsAreFreed() {
+        Entity e = world.createEntity();
+        PooledX x = e.createComponent(PooledX.class);
+        e.addToWorld();
+        world.process();
+
+        e.deleteFromWorld();
+        world.process();
+        assertEquals(1, world.getComponentManager().getPool(PooledX.class).getFreeCount());
+        assertSame(x, world.createEntity().createComponent(PooledX.class));
+    }
+
+    @Test
+    public void packedComponentsHaveNoColumn() {
+        PackedComponentMapper<PackedComponentTest.Position> pm = world.getPackedMapper(PackedComponentTest.Position.class);
+        Entity e = world.createEntity();
+        e.addComponent(new ComponentX());
+        pm.create(e).x(3);
+
+        Chunk chunk = storage.getChunk(e);
+        assertTrue(chunk.getArchetype().hasComponentType(ComponentType.getTypeFor(PackedComponentTest.Position.class)));
+        assertNull(chunk.getColumn(PackedComponentTest.Position.class));
+        assertEquals(3, pm.get(e).x(), 0);
+        assertNotNull(xm.get(e));
+    }
+
+    @Test
+    public void compactDropsEmptyChunks() {
+        List<Entity> entities = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            entities.add(world.createEntity().addComponent(new ComponentX()));
+        }
+        ImmutableBag<Archetype> archetypes = world.getArchetypes();
+        assertEquals(2, archetypes.size());
+
+        for (Entity e : entities) {
+            e.deleteFromWorld();
+        }
+        world.process();
+        world.compactStorage();
+        for (int i = 0; i < archetypes.size(); i++) {
+            assertEquals(0, archetypes.get(i).getChunks().size());
+        }
+        assertTrue(world.getMemoryReport().getArchetypes().containsKey(archetypes.get(0)));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void mustBeSetBeforeMappersExist() {
+        World world = new World();
+        world.getMapper(ComponentX.class);
+        world.setArchetypeStorage(16);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void archetypesNeedArchetypeStorage() {
+        new World().getArchetypes();
+    }
+
+    public static class PooledX extends PooledComponent {
+        @Override
+        protected void reset() {}
+    }
+}
@@ -0,0 +1,86 @@
+package com.artemis;
+
+import com.artemis.utils.BitTable;
+import org.junit.Test;
+
+import java.util.BitSet;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class AspectMatcherTest {
+
+    @Test
+    public void testMatchesLikeBitSets() {
+        Random random = new Random(11);
+        for (int types : new int[] {8, 64, 200}) {
+            BitTable table = new BitTable();
+            BitSet[] rows = new BitSet[256];
+            for (int id = 0; id < rows.length; id++) {
+                rows[id] = randomBits(random, types, 0.5);
+                for (int i = rows[id].nextSetBit(0); i >= 0; i = rows[id].nextSetBit(i + 1)) {
+                    table.set(id, i);
+                }
+            }
+
+            for (int n = 0; n < 200; n++) {
+                BitSet all = randomBits(random, types, 0.03);
+                BitSet exclusion = randomBits(random, types, 0.02);
+                BitSet one = random.nextInt(3) == 0 ? randomBits(random, types, 0.03) : new BitSet();
+                Aspect aspect = aspectFor(all, exclusion, one);
+                AspectMatcher matcher = AspectMatcher.compile(all, exclusion, one);
+                for (int id = 0; id < rows.length + 2; id++) {
+                    BitSet row = id < rows.length ? rows[id] : new BitSet();
+                    assertEquals(aspect.isInterested(row), matcher.matches(table, id));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testMatchesNothing() {
+        assertTrue(AspectMatcher.compile(new BitSet(), new BitSet(), new BitSet()).matchesNothing());
+        assertTrue(AspectMatcher.compile(new BitSet(), bits(3), new BitSet()).matchesNothing());
+        assertFalse(AspectMatcher.compile(new BitSet(), new BitSet(), bits(3)).matchesNothing());
+        assertFalse(AspectMatcher.compile(bits(100), new BitSet(), new BitSet()).matchesNothing());
+    }
+
+    @Test
+    public void testWideExclusion() {
+        BitTable table = new BitTable();
+        table.set(0, 1);
+        table.set(1, 1);
+        table.set(1, 130);
+
+        AspectMatcher matcher = AspectMatcher.compile(bits(1), bits(130), new BitSet());
+        assertTrue(matcher.matches(table, 0));
+        assertFalse(matcher.matches(table, 1));
+    }
+
+    private static Aspect aspectFor(BitSet all, BitSet exclusion, BitSet one) {
+        Aspect aspect = Aspect.getEmpty();
+        aspect.getAllSet().or(all);
+        aspect.getExclusionSet().or(exclusion);
+        aspect.getOneSet().or(one);
+        return aspect;
+    }
+
+    private static BitSet randomBits(Random random, int types, double chance) {
+        BitSet bits = new BitSet();
+        for (int i = 0; i < types; i++) {
+            if (random.nextDouble() < chance)
+                bits.set(i);
+        }
+        return bits;
+    }
+
+    private static BitSet bits(int... indices) {
+        BitSet bits = new BitSet();
+        for (int i : indices) {
+            bits.set(i);
+        }
+        return bits;
+    }
+}
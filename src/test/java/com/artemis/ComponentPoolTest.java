@@ -0,0 +1,137 @@
+package com.artemis;
+
+import com.artemis.component.ComponentX;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class ComponentPoolTest {
+
+    public static class Bullet extends PooledComponent {
+        float x, y;
+        int resets;
+
+        @Override
+        protected void reset() {
+            x = 0;
+            y = 0;
+            resets++;
+        }
+    }
+
+    @Test
+    public void deletedComponentsAreRecycled() {
+        World world = new World();
+        world.initialize();
+        ComponentPool<Bullet> pool = world.getComponentManager().getPool(Bullet.class);
+
+        Entity e = world.createEntity();
+        Bullet bullet = e.createComponent(Bullet.class);
+        bullet.x = 5;
+        e.addToWorld();
+        world.process();
+        assertEquals(0, pool.getHits());
+        assertEquals(1, pool.getMisses());
+
+        e.deleteFromWorld();
+        world.process();
+        assertEquals(1, pool.getFreeCount());
+        assertEquals(1, bullet.resets);
+        assertEquals(0, bullet.x, 0);
+
+        Entity next = world.createEntity();
+        assertSame(bullet, next.createComponent(Bullet.class));
+        assertSame(bullet, next.getComponent(Bullet.class));
+        assertEquals(1, pool.getHits());
+        assertEquals(0.5, pool.getHitRate(), 0);
+        assertEquals(0, pool.getFreeCount());
+    }
+
+    @Test
+    public void removedAndReplacedComponentsAreRecycled() {
+        World world = new World();
+        world.initialize();
+        ComponentPool<Bullet> pool = world.getComponentManager().getPool(Bullet.class);
+
+        Entity e = world.createEntity();
+        Bullet first = e.createComponent(Bullet.class);
+        Bullet second = e.createComponent(Bullet.class);
+        assertNotSame(first, second);
+        assertEquals(1, pool.getFreeCount());
+        assertSame(second, e.getComponent(Bullet.class));
+
+        // adding the same instance again does not free it
+        e.addComponent(second);
+        assertEquals(1, pool.getFreeCount());
+
+        e.removeComponent(Bullet.class);
+        e.removeComponent(Bullet.class);
+        assertEquals(2, pool.getFreeCount());
+        assertEquals(2, pool.getFreed());
+    }
+
+    @Test
+    public void doubleFreeIsIgnored() {
+        World world = new World();
+        ComponentPool<Bullet> pool = world.getComponentManager().getPool(Bullet.class);
+        Bullet bullet = pool.obtain();
+        pool.free(bullet);
+        pool.free(bullet);
+        assertEquals(1, pool.getFreeCount());
+        assertSame(bullet, pool.obtain());
+        assertEquals(0, pool.getFreeCount());
+    }
+
+    @Test
+    public void maxFreeAndCompaction() {
+        World world = new World();
+        world.initialize();
+        ComponentPool<Bullet> pool = world.getComponentManager().getPool(Bullet.class);
+        pool.setMaxFree(10);
+
+        for (int i = 0; i < 100; i++) {
+            world.createEntity().createComponent(Bullet.class).x = i;
+        }
+        for (int i = 0; i < 100; i++) {
+            pool.free(new Bullet());
+        }
+        assertEquals(10, pool.getFreeCount());
+        assertEquals(90, pool.getDropped());
+
+        world.compactStorage();
+        assertEquals(0, pool.getFreeCount());
+        assertTrue(world.getComponentManager().getPools().contains(pool));
+    }
+
+    public static class TracerBullet extends Bullet {
+    }
+
+    @Test
+    public void subclassesAreNotPooledUnderTheirBaseType() {
+        World world = new World();
+        world.initialize();
+        ComponentPool<Bullet> pool = world.getComponentManager().getPool(Bullet.class);
+
+        Entity e = world.createEntity();
+        e.addComponent(new TracerBullet(), ComponentType.getTypeFor(Bullet.class));
+        e.addToWorld();
+        world.process();
+        e.removeComponent(Bullet.class);
+
+        assertEquals(0, pool.getFreeCount());
+        assertEquals(1, world.getComponentManager().getPools().size());
+        assertSame(pool, world.getComponentManager().getPools().get(0));
+    }
+
+    @Test
+    public void plainComponentsAreCreated() {
+        World world = new World();
+        Entity e = world.createEntity();
+        ComponentX x = e.createComponent(ComponentX.class);
+        assertSame(x, e.getComponent(ComponentX.class));
+        assertTrue(world.getComponentManager().getPools().isEmpty());
+    }
+}
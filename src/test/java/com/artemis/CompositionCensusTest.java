@@ -0,0 +1,121 @@
+package com.artemis;
+
+import com.artemis.component.ComponentX;
+import com.artemis.component.ComponentY;
+import com.artemis.systems.EntityProcessingSystem;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class CompositionCensusTest {
+
+    static class XSystem extends EntityProcessingSystem {
+        @SuppressWarnings("unchecked")
+        XSystem() {
+            super(Aspect.getAspectForAll(ComponentX.class));
+        }
+
+        @Override
+        protected void process(Entity e) {}
+    }
+
+    static class XYSystem extends EntityProcessingSystem {
+        @SuppressWarnings("unchecked")
+        XYSystem() {
+            super(Aspect.getAspectForAll(ComponentX.class, ComponentY.class));
+        }
+
+        @Override
+        protected void process(Entity e) {}
+    }
+
+    private World world;
+    private CompositionCensus census;
+    private XSystem xSystem;
+    private XYSystem xySystem;
+
+    @Before
+    public void init() {
+        world = new World();
+        census = world.setManager(new CompositionCensus());
+        xSystem = world.setSystem(new XSystem());
+        xySystem = world.setSystem(new XYSystem());
+        world.initialize();
+    }
+
+    private Entity create(boolean x, boolean y) {
+        Entity e = world.createEntity();
+        if (x)
+            e.addComponent(new ComponentX());
+        if (y)
+            e.addComponent(new ComponentY());
+        e.addToWorld();
+        return e;
+    }
+
+    @Test
+    public void countsEntitiesPerComposition() {
+        Entity x1 = create(true, false);
+        create(true, false);
+        Entity xy = create(true, true);
+        Entity none = create(false, false);
+        assertNull(census.getComposition(x1));
+        world.process();
+
+        assertEquals(3, census.getCompositionCount());
+        assertEquals(3, census.getCompositions().size());
+
+        CompositionCensus.Composition onlyX = census.getComposition(x1);
+        assertEquals(2, onlyX.getEntityCount());
+        assertEquals(1, onlyX.getComponentTypes().size());
+        assertTrue(onlyX.hasComponentType(ComponentType.getTypeFor(ComponentX.class)));
+        assertEquals(1, onlyX.getSystems().size());
+        assertTrue(onlyX.getSystems().contains(xSystem));
+
+        CompositionCensus.Composition both = census.getComposition(xy);
+        assertEquals(1, both.getEntityCount());
+        assertEquals(2, both.getSystems().size());
+        assertTrue(both.getSystems().contains(xySystem));
+
+        assertEquals(0, census.getComposition(none).getSystems().size());
+        assertEquals(0, census.getComposition(none).getComponentTypes().size());
+    }
+
+    @Test
+    public void followsChangesAndDeletes() {
+        Entity x1 = create(true, false);
+        Entity x2 = create(true, false);
+        world.process();
+        CompositionCensus.Composition onlyX = census.getComposition(x1);
+
+        x2.addComponent(new ComponentY());
+        x2.changedInWorld();
+        world.process();
+        assertEquals(1, onlyX.getEntityCount());
+        assertEquals(1, census.getComposition(x2).getEntityCount());
+        assertEquals(2, census.getCompositionCount());
+
+        x2.removeComponent(ComponentY.class);
+        x2.changedInWorld();
+        world.process();
+        assertSame(onlyX, census.getComposition(x2));
+        assertEquals(2, onlyX.getEntityCount());
+        assertEquals(1, census.getCompositionCount());
+
+        x1.disable();
+        world.process();
+        assertEquals(2, onlyX.getEntityCount());
+
+        x1.deleteFromWorld();
+        x2.deleteFromWorld();
+        world.process();
+        assertEquals(0, onlyX.getEntityCount());
+        assertEquals(0, census.getCompositionCount());
+        assertTrue(census.getCompositions().isEmpty());
+        assertNull(census.getComposition(x1));
+    }
+}
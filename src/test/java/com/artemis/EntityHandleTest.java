@@ -0,0 +1,189 @@
+package com.artemis;
+
+import com.artemis.component.ComponentX;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class EntityHandleTest {
+
+    @Test
+    public void packing() {
+        long handle = EntityHandle.of(1234567, 201);
+        assertEquals(1234567, EntityHandle.getId(handle));
+        assertEquals(201, EntityHandle.getGeneration(handle));
+        assertNotEquals(EntityHandle.of(5, 0), EntityHandle.of(5, 256));
+
+        handle = EntityHandle.of(EntityHandle.MAX_ID - 1, -1);
+        assertEquals(EntityHandle.MAX_ID - 1, EntityHandle.getId(handle));
+        assertEquals(-1, EntityHandle.getGeneration(handle));
+    }
+
+    @Test
+    public void staleHandles() {
+        World world = new World();
+        world.initialize();
+
+        long handle = world.create();
+        Entity e = world.getEntityForHandle(handle);
+        assertEquals(handle, e.getHandle());
+        assertEquals(EntityHandle.getId(handle), e.getId());
+        assertTrue(world.isAlive(handle));
+        world.process();
+        assertTrue(world.isAlive(handle));
+        assertSame(e, world.getEntity(e.getId()));
+
+        world.delete(handle);
+        assertTrue(world.isAlive(handle));
+        world.process();
+        assertFalse(world.isAlive(handle));
+        assertNull(world.getEntityForHandle(handle));
+
+        // the id and the Entity instance are reused, the old handle stays stale
+        long next = world.create();
+        assertEquals(EntityHandle.getId(handle), EntityHandle.getId(next));
+        assertNotEquals(handle, next);
+        assertSame(e, world.getEntityForHandle(next));
+        assertFalse(world.isAlive(handle));
+
+        world.delete(handle);
+        world.process();
+        assertTrue(world.isAlive(next));
+        assertTrue(world.getEntityManager().isActive(EntityHandle.getId(next)));
+    }
+
+    @Test
+    public void malformedHandlesAreNotAlive() {
+        World world = new World();
+        world.initialize();
+        long handle = world.create();
+        world.process();
+
+        for (long bad : new long[] {-1L, Long.MIN_VALUE, handle | 0x80000000L, EntityHandle.of(-5, 0), EntityHandle.of(1 << 20, 0)}) {
+            assertFalse(world.isAlive(bad));
+            assertNull(world.getEntityForHandle(bad));
+            world.delete(bad);
+        }
+        world.process();
+        assertTrue(world.isAlive(handle));
+    }
+
+    @Test
+    public void handlesStayStaleOverManyReuses() {
+        World world = new World();
+        world.initialize();
+
+        long handle = world.create();
+        world.process();
+        world.delete(handle);
+        world.process();
+        for (int i = 0; i < 1000; i++) {
+            long next = world.create();
+            assertEquals(EntityHandle.getId(handle), EntityHandle.getId(next));
+            assertFalse(world.isAlive(handle));
+            world.process();
+            world.delete(next);
+            world.process();
+        }
+    }
+
+    @Test
+    public void recycledEntitiesAreReset() {
+        World world = new World();
+        world.initialize();
+
+        Entity e = world.createEntity();
+        e.addComponent(new ComponentX());
+        e.addToWorld();
+        world.process();
+        e.deleteFromWorld();
+        world.process();
+
+        Entity recycled = world.createEntity();
+        assertSame(e, recycled);
+        assertTrue(recycled.getComponentBits().isEmpty());
+        assertTrue(recycled.getSystemBits().isEmpty());
+        assertNull(recycled.getComponent(ComponentX.class));
+    }
+
+    @Test
+    public void idsAreRecycledAfterComponentsAreRemoved() {
+        final World world = new World();
+        final Entity[] spawned = new Entity[1];
+        world.setManager(new Manager() {
+            @Override
+            public void deleted(Entity e) {
+                // spawning while a deletion is announced gets a fresh id
+                spawned[0] = world.createEntity();
+                spawned[0].addComponent(new ComponentX());
+                spawned[0].addToWorld();
+            }
+        });
+        world.initialize();
+        ComponentMapper<ComponentX> mapper = world.getMapper(ComponentX.class);
+
+        Entity e = world.createEntity();
+        e.addComponent(new ComponentX());
+        e.addToWorld();
+        world.process();
+        e.deleteFromWorld();
+        world.process();
+
+        assertNotEquals(e.getId(), spawned[0].getId());
+        assertTrue(mapper.has(spawned[0]));
+        assertTrue(mapper.has(spawned[0].getId()));
+        assertFalse(mapper.has(e.getId()));
+    }
+
+    @Test
+    public void mapperById() {
+        World world = new World();
+        world.initialize();
+        ComponentMapper<ComponentX> xm = world.getMapper(ComponentX.class);
+
+        long handle = world.create();
+        ComponentX x = new ComponentX();
+        world.getEntityForHandle(handle).addComponent(x);
+        world.process();
+
+        assertSame(x, xm.get(EntityHandle.getId(handle)));
+        assertTrue(xm.has(EntityHandle.getId(handle)));
+        assertFalse(xm.has(EntityHandle.getId(handle) + 1));
+    }
+
+    @Test
+    public void spawnChurnAllocatesNoEntities() {
+        World world = new World();
+        world.initialize();
+
+        Entity[] first = new Entity[100];
+        for (int i = 0; i < first.length; i++) {
+            first[i] = world.createEntity();
+            first[i].addToWorld();
+        }
+        world.process();
+
+        for (int round = 0; round < 10; round++) {
+            Entity[] current = new Entity[100];
+            for (int i = 0; i < current.length; i++) {
+                world.getEntity(i).deleteFromWorld();
+            }
+            world.process();
+            for (int i = 0; i < current.length; i++) {
+                current[i] = world.createEntity();
+                current[i].addToWorld();
+            }
+            world.process();
+
+            for (int i = 0; i < current.length; i++) {
+                assertSame(first[current[i].getId()], current[i]);
+            }
+        }
+        assertEquals(100, world.getEntityManager().getActiveEntityCount());
+    }
+}
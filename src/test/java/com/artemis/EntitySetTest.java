@@ -0,0 +1,144 @@
+package com.artemis;
+
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class EntitySetTest {
+
+    private static Entity[] createEntities(World world, int count) {
+        Entity[] entities = new Entity[count];
+        for (int i = 0; i < count; i++) {
+            entities[i] = world.createEntity();
+        }
+        return entities;
+    }
+
+    @Test
+    public void testAddContainsRemove() {
+        World world = new World();
+        Entity[] entities = createEntities(world, 200);
+
+        EntitySet set = new EntitySet(0);
+        assertTrue(set.isEmpty());
+        assertFalse(set.add(null));
+        assertFalse(set.contains(null));
+
+        for (Entity e : entities) {
+            assertTrue(set.add(e));
+            assertFalse(set.add(e));
+        }
+        assertEquals(200, set.size());
+        assertTrue(set.getCapacity() >= 200);
+
+        for (int i = 0; i < entities.length; i += 2) {
+            assertTrue(set.remove(entities[i]));
+            assertFalse(set.remove(entities[i]));
+        }
+        assertEquals(100, set.size());
+
+        Set<Entity> seen = new HashSet<>();
+        for (int i = 0; i < set.size(); i++) {
+            seen.add(set.get(i));
+        }
+        for (int i = 0; i < entities.length; i++) {
+            assertEquals(i % 2 == 1, set.contains(entities[i]));
+            assertEquals(i % 2 == 1, set.containsId(entities[i].getId()));
+            assertEquals(i % 2 == 1, seen.contains(entities[i]));
+        }
+
+        int iterated = 0;
+        for (Entity e : set) {
+            assertTrue(seen.contains(e));
+            iterated++;
+        }
+        assertEquals(100, iterated);
+    }
+
+    @Test
+    public void testClear() {
+        World world = new World();
+        Entity[] entities = createEntities(world, 10);
+        EntitySet set = new EntitySet();
+        for (Entity e : entities) {
+            set.add(e);
+        }
+        set.clear();
+        assertTrue(set.isEmpty());
+        for (Entity e : entities) {
+            assertFalse(set.contains(e));
+        }
+        assertTrue(set.add(entities[3]));
+        assertSame(entities[3], set.get(0));
+    }
+
+    @Test
+    public void testIdentity() {
+        World world = new World();
+        Entity e = world.createEntity();
+        EntitySet set = new EntitySet();
+        set.add(e);
+
+        // another instance that happens to carry the same id is not a member
+        Entity other = new World().createEntity();
+        assertEquals(e.getId(), other.getId());
+        assertTrue(set.containsId(other.getId()));
+        assertFalse(set.contains(other));
+        assertFalse(set.add(other));
+        assertFalse(set.remove(other));
+        assertSame(e, set.get(0));
+    }
+
+    @Test
+    public void testSortById() {
+        World world = new World();
+        Entity[] entities = createEntities(world, 100);
+        EntitySet set = new EntitySet();
+        for (int i = entities.length - 1; i >= 0; i--) {
+            set.add(entities[i]);
+        }
+        for (int i = 0; i < entities.length; i += 3) {
+            set.remove(entities[i]);
+        }
+
+        set.sortById();
+        for (int i = 1; i < set.size(); i++) {
+            assertTrue(set.get(i - 1).getId() < set.get(i).getId());
+        }
+
+        // positions follow the new order
+        for (int i = 0; i < entities.length; i++) {
+            assertEquals(i % 3 != 0, set.remove(entities[i]));
+        }
+        assertTrue(set.isEmpty());
+    }
+
+    @Test
+    public void testTrim() {
+        World world = new World();
+        Entity[] entities = createEntities(world, 1000);
+        EntitySet set = new EntitySet();
+        for (Entity e : entities) {
+            set.add(e);
+        }
+        set.sortById();
+        for (int i = 10; i < entities.length; i++) {
+            set.remove(entities[i]);
+        }
+
+        set.trim();
+        assertEquals(10, set.getCapacity());
+        for (int i = 0; i < entities.length; i++) {
+            assertEquals(i < 10, set.contains(entities[i]));
+        }
+        assertTrue(set.add(entities[500]));
+        assertTrue(set.remove(entities[0]));
+        assertEquals(10, set.size());
+    }
+}
@@ -3,6 +3,10 @@ package com.artemis;
 import com.artemis.utils.ImmutableBag;
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
@@ -166,4 +170,80 @@ public class EntitySystemTest {
         assertFalse(system.getActives().contains(e1));
         assertFalse(system.getActives().contains(e2));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void sortedActivesTest() throws Exception {
+
+        World world = new World();
+        final List<Entity> processed = new ArrayList<>();
+        EntitySystem system = new EntitySystem(Aspect.getAspectForAll(EmptyComponentOne.class)) {
+            @Override
+            protected void processEntities(ImmutableBag<Entity> entities) {
+                processed.clear();
+                for (int i = 0; i < entities.size(); i++) {
+                    processed.add(entities.get(i));
+                }
+            }
+
+            @Override
+            protected boolean checkProcessing() { return true; }
+        };
+        system.setActivesSorted(true);
+        assertTrue(system.isActivesSorted());
+        world.setSystem(system);
+        world.initialize();
+
+        List<Entity> entities = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            Entity e = world.createEntity();
+            e.addComponent(new EmptyComponentOne());
+            entities.add(e);
+        }
+        // added in reverse id order
+        for (int i = entities.size() - 1; i >= 0; i--) {
+            world.addEntity(entities.get(i));
+        }
+        world.process();
+        assertEquals(entities, processed);
+
+        // removal moves the last entity into the hole, sorting restores the order
+        for (int i = 0; i < entities.size(); i += 4) {
+            world.deleteEntity(entities.get(i));
+        }
+        world.process();
+
+        List<Entity> remaining = new ArrayList<>();
+        for (int i = 0; i < entities.size(); i++) {
+            if(i % 4 != 0)
+                remaining.add(entities.get(i));
+        }
+        assertEquals(remaining, processed);
+    }
+
+    @Test
+    public void activesStreamTest() throws Exception {
+
+        World world = new World();
+        EntitySystem system = new EntitySystem(Aspect.getAspectForAll(EmptyComponentOne.class)) {
+            @Override
+            protected void processEntities(ImmutableBag<Entity> entities) {}
+
+            @Override
+            protected boolean checkProcessing() { return true; }
+        };
+        world.setSystem(system);
+        world.initialize();
+
+        for (int i = 0; i < 10000; i++) {
+            Entity e = world.createEntity();
+            if(i % 4 != 0)
+                e.addComponent(new EmptyComponentOne());
+            e.addToWorld();
+        }
+        world.process();
+
+        assertEquals(7500, system.getActives().stream().count());
+        assertEquals(7500, system.getActives().parallelStream().mapToInt(Entity::getId).distinct().count());
+        assertEquals(0, system.getActives().parallelStream().filter(e -> e.getId() % 4 == 0).count());
+    }
+}
@@ -8,7 +8,12 @@ import org.junit.Before;
 import org.junit.Test;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 
 public class MapperTest {
 	
@@ -50,6 +55,28 @@ public class MapperTest {
 		assertEquals(ComponentY.class, mappedSystem.y.get(entity).getClass());
 	}
 
+	@Test
+	public void mappers_are_cached_per_world_and_type() {
+		assertSame(mappedSystem.x, world.getMapper(ComponentX.class));
+		assertSame(mappedManager.x, mappedSystem.x);
+		assertNotSame(mappedSystem.x, mappedSystem.y);
+		
+		World other = new World();
+		other.initialize();
+		assertNotSame(mappedSystem.x, other.getMapper(ComponentX.class));
+	}
+	
+	@Test
+	public void has_follows_component_bits() {
+		ComponentMapper<ComponentX> x = world.getMapper(ComponentX.class);
+		assertTrue(x.has(entity));
+		
+		entity.removeComponent(ComponentX.class);
+		assertFalse(x.has(entity));
+		assertNull(x.get(entity));
+		assertTrue(world.getMapper(ComponentY.class).has(entity.getId()));
+	}
+
 	private static class MappedSystem extends EntityProcessingSystem {
 		@Mapper private ComponentMapper<ComponentX> x;
 		@Mapper private ComponentMapper<ComponentY> y;
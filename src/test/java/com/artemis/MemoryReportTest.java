@@ -0,0 +1,68 @@
+package com.artemis;
+
+import com.artemis.component.ComponentX;
+import com.artemis.component.ComponentY;
+import com.artemis.systems.EntityProcessingSystem;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class MemoryReportTest {
+
+    static class XSystem extends EntityProcessingSystem {
+        @SuppressWarnings("unchecked")
+        XSystem() {
+            super(Aspect.getAspectForAll(ComponentX.class));
+        }
+
+        @Override
+        protected void process(Entity e) {}
+    }
+
+    @Test
+    public void reportsLiveAndCapacity() {
+        World world = new World();
+        XSystem system = world.setSystem(new XSystem());
+        world.initialize();
+
+        Entity[] entities = new Entity[1000];
+        for (int i = 0; i < entities.length; i++) {
+            entities[i] = world.createEntity();
+            entities[i].addComponent(new ComponentX());
+            if (i % 2 == 0)
+                entities[i].addComponent(new ComponentY());
+            entities[i].addToWorld();
+        }
+        world.process();
+
+        MemoryReport full = world.getMemoryReport();
+        MemoryReport.Usage x = full.getComponents().get(ComponentType.getTypeFor(ComponentX.class));
+        assertEquals(1000, x.getLive());
+        assertTrue(x.getCapacity() >= 1000);
+        assertEquals(500, full.getComponents().get(ComponentType.getTypeFor(ComponentY.class)).getLive());
+        assertEquals(1000, full.getSystems().get(system).getLive());
+        assertEquals(1000, full.getEntities().getLive());
+        assertTrue(x.getBytes() > 1000 * 16);
+
+        for (int i = 100; i < entities.length; i++) {
+            entities[i].deleteFromWorld();
+        }
+        world.process();
+
+        MemoryReport drained = world.getMemoryReport();
+        x = drained.getComponents().get(ComponentType.getTypeFor(ComponentX.class));
+        assertEquals(100, x.getLive());
+        assertTrue(x.getOccupancy() <= 0.1);
+        assertEquals(100, drained.getSystems().get(system).getLive());
+        assertEquals(100, drained.getEntities().getLive());
+        assertTrue(drained.getTotalBytes() < full.getTotalBytes());
+        assertTrue(drained.toString().contains("ComponentX"));
+    }
+
+    @Test
+    public void unknownComponentIndex() {
+        assertNull(ComponentType.getTypeFor(Integer.MAX_VALUE));
+    }
+}
@@ -0,0 +1,189 @@
+package com.artemis;
+
+import com.artemis.annotations.Mapper;
+import com.artemis.component.ComponentX;
+import com.artemis.systems.EntityProcessingSystem;
+import com.artemis.utils.Bag;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class PackedComponentTest {
+
+    public static class Position extends PackedComponent {
+        private static final int X = 0, Y = 4;
+
+        @Override
+        protected int getSize() {
+            return 8;
+        }
+
+        public float x() {
+            return buffer.getFloat(offset + X);
+        }
+
+        public Position x(float x) {
+            buffer.putFloat(offset + X, x);
+            return this;
+        }
+
+        public float y() {
+            return buffer.getFloat(offset + Y);
+        }
+
+        public Position y(float y) {
+            buffer.putFloat(offset + Y, y);
+            return this;
+        }
+    }
+
+    static class MovementSystem extends EntityProcessingSystem {
+        @Mapper PackedComponentMapper<Position> pm;
+
+        @SuppressWarnings("unchecked")
+        MovementSystem() {
+            super(Aspect.getAspectForAll(Position.class));
+        }
+
+        @Override
+        protected void process(Entity e) {
+            Position p = pm.get(e);
+            p.x(p.x() + 1).y(p.y() - 1);
+        }
+    }
+
+    @Test
+    public void createAndAccess() {
+        World world = new World();
+        world.initialize();
+        PackedComponentMapper<Position> pm = world.getPackedMapper(Position.class);
+
+        Entity[] entities = new Entity[10000];
+        for (int i = 0; i < entities.length; i++) {
+            entities[i] = world.createEntity();
+            pm.create(entities[i]).x(i).y(-i);
+            entities[i].addToWorld();
+        }
+        world.process();
+
+        for (int i = 0; i < entities.length; i++) {
+            assertTrue(pm.has(entities[i]));
+            assertEquals(i, pm.get(entities[i]).x(), 0);
+            assertEquals(-i, pm.get(entities[i]).y(), 0);
+        }
+        assertSame(pm.get(entities[0]), pm.get(entities[1]));
+        assertNull(entities[0].getComponent(Position.class));
+    }
+
+    @Test
+    public void systemsSeePackedComponents() {
+        World world = new World();
+        MovementSystem system = world.setSystem(new MovementSystem());
+        world.initialize();
+        PackedComponentMapper<Position> pm = world.getPackedMapper(Position.class);
+
+        Entity moving = world.createEntity();
+        pm.create(moving).x(10).y(10);
+        moving.addToWorld();
+        Entity still = world.createEntity();
+        still.addToWorld();
+
+        world.process();
+        world.process();
+        assertEquals(1, system.getActives().size());
+        assertEquals(12, pm.get(moving).x(), 0);
+        assertEquals(8, pm.get(moving).y(), 0);
+
+        pm.remove(moving);
+        moving.changedInWorld();
+        world.process();
+        assertFalse(pm.has(moving));
+        assertNull(pm.getSafe(moving));
+        assertTrue(system.getActives().isEmpty());
+    }
+
+    @Test
+    public void recycledEntitiesStartZeroed() {
+        World world = new World();
+        world.initialize();
+        PackedComponentMapper<Position> pm = world.getPackedMapper(Position.class);
+
+        Entity e = world.createEntity();
+        pm.create(e).x(5).y(6);
+        e.addToWorld();
+        world.process();
+        e.deleteFromWorld();
+        world.process();
+
+        Entity recycled = world.createEntity();
+        assertEquals(e.getId(), recycled.getId());
+        assertFalse(pm.has(recycled));
+        Position p = pm.create(recycled);
+        assertEquals(0, p.x(), 0);
+        assertEquals(0, p.y(), 0);
+    }
+
+    @Test
+    public void reportedAndCompacted() {
+        World world = new World();
+        world.initialize();
+        PackedComponentMapper<Position> pm = world.getPackedMapper(Position.class);
+
+        Entity[] entities = new Entity[100000];
+        for (int i = 0; i < entities.length; i++) {
+            entities[i] = world.createEntity();
+            pm.create(entities[i]).x(i);
+            entities[i].addToWorld();
+        }
+        world.process();
+
+        ComponentType type = ComponentType.getTypeFor(Position.class);
+        MemoryReport.Usage full = world.getMemoryReport().getComponents().get(type);
+        assertEquals(100000, full.getLive());
+        assertTrue(full.getBytes() >= 100000 * 8);
+        assertTrue(full.getName().contains("off-heap"));
+
+        for (int i = 100; i < entities.length; i++) {
+            entities[i].deleteFromWorld();
+        }
+        world.process();
+        world.compactStorage();
+
+        MemoryReport.Usage compacted = world.getMemoryReport().getComponents().get(type);
+        assertEquals(100, compacted.getLive());
+        assertEquals(1 << 16, compacted.getBytes());
+        assertEquals(99, pm.get(entities[99]).x(), 0);
+    }
+
+    @Test
+    public void packedComponentsAreLeftOutOfGetComponents() {
+        for (boolean archetypes : new boolean[] {false, true}) {
+            World world = new World();
+            if (archetypes)
+                world.setArchetypeStorage(16);
+            world.initialize();
+            PackedComponentMapper<Position> pm = world.getPackedMapper(Position.class);
+
+            Entity e = world.createEntity();
+            ComponentX x = new ComponentX();
+            e.addComponent(x);
+            pm.create(e).x(1);
+            e.addToWorld();
+            world.process();
+
+            Bag<Component> components = e.getComponents(new Bag<Component>());
+            assertEquals(1, components.size());
+            assertSame(x, components.get(0));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void addComponentIsRejected() {
+        World world = new World();
+        world.createEntity().addComponent(new Position());
+    }
+}
@@ -0,0 +1,75 @@
+package com.artemis;
+
+import com.artemis.component.ComponentX;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class SparseSetStorageTest {
+
+    @Test
+    public void testSetGetRemove() {
+        SparseSetStorage storage = new SparseSetStorage(2);
+        ComponentX[] components = new ComponentX[10];
+        for (int i = 0; i < components.length; i++) {
+            components[i] = new ComponentX();
+            storage.set(i * 1000, components[i]);
+        }
+        assertEquals(10, storage.size());
+        assertNull(storage.get(1));
+        assertNull(storage.get(1 << 24));
+
+        storage.set(0, null);
+        storage.set(4000, null);
+        storage.set(4000, null);
+        assertEquals(8, storage.size());
+        assertNull(storage.get(0));
+        assertNull(storage.get(4000));
+        for (int i = 1; i < components.length; i++) {
+            if (i != 4)
+                assertSame(components[i], storage.get(i * 1000));
+        }
+
+        ComponentX replacement = new ComponentX();
+        storage.set(9000, replacement);
+        assertEquals(8, storage.size());
+        assertSame(replacement, storage.get(9000));
+    }
+
+    @Test
+    public void testMemoryFollowsComponentCount() {
+        SparseSetStorage sparse = new SparseSetStorage();
+        DenseStorage dense = new DenseStorage();
+        for (int i = 0; i < 200; i++) {
+            ComponentX x = new ComponentX();
+            sparse.set(i * 10000, x);
+            dense.set(i * 10000, x);
+        }
+        assertTrue(sparse.estimateBytes() * 2 < dense.estimateBytes());
+    }
+
+    @Test
+    public void testTrimReleasesEmptyPages() {
+        SparseSetStorage storage = new SparseSetStorage();
+        for (int i = 0; i < 1000; i++) {
+            storage.set(i * 300, new ComponentX());
+        }
+        long full = storage.estimateBytes();
+        for (int i = 10; i < 1000; i++) {
+            storage.set(i * 300, null);
+        }
+        storage.trim();
+        assertEquals(10, storage.size());
+        assertEquals(10, storage.getCapacity());
+        assertTrue(storage.estimateBytes() * 20 < full);
+        for (int i = 0; i < 10; i++) {
+            assertTrue(storage.get(i * 300) != null);
+        }
+
+        storage.set(500000, new ComponentX());
+        assertEquals(11, storage.size());
+    }
+}
@@ -0,0 +1,272 @@
+package com.artemis;
+
+import com.artemis.component.ComponentX;
+import com.artemis.component.ComponentY;
+import com.artemis.utils.ImmutableBag;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class SystemMembershipTest {
+
+    public static class ComponentZ extends Component {
+    }
+
+    @Test
+    public void testMembershipMatchesAspects() {
+        World world = new World();
+        List<CountingSystem> systems = addSystems(world);
+        world.initialize();
+
+        Random random = new Random(3);
+        List<Entity> entities = new ArrayList<>();
+        for (int round = 0; round < 20; round++) {
+            for (int i = 0; i < 50; i++) {
+                Entity e = world.createEntity();
+                randomize(random, e);
+                e.addToWorld();
+                entities.add(e);
+            }
+            for (Entity e : entities) {
+                // a change re-admits disabled entities into systems, so only change enabled ones
+                if (!e.isEnabled()) {
+                    if (random.nextBoolean())
+                        e.enable();
+                    continue;
+                }
+                switch (random.nextInt(8)) {
+                    case 0:
+                        randomize(random, e);
+                        e.changedInWorld();
+                        break;
+                    case 1:
+                        e.changedInWorld();
+                        break;
+                    case 2:
+                        e.disable();
+                        break;
+                    default:
+                        break;
+                }
+            }
+            for (int i = 0; i < 10; i++) {
+                entities.remove(random.nextInt(entities.size())).deleteFromWorld();
+            }
+            world.process();
+
+            for (CountingSystem system : systems) {
+                Set<Entity> expected = new HashSet<>();
+                for (Entity e : entities) {
+                    if (e.isEnabled() && system.getAspect().isInterested(e.getComponentBits()))
+                        expected.add(e);
+                }
+                assertEquals(expected, actives(system));
+                assertEquals(system.getActives().size(), system.inserted - system.removed);
+            }
+        }
+    }
+
+    @Test
+    public void testUnchangedEntitiesTouchNoSystem() {
+        World world = new World();
+        List<CountingSystem> systems = addSystems(world);
+        world.initialize();
+
+        List<Entity> entities = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            Entity e = world.createEntity();
+            e.addComponent(new ComponentX());
+            if (i % 2 == 0)
+                e.addComponent(new ComponentY());
+            e.addToWorld();
+            entities.add(e);
+        }
+        world.process();
+        assertEquals(2, world.getSystemMembership().size());
+
+        int[] inserted = new int[systems.size()];
+        for (int i = 0; i < inserted.length; i++) {
+            inserted[i] = systems.get(i).inserted;
+        }
+        for (Entity e : entities) {
+            e.changedInWorld();
+        }
+        world.process();
+        for (int i = 0; i < inserted.length; i++) {
+            assertEquals(inserted[i], systems.get(i).inserted);
+            assertEquals(0, systems.get(i).removed);
+        }
+
+        entities.get(0).removeComponent(ComponentY.class);
+        entities.get(0).changedInWorld();
+        world.process();
+        assertEquals(2, world.getSystemMembership().size());
+        assertTrue(!systems.get(1).getActives().contains(entities.get(0)));
+        assertEquals(1, systems.get(1).removed);
+    }
+
+    @Test
+    public void testSystemsAddedLaterSeeNewEntities() {
+        World world = new World();
+        world.setSystem(new XSystem());
+        world.initialize();
+
+        Entity first = world.createEntity();
+        first.addComponent(new ComponentX());
+        first.addComponent(new ComponentY());
+        first.addToWorld();
+        world.process();
+
+        XYSystem xy = world.setSystem(new XYSystem());
+        assertEquals(0, world.getSystemMembership().size());
+
+        Entity second = world.createEntity();
+        second.addComponent(new ComponentX());
+        second.addComponent(new ComponentY());
+        second.addToWorld();
+        world.process();
+        assertEquals(1, xy.getActives().size());
+        assertTrue(xy.getActives().contains(second));
+        assertEquals(2, world.getSystem(XSystem.class).getActives().size());
+    }
+
+    @Test
+    public void testComponentsAddedWhenInserted() {
+        World world = new World();
+        world.setSystem(new TaggingSystem());
+        XNotZSystem xNotZ = world.setSystem(new XNotZSystem());
+        YOrZSystem yOrZ = world.setSystem(new YOrZSystem());
+        world.initialize();
+
+        List<Entity> entities = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Entity e = world.createEntity();
+            e.addComponent(new ComponentX());
+            e.addToWorld();
+            entities.add(e);
+            world.process();
+        }
+
+        for (Entity e : entities) {
+            assertTrue(e.getComponent(ComponentZ.class) != null);
+            assertTrue(yOrZ.getActives().contains(e));
+            assertTrue(!xNotZ.getActives().contains(e));
+        }
+        assertEquals(0, xNotZ.inserted);
+        assertEquals(3, yOrZ.inserted);
+    }
+
+    private static List<CountingSystem> addSystems(World world) {
+        List<CountingSystem> systems = new ArrayList<>();
+        systems.add(world.setSystem(new XSystem()));
+        systems.add(world.setSystem(new XYSystem()));
+        systems.add(world.setSystem(new XNotZSystem()));
+        systems.add(world.setSystem(new YOrZSystem()));
+        systems.add(world.setSystem(new EmptySystem()));
+        return systems;
+    }
+
+    private static void randomize(Random random, Entity e) {
+        if (random.nextBoolean())
+            e.addComponent(new ComponentX());
+        else
+            e.removeComponent(ComponentX.class);
+        if (random.nextBoolean())
+            e.addComponent(new ComponentY());
+        else
+            e.removeComponent(ComponentY.class);
+        if (random.nextInt(3) == 0)
+            e.addComponent(new ComponentZ());
+        else
+            e.removeComponent(ComponentZ.class);
+    }
+
+    private static Set<Entity> actives(EntitySystem system) {
+        Set<Entity> actives = new HashSet<>();
+        for (Entity e : system.getActives()) {
+            actives.add(e);
+        }
+        return actives;
+    }
+
+    private abstract static class CountingSystem extends EntitySystem {
+        int inserted;
+        int removed;
+
+        CountingSystem(Aspect aspect) {
+            super(aspect);
+        }
+
+        @Override
+        protected void inserted(Entity e) {
+            inserted++;
+        }
+
+        @Override
+        protected void removed(Entity e) {
+            removed++;
+        }
+
+        @Override
+        protected void processEntities(ImmutableBag<Entity> entities) {}
+
+        @Override
+        protected boolean checkProcessing() {
+            return true;
+        }
+    }
+
+    private static class XSystem extends CountingSystem {
+        @SuppressWarnings("unchecked")
+        XSystem() {
+            super(Aspect.getAspectForAll(ComponentX.class));
+        }
+    }
+
+    private static class TaggingSystem extends CountingSystem {
+        @SuppressWarnings("unchecked")
+        TaggingSystem() {
+            super(Aspect.getAspectForAll(ComponentX.class));
+        }
+
+        @Override
+        protected void inserted(Entity e) {
+            super.inserted(e);
+            e.addComponent(new ComponentZ());
+        }
+    }
+
+    private static class XYSystem extends CountingSystem {
+        @SuppressWarnings("unchecked")
+        XYSystem() {
+            super(Aspect.getAspectForAll(ComponentX.class, ComponentY.class));
+        }
+    }
+
+    private static class XNotZSystem extends CountingSystem {
+        @SuppressWarnings("unchecked")
+        XNotZSystem() {
+            super(Aspect.getAspectForAll(ComponentX.class).exclude(ComponentZ.class));
+        }
+    }
+
+    private static class YOrZSystem extends CountingSystem {
+        @SuppressWarnings("unchecked")
+        YOrZSystem() {
+            super(Aspect.getAspectForOne(ComponentY.class, ComponentZ.class));
+        }
+    }
+
+    private static class EmptySystem extends CountingSystem {
+        EmptySystem() {
+            super(Aspect.getEmpty());
+        }
+    }
+}
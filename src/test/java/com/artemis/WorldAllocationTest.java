@@ -0,0 +1,126 @@
+package com.artemis;
+
+import com.artemis.annotations.Mapper;
+import com.artemis.component.ComponentX;
+import com.artemis.component.ComponentY;
+import com.artemis.systems.DelayedEntityProcessingSystem;
+import com.artemis.systems.EntityProcessingSystem;
+import com.artemis.systems.IntervalEntityProcessingSystem;
+import com.artemis.systems.VoidEntitySystem;
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+import static org.junit.Assert.assertTrue;
+
+public class WorldAllocationTest {
+
+    static class MappingSystem extends EntityProcessingSystem {
+        @Mapper ComponentMapper<ComponentX> xm;
+        @Mapper ComponentMapper<ComponentY> ym;
+        int visited;
+
+        @SuppressWarnings("unchecked")
+        MappingSystem() {
+            super(Aspect.getAspectForAll(ComponentX.class).one(ComponentY.class));
+        }
+
+        @Override
+        protected void process(Entity e) {
+            if(xm.get(e) != null && ym.has(e))
+                visited++;
+        }
+    }
+
+    static class SortedSystem extends EntityProcessingSystem {
+        @SuppressWarnings("unchecked")
+        SortedSystem() {
+            super(Aspect.getAspectForAll(ComponentX.class));
+            setActivesSorted(true);
+        }
+
+        @Override
+        protected void process(Entity e) {}
+    }
+
+    static class IntervalSystem extends IntervalEntityProcessingSystem {
+        @SuppressWarnings("unchecked")
+        IntervalSystem() {
+            super(Aspect.getAspectForAll(ComponentY.class), 0.5);
+        }
+
+        @Override
+        protected void process(Entity e) {}
+    }
+
+    static class DelayedSystem extends DelayedEntityProcessingSystem {
+        @SuppressWarnings("unchecked")
+        DelayedSystem() {
+            super(Aspect.getAspectForAll(ComponentX.class));
+        }
+
+        @Override
+        protected double getRemainingDelay(Entity e) {
+            return 1000;
+        }
+
+        @Override
+        protected void processDelta(Entity e, double accumulatedDelta) {}
+
+        @Override
+        protected void processExpired(Entity e) {}
+    }
+
+    static class CountingSystem extends VoidEntitySystem {
+        int frames;
+
+        @Override
+        protected void processSystem() {
+            frames++;
+        }
+    }
+
+    @Test
+    public void steadyStateFrameAllocatesNothing() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+        Assume.assumeTrue(threads.isThreadAllocatedMemorySupported());
+        threads.setThreadAllocatedMemoryEnabled(true);
+
+        World world = new World();
+        world.setSystem(new MappingSystem());
+        world.setSystem(new SortedSystem());
+        world.setSystem(new IntervalSystem());
+        world.setSystem(new DelayedSystem());
+        world.setSystem(new CountingSystem());
+        world.setManager(new CompositionCensus());
+        world.initialize();
+        world.setDelta(0.1);
+
+        for (int i = 0; i < 1000; i++) {
+            Entity e = world.createEntity();
+            e.addComponent(new ComponentX());
+            if(i % 2 == 0)
+                e.addComponent(new ComponentY());
+            e.addToWorld();
+        }
+
+        // settle the world and let the JIT compile the frame
+        for (int i = 0; i < 20000; i++) {
+            world.process();
+        }
+
+        long threadId = Thread.currentThread().getId();
+        long before = threads.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < 10000; i++) {
+            world.process();
+        }
+        long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+
+        // a single object per frame would be at least 16 bytes per frame
+        assertTrue("allocated " + allocated + " bytes in 10000 frames", allocated < 10000);
+    }
+}
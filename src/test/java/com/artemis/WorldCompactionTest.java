@@ -0,0 +1,112 @@
+package com.artemis;
+
+import com.artemis.component.ComponentX;
+import com.artemis.systems.EntityProcessingSystem;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class WorldCompactionTest {
+
+    static class XSystem extends EntityProcessingSystem {
+        @SuppressWarnings("unchecked")
+        XSystem() {
+            super(Aspect.getAspectForAll(ComponentX.class));
+        }
+
+        @Override
+        protected void process(Entity e) {}
+    }
+
+    private static Entity[] spike(World world, int count) {
+        Entity[] entities = new Entity[count];
+        for (int i = 0; i < count; i++) {
+            entities[i] = world.createEntity();
+            entities[i].addComponent(new ComponentX());
+            entities[i].addToWorld();
+        }
+        world.process();
+        return entities;
+    }
+
+    @Test
+    public void compactStorageAfterSpike() {
+        World world = new World();
+        XSystem system = world.setSystem(new XSystem());
+        world.initialize();
+
+        Entity[] entities = spike(world, 20000);
+        for (int i = 100; i < entities.length; i++) {
+            entities[i].deleteFromWorld();
+        }
+        world.process();
+
+        MemoryReport before = world.getMemoryReport();
+        world.compactStorage();
+        MemoryReport after = world.getMemoryReport();
+
+        ComponentType x = ComponentType.getTypeFor(ComponentX.class);
+        assertEquals(100, after.getComponents().get(x).getLive());
+        assertEquals(1024, after.getComponents().get(x).getCapacity());
+        assertEquals(100, after.getSystems().get(system).getCapacity());
+        assertEquals(100, after.getEntities().getCapacity());
+        assertTrue(after.getTotalBytes() < before.getTotalBytes() / 10);
+
+        // the world keeps working, handing out the released ids again
+        assertEquals(100, world.createEntity().getId());
+        for (int i = 0; i < 100; i++) {
+            assertTrue(system.getActives().contains(entities[i]));
+        }
+        spike(world, 1000);
+        assertEquals(1100, system.getActives().size());
+    }
+
+    @Test
+    public void lowestIdsAreReusedFirst() {
+        World world = new World();
+        world.initialize();
+
+        Entity[] entities = spike(world, 1000);
+        for (int i = 0; i < entities.length; i++) {
+            if(i % 100 != 0)
+                entities[i].deleteFromWorld();
+        }
+        world.process();
+        world.compactStorage();
+
+        assertEquals(1, world.createEntity().getId());
+        assertEquals(2, world.createEntity().getId());
+    }
+
+    @Test
+    public void autoCompaction() {
+        World world = new World();
+        XSystem system = world.setSystem(new XSystem());
+        world.setAutoCompaction(0.25, 10);
+        world.initialize();
+
+        Entity[] entities = spike(world, 20000);
+        for (int i = 0; i < 10; i++) {
+            world.process();
+        }
+        assertTrue(world.getMemoryReport().getEntities().getCapacity() >= 20000);
+
+        for (int i = 50; i < entities.length; i++) {
+            entities[i].deleteFromWorld();
+        }
+        for (int i = 0; i < 9; i++) {
+            world.process();
+        }
+        assertTrue(world.getMemoryReport().getEntities().getCapacity() >= 20000);
+
+        world.process();
+        assertEquals(50, world.getMemoryReport().getEntities().getCapacity());
+        assertEquals(50, world.getMemoryReport().getSystems().get(system).getCapacity());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidOccupancy() {
+        new World().setAutoCompaction(2, 10);
+    }
+}
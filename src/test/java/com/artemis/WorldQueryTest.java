@@ -0,0 +1,139 @@
+package com.artemis;
+
+import com.artemis.component.ComponentX;
+import com.artemis.component.ComponentY;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class WorldQueryTest {
+
+    public static class ComponentZ extends Component {
+    }
+
+    @Test
+    public void testMatchesIsInterested() {
+        World world = new World();
+        world.initialize();
+        List<Entity> entities = populate(world, 3000);
+
+        for (Aspect aspect : aspects()) {
+            BitSet expected = new BitSet();
+            for (Entity e : entities) {
+                if (aspect.isInterested(e.getComponentBits()))
+                    expected.set(e.getId());
+            }
+            assertEquals(expected, world.query(aspect));
+        }
+    }
+
+    @Test
+    public void testFollowsRemovalAndDeletion() {
+        World world = new World();
+        world.initialize();
+
+        Entity a = world.createEntity();
+        a.addComponent(new ComponentX());
+        a.addComponent(new ComponentY());
+        a.addToWorld();
+        Entity b = world.createEntity();
+        b.addComponent(new ComponentX());
+        b.addToWorld();
+        world.process();
+
+        Aspect xy = Aspect.getAspectForAll(ComponentX.class, ComponentY.class);
+        assertEquals(bits(a.getId()), world.query(xy));
+        assertEquals(bits(a.getId(), b.getId()), world.query(Aspect.getAspectForAll(ComponentX.class)));
+
+        a.removeComponent(ComponentY.class);
+        assertTrue(world.query(xy).isEmpty());
+
+        b.deleteFromWorld();
+        world.process();
+        assertEquals(bits(a.getId()), world.query(Aspect.getAspectForAll(ComponentX.class)));
+    }
+
+    @Test
+    public void testReusesFill() {
+        World world = new World();
+        world.initialize();
+        Entity e = world.createEntity();
+        e.addComponent(new ComponentZ());
+        e.addToWorld();
+
+        BitSet fill = bits(100, 200);
+        assertSame(fill, world.query(Aspect.getAspectForAll(ComponentZ.class), fill));
+        assertEquals(bits(e.getId()), fill);
+        assertTrue(world.query(Aspect.getEmpty(), fill).isEmpty());
+    }
+
+    @Test
+    public void testArchetypeStorage() {
+        World world = new World();
+        world.setArchetypeStorage(64);
+        world.initialize();
+        List<Entity> entities = populate(world, 500);
+
+        for (Aspect aspect : aspects()) {
+            BitSet expected = new BitSet();
+            for (Entity e : entities) {
+                if (aspect.isInterested(e.getComponentBits()))
+                    expected.set(e.getId());
+            }
+            assertEquals(expected, world.query(aspect));
+        }
+    }
+
+    private static List<Entity> populate(World world, int count) {
+        Random random = new Random(7);
+        List<Entity> entities = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Entity e = world.createEntity();
+            if (random.nextBoolean())
+                e.addComponent(new ComponentX());
+            if (random.nextInt(3) == 0)
+                e.addComponent(new ComponentY());
+            if (random.nextInt(5) == 0)
+                e.addComponent(new ComponentZ());
+            e.addToWorld();
+            entities.add(e);
+        }
+        world.process();
+
+        for (int i = 0; i < count; i += 7) {
+            entities.get(i).removeComponent(ComponentX.class);
+        }
+        for (int i = 0; i < count; i += 11) {
+            entities.get(i).deleteFromWorld();
+        }
+        world.process();
+        entities.removeIf(e -> !world.getEntityManager().isActive(e.getId()));
+        return entities;
+    }
+
+    private static Aspect[] aspects() {
+        return new Aspect[] {
+                Aspect.getAspectForAll(ComponentX.class),
+                Aspect.getAspectForAll(ComponentX.class, ComponentY.class),
+                Aspect.getAspectForAll(ComponentX.class).exclude(ComponentZ.class),
+                Aspect.getAspectForOne(ComponentY.class, ComponentZ.class),
+                Aspect.getAspectForAll(ComponentY.class).one(ComponentZ.class),
+                Aspect.getEmpty().exclude(ComponentX.class)
+        };
+    }
+
+    private static BitSet bits(int... ids) {
+        BitSet bits = new BitSet();
+        for (int id : ids) {
+            bits.set(id);
+        }
+        return bits;
+    }
+}
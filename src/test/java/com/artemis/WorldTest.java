@@ -2,6 +2,10 @@ package com.artemis;
 
 import org.junit.Test;
 
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
 public class WorldTest {
@@ -76,4 +80,26 @@ public class WorldTest {
         world.process();
         assertTrue(world.getEntity(e.getId()) == null);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testIdRecycling() throws Exception {
+        World world = new World();
+        world.initialize();
+
+        Set<Integer> ids = new HashSet<>();
+        for (int i = 0; i < 1000; i++) {
+            Entity e = world.createEntity();
+            assertTrue(ids.add(e.getId()));
+            world.addEntity(e);
+            world.deleteEntity(e);
+        }
+        world.process();
+
+        // every deleted id is handed out again, each only once
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(ids.remove(world.createEntity().getId()));
+        }
+        assertTrue(ids.isEmpty());
+        assertEquals(1000, world.createEntity().getId());
+    }
+}
@@ -0,0 +1,75 @@
+package com.artemis.jmx;
+
+import com.artemis.Aspect;
+import com.artemis.Entity;
+import com.artemis.World;
+import com.artemis.component.ComponentX;
+import com.artemis.systems.EntityProcessingSystem;
+import org.junit.Test;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class JmxManagerTest {
+
+    static class XSystem extends EntityProcessingSystem {
+        @SuppressWarnings("unchecked")
+        XSystem() {
+            super(Aspect.getAspectForAll(ComponentX.class));
+        }
+
+        @Override
+        protected void process(Entity e) {}
+    }
+
+    @Test
+    public void exposesWorldStatistics() throws Exception {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName worldName = new ObjectName("com.artemis:type=World,world=jmxTest");
+        ObjectName emName = new ObjectName("com.artemis:type=EntityManager,world=jmxTest");
+        ObjectName systems = new ObjectName("com.artemis:type=EntitySystem,world=jmxTest,*");
+
+        World world = new World();
+        world.setSystem(new XSystem());
+        JmxManager jmx = world.setManager(new JmxManager("jmxTest"));
+        world.initialize();
+
+        assertTrue(server.isRegistered(worldName));
+        assertTrue(server.isRegistered(emName));
+        assertEquals(1, server.queryNames(systems, null).size());
+        ObjectName systemName = server.queryNames(systems, null).iterator().next();
+
+        for (int i = 0; i < 10; i++) {
+            Entity e = world.createEntity();
+            e.addComponent(new ComponentX());
+            e.addToWorld();
+        }
+        assertEquals(10, server.getAttribute(worldName, "PendingAddedCount"));
+        world.process();
+        world.process();
+
+        assertEquals(0, server.getAttribute(worldName, "PendingAddedCount"));
+        assertEquals(2L, server.getAttribute(worldName, "FrameCount"));
+        assertEquals(10, server.getAttribute(emName, "ActiveEntityCount"));
+        assertEquals(10L, server.getAttribute(emName, "TotalAdded"));
+        assertEquals(5.0, (Double) server.getAttribute(emName, "AddedPerFrame"), 0.0001);
+        assertEquals(10, server.getAttribute(systemName, "ActiveCount"));
+
+        world.getEntity(0).deleteFromWorld();
+        assertEquals(1, server.getAttribute(worldName, "PendingDeletedCount"));
+        world.process();
+        assertEquals(1.0, (Double) server.getAttribute(emName, "DeletedPerFrame"), 0.0001);
+        assertEquals(0.0, (Double) server.getAttribute(emName, "AddedPerFrame"), 0.0001);
+        assertEquals(9, server.getAttribute(systemName, "ActiveCount"));
+
+        jmx.unregister();
+        assertFalse(server.isRegistered(worldName));
+        assertFalse(server.isRegistered(emName));
+        assertTrue(server.queryNames(systems, null).isEmpty());
+    }
+}
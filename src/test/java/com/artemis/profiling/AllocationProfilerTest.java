@@ -0,0 +1,60 @@
+package com.artemis.profiling;
+
+import com.artemis.Aspect;
+import com.artemis.Entity;
+import com.artemis.Profiler;
+import com.artemis.World;
+import com.artemis.component.ComponentX;
+import com.artemis.systems.EntityProcessingSystem;
+import com.artemis.systems.VoidEntitySystem;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class AllocationProfilerTest {
+
+    static class GarbageSystem extends VoidEntitySystem {
+        byte[] last;
+
+        @Override
+        protected void processSystem() {
+            last = new byte[100000];
+        }
+    }
+
+    static class QuietSystem extends EntityProcessingSystem {
+        @SuppressWarnings("unchecked")
+        QuietSystem() {
+            super(Aspect.getAspectForAll(ComponentX.class));
+        }
+
+        @Override
+        protected void process(Entity e) {}
+    }
+
+    @Test
+    public void attributesAllocationToSystems() {
+        World world = new World();
+        GarbageSystem garbage = world.setSystem(new GarbageSystem());
+        QuietSystem quiet = world.setSystem(new QuietSystem());
+        world.initialize();
+
+        Entity e = world.createEntity();
+        e.addComponent(new ComponentX());
+        e.addToWorld();
+        world.process();
+
+        AllocationProfiler profiler = world.setProfiler(new AllocationProfiler());
+        for (int i = 0; i < 10; i++) {
+            world.process();
+        }
+
+        assertEquals(10, profiler.getSystemHistogram(garbage).getCount());
+        assertTrue(profiler.getSystemHistogram(garbage).getTotal() >= 10 * 100000);
+        assertTrue(profiler.getSystemHistogram(garbage).getMax() >= 100000);
+        assertTrue(profiler.getSystemHistogram(quiet).getMax() < 1024);
+        assertTrue(profiler.getFrameHistogram().getTotal() >= profiler.getSystemHistogram(garbage).getTotal());
+        assertEquals(10, profiler.getPhaseHistogram(Profiler.Phase.CLEAN).getCount());
+    }
+}
@@ -0,0 +1,90 @@
+package com.artemis.profiling;
+
+import com.artemis.Aspect;
+import com.artemis.Entity;
+import com.artemis.World;
+import com.artemis.component.ComponentX;
+import com.artemis.systems.EntityProcessingSystem;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class FlightRecorderProfilerTest {
+
+    static class XSystem extends EntityProcessingSystem {
+        @SuppressWarnings("unchecked")
+        XSystem() {
+            super(Aspect.getAspectForAll(ComponentX.class));
+        }
+
+        @Override
+        protected void process(Entity e) {}
+    }
+
+    @Test
+    public void emitsEventsOnlyWhileEnabled() throws Exception {
+        World world = new World();
+        world.setSystem(new XSystem());
+        world.initialize();
+
+        world.process();
+        assertNull(world.getProfiler(FlightRecorderProfiler.class));
+
+        File file = File.createTempFile("artemis", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("com.artemis.Frame");
+            recording.enable("com.artemis.System");
+            recording.enable("com.artemis.Lifecycle");
+            recording.start();
+
+            for (int i = 0; i < 3; i++) {
+                Entity e = world.createEntity();
+                e.addComponent(new ComponentX());
+                e.addToWorld();
+            }
+            world.process();
+            assertNotNull(world.getProfiler(FlightRecorderProfiler.class));
+            world.getEntity(0).deleteFromWorld();
+            world.process();
+
+            recording.stop();
+            recording.dump(file.toPath());
+        }
+
+        world.process();
+        assertNull(world.getProfiler(FlightRecorderProfiler.class));
+
+        Map<String, Integer> counts = new HashMap<>();
+        int added = -1;
+        int deleted = -1;
+        int processed = -1;
+        for (RecordedEvent event : RecordingFile.readAllEvents(file.toPath())) {
+            String name = event.getEventType().getName();
+            counts.put(name, counts.containsKey(name) ? counts.get(name) + 1 : 1);
+            if (name.equals("com.artemis.Lifecycle") && event.getString("phase").equals("ADDED"))
+                added = event.getInt("entities");
+            if (name.equals("com.artemis.Lifecycle") && event.getString("phase").equals("DELETED"))
+                deleted = event.getInt("entities");
+            if (name.equals("com.artemis.System"))
+                processed = Math.max(processed, event.getInt("entities"));
+        }
+        file.delete();
+
+        assertEquals(Integer.valueOf(2), counts.get("com.artemis.Frame"));
+        assertEquals(Integer.valueOf(2), counts.get("com.artemis.System"));
+        assertTrue(counts.get("com.artemis.Lifecycle") >= 4);
+        assertEquals(3, added);
+        assertEquals(1, deleted);
+        assertEquals(3, processed);
+    }
+}
@@ -0,0 +1,69 @@
+package com.artemis.profiling;
+
+import com.artemis.Aspect;
+import com.artemis.Entity;
+import com.artemis.Profiler;
+import com.artemis.World;
+import com.artemis.component.ComponentX;
+import com.artemis.systems.EntityProcessingSystem;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class FrameProfilerTest {
+
+    static class SlowSystem extends EntityProcessingSystem {
+        @SuppressWarnings("unchecked")
+        SlowSystem() {
+            super(Aspect.getAspectForAll(ComponentX.class));
+        }
+
+        @Override
+        protected void process(Entity e) {
+            long end = System.nanoTime() + 100000;
+            while (System.nanoTime() < end);
+        }
+    }
+
+    @Test
+    public void recordsFramesPhasesAndSystems() {
+        World world = new World();
+        SlowSystem slow = world.setSystem(new SlowSystem());
+        SlowSystem passive = world.setSystem(new SlowSystem(), true);
+        world.initialize();
+
+        assertNull(world.getProfiler(FrameProfiler.class));
+        FrameProfiler profiler = world.setProfiler(new FrameProfiler());
+        assertSame(profiler, world.getProfiler(FrameProfiler.class));
+
+        Entity e = world.createEntity();
+        e.addComponent(new ComponentX());
+        e.addToWorld();
+        world.process();
+        world.process();
+        e.deleteFromWorld();
+        world.process();
+
+        assertEquals(3, profiler.getFrameHistogram().getCount());
+        assertEquals(1, profiler.getPhaseHistogram(Profiler.Phase.ADDED).getCount());
+        assertEquals(0, profiler.getPhaseHistogram(Profiler.Phase.CHANGED).getCount());
+        assertEquals(1, profiler.getPhaseHistogram(Profiler.Phase.DELETED).getCount());
+        assertEquals(3, profiler.getPhaseHistogram(Profiler.Phase.CLEAN).getCount());
+
+        assertEquals(3, profiler.getSystemHistogram(slow).getCount());
+        assertTrue(profiler.getSystemHistogram(slow).getMax() >= 100000);
+        assertNull(profiler.getSystemHistogram(passive));
+        assertTrue(profiler.getFrameHistogram().getTotal() >= profiler.getSystemHistogram(slow).getTotal());
+
+        world.deleteProfiler(profiler);
+        world.process();
+        assertEquals(3, profiler.getFrameHistogram().getCount());
+
+        profiler.reset();
+        assertEquals(0, profiler.getFrameHistogram().getCount());
+        assertEquals(0, profiler.getSystemHistogram(slow).getCount());
+    }
+}
@@ -0,0 +1,209 @@
+package com.artemis.systems;
+
+import com.artemis.Aspect;
+import com.artemis.Chunk;
+import com.artemis.ComponentType;
+import com.artemis.Entity;
+import com.artemis.World;
+import com.artemis.component.ComponentX;
+import com.artemis.component.ComponentY;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class ChunkProcessingSystemTest {
+
+    static class ChunkSystem extends ChunkProcessingSystem {
+        final ComponentType xType = ComponentType.getTypeFor(ComponentX.class);
+        final Set<Entity> processed = new HashSet<>();
+        int chunks;
+
+        @SuppressWarnings("unchecked")
+        ChunkSystem() {
+            super(Aspect.getAspectForAll(ComponentX.class));
+        }
+
+        @Override
+        protected void process(Chunk chunk) {
+            chunks++;
+            ComponentX[] xs = (ComponentX[]) chunk.getColumn(xType);
+            for (int i = 0, s = chunk.size(); s > i; i++) {
+                assertSame(chunk.getEntity(i).getComponent(ComponentX.class), xs[i]);
+                processed.add(chunk.getEntity(i));
+            }
+        }
+    }
+
+    @Test
+    public void processesMatchingActiveChunks() {
+        World world = new World();
+        world.setArchetypeStorage(8);
+        ChunkSystem system = world.setSystem(new ChunkSystem());
+        world.initialize();
+
+        Set<Entity> expected = new HashSet<>();
+        for (int i = 0; i < 30; i++) {
+            Entity e = world.createEntity();
+            if (i % 2 == 0)
+                e.addComponent(new ComponentX());
+            if (i % 3 == 0)
+                e.addComponent(new ComponentY());
+            if (i % 5 != 0)
+                e.addToWorld();
+            if (i % 2 == 0 && i % 5 != 0)
+                expected.add(e);
+        }
+        world.process();
+
+        assertEquals(expected, system.processed);
+        assertEquals(2, system.getArchetypes().size());
+        assertEquals(2, system.chunks);
+
+        Entity late = world.createEntity();
+        late.addComponent(new ComponentX());
+        late.addToWorld();
+        system.processed.clear();
+        world.process();
+        expected.add(late);
+        assertEquals(expected, system.processed);
+    }
+
+    static class StrippingSystem extends ChunkProcessingSystem {
+        final List<Entity> processed = new ArrayList<>();
+        private final List<Entity> strip = new ArrayList<>();
+
+        @SuppressWarnings("unchecked")
+        StrippingSystem() {
+            super(Aspect.getAspectForAll(ComponentX.class));
+        }
+
+        @Override
+        protected void process(Chunk chunk) {
+            for (int i = 0, s = chunk.size(); s > i; i++) {
+                processed.add(chunk.getEntity(i));
+                strip.add(chunk.getEntity(i));
+            }
+        }
+
+        @Override
+        protected void end() {
+            for (Entity e : strip) {
+                e.removeComponent(ComponentX.class);
+                e.changedInWorld();
+            }
+            strip.clear();
+        }
+    }
+
+    @Test
+    public void componentsRemovedAfterTheChunksAreProcessedOnce() {
+        World world = new World();
+        world.setArchetypeStorage(4);
+        StrippingSystem system = world.setSystem(new StrippingSystem());
+        world.initialize();
+
+        Set<Entity> expected = new HashSet<>();
+        for (int i = 0; i < 20; i++) {
+            Entity e = world.createEntity();
+            e.addComponent(new ComponentX());
+            if (i % 2 == 0)
+                e.addComponent(new ComponentY());
+            e.addToWorld();
+            expected.add(e);
+        }
+        world.process();
+
+        assertEquals(expected.size(), system.processed.size());
+        assertEquals(expected, new HashSet<>(system.processed));
+
+        system.processed.clear();
+        world.process();
+        assertTrue(system.processed.isEmpty());
+        for (Entity e : expected) {
+            assertNull(e.getComponent(ComponentX.class));
+        }
+    }
+
+    static class ChangingSystem extends ChunkProcessingSystem {
+        boolean spawn;
+        final List<Entity> spawned = new ArrayList<>();
+
+        @SuppressWarnings("unchecked")
+        ChangingSystem() {
+            super(Aspect.getAspectForAll(ComponentX.class));
+        }
+
+        @Override
+        protected void process(Chunk chunk) {
+            if (spawn) {
+                for (int i = 0, s = chunk.size(); s > i; i++) {
+                    Entity e = world.createEntity();
+                    e.addComponent(new ComponentY());
+                    e.removeComponent(ComponentY.class);
+                    e.addComponent(new ComponentX());
+                    e.addToWorld();
+                    spawned.add(e);
+                }
+            } else {
+                chunk.getEntity(0).addComponent(new ComponentY());
+            }
+        }
+    }
+
+    @Test
+    public void componentChangesInsideProcessThrow() {
+        World world = new World();
+        world.setArchetypeStorage(4);
+        world.setSystem(new ChangingSystem());
+        world.initialize();
+
+        Entity e = world.createEntity();
+        e.addComponent(new ComponentX());
+        e.addToWorld();
+        try {
+            world.process();
+            fail();
+        } catch (IllegalStateException expected) {
+        }
+        assertNull(e.getComponent(ComponentY.class));
+
+        e.addComponent(new ComponentY());
+        assertNotNull(e.getComponent(ComponentY.class));
+    }
+
+    @Test
+    public void entitiesCreatedInsideProcessGetComponents() {
+        World world = new World();
+        world.setArchetypeStorage(4);
+        ChangingSystem system = world.setSystem(new ChangingSystem());
+        system.spawn = true;
+        world.initialize();
+
+        Entity e = world.createEntity();
+        e.addComponent(new ComponentX());
+        e.addToWorld();
+        world.process();
+        assertEquals(1, system.spawned.size());
+
+        world.process();
+        assertEquals(3, system.spawned.size());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void needsArchetypeStorage() {
+        World world = new World();
+        world.setSystem(new ChunkSystem());
+        world.initialize();
+        world.process();
+    }
+}
@@ -0,0 +1,52 @@
+package com.artemis.systems;
+
+import com.artemis.Aspect;
+import com.artemis.ComponentMapper;
+import com.artemis.World;
+import com.artemis.annotations.Mapper;
+import com.artemis.component.ComponentX;
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class IdProcessingSystemTest {
+
+    static class IdSystem extends IdProcessingSystem {
+        @Mapper ComponentMapper<ComponentX> xm;
+        final Set<Integer> processed = new HashSet<>();
+
+        @SuppressWarnings("unchecked")
+        IdSystem() {
+            super(Aspect.getAspectForAll(ComponentX.class));
+        }
+
+        @Override
+        protected void process(int entityId) {
+            assertTrue(xm.has(entityId));
+            processed.add(entityId);
+        }
+    }
+
+    @Test
+    public void processesIds() {
+        World world = new World();
+        IdSystem system = world.setSystem(new IdSystem());
+        world.initialize();
+
+        Set<Integer> expected = new HashSet<>();
+        for (int i = 0; i < 100; i++) {
+            long handle = world.create();
+            if (i % 3 == 0) {
+                world.getEntityForHandle(handle).addComponent(new ComponentX());
+                expected.add(world.getEntityForHandle(handle).getId());
+            }
+        }
+        world.process();
+
+        assertEquals(expected, system.processed);
+    }
+}
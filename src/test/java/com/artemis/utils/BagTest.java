@@ -9,8 +9,10 @@ import org.junit.runner.JUnitCore;
 
 import java.util.Collections;
 import java.util.Set;
+import java.util.Spliterator;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
 /**
@@ -104,4 +106,61 @@ public class BagTest {
         // Check bag.size();
         assertTrue(bag.size() >= 64);
     }
+
+    @Test
+    public void testTrim() {
+        Bag<String> bag = new Bag<String>();
+        bag.set(1000, "a");
+        bag.set(1000, null);
+        bag.set(10, "b");
+        bag.trim();
+        assertEquals(11, bag.size());
+        assertEquals(11, bag.getCapacity());
+        assertEquals("b", bag.get(10));
+
+        bag.set(10, null);
+        bag.trim();
+        assertTrue(bag.isEmpty());
+        assertEquals(0, bag.getCapacity());
+        bag.set(0, "c");
+        assertEquals("c", bag.get(0));
+    }
+
+    @Test
+    public void testSpliterator() {
+        Bag<Integer> bag = new Bag<Integer>();
+        for (int i = 0; i < 1000; i++) {
+            bag.add(i);
+        }
+
+        Spliterator<Integer> spliterator = bag.spliterator();
+        assertTrue(spliterator.hasCharacteristics(Spliterator.SIZED));
+        assertTrue(spliterator.hasCharacteristics(Spliterator.SUBSIZED));
+        assertEquals(1000, spliterator.getExactSizeIfKnown());
+
+        Spliterator<Integer> prefix = spliterator.trySplit();
+        assertEquals(500, prefix.getExactSizeIfKnown());
+        assertEquals(500, spliterator.getExactSizeIfKnown());
+
+        final int[] sum = new int[1];
+        assertTrue(prefix.tryAdvance(i -> sum[0] += i));
+        prefix.forEachRemaining(i -> sum[0] += i);
+        assertEquals(499 * 500 / 2, sum[0]);
+        assertFalse(prefix.tryAdvance(i -> {}));
+        assertEquals(0, prefix.getExactSizeIfKnown());
+    }
+
+    @Test
+    public void testStreams() {
+        Bag<Integer> bag = new Bag<Integer>();
+        for (int i = 0; i < 100000; i++) {
+            bag.add(i);
+        }
+        assertEquals(100000, bag.stream().count());
+        assertEquals(99999L * 100000 / 2, bag.parallelStream().mapToLong(i -> i).sum());
+
+        ImmutableBag<Integer> immutable = bag;
+        assertEquals(50000, immutable.parallelStream().filter(i -> i % 2 == 0).count());
+        assertTrue(new Bag<Integer>().stream().count() == 0);
+    }
 }
@@ -0,0 +1,130 @@
+package com.artemis.utils;
+
+import org.junit.Test;
+
+import java.util.BitSet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class BitTableTest {
+
+    @Test
+    public void testSetGetClear() {
+        BitTable table = new BitTable(4);
+        assertFalse(table.get(0, 0));
+        assertTrue(table.isEmpty(1 << 20));
+
+        table.set(3, 5);
+        table.set(3, 63);
+        table.set(4, 0);
+        assertTrue(table.get(3, 5));
+        assertTrue(table.get(3, 63));
+        assertFalse(table.get(3, 0));
+        assertFalse(table.get(2, 5));
+        assertTrue(table.get(4, 0));
+        assertEquals(1, table.getWordsPerRow());
+        assertEquals(1, table.getPageCount());
+
+        table.clear(3, 5);
+        assertFalse(table.get(3, 5));
+        table.clearRow(3);
+        assertTrue(table.isEmpty(3));
+        assertFalse(table.isEmpty(4));
+
+        table.clear(100000, 1);
+        table.clearRow(100000);
+        assertEquals(1, table.getPageCount());
+    }
+
+    @Test
+    public void testWidenKeepsRows() {
+        BitTable table = new BitTable(4);
+        for (int row = 0; row < 40; row++) {
+            table.set(row, row);
+        }
+        table.set(7, 130);
+        assertEquals(3, table.getWordsPerRow());
+
+        for (int row = 0; row < 40; row++) {
+            assertTrue(table.get(row, row));
+            assertEquals(row, table.nextSetBit(row, 0));
+        }
+        assertTrue(table.get(7, 130));
+        assertEquals(130, table.nextSetBit(7, 8));
+        assertEquals(-1, table.nextSetBit(7, 131));
+        assertEquals(-1, table.nextSetBit(8, 9));
+    }
+
+    @Test
+    public void testMasks() {
+        BitTable table = new BitTable();
+        table.set(1, 2);
+        table.set(1, 70);
+
+        BitSet all = new BitSet();
+        all.set(2);
+        all.set(70);
+        assertTrue(table.containsAll(1, all.toLongArray()));
+        assertTrue(table.containsAll(1, new long[0]));
+        all.set(200);
+        assertFalse(table.containsAll(1, all.toLongArray()));
+        assertFalse(table.containsAll(5000, new long[] {1}));
+
+        BitSet one = new BitSet();
+        one.set(3);
+        assertFalse(table.intersects(1, one.toLongArray()));
+        one.set(70);
+        assertTrue(table.intersects(1, one.toLongArray()));
+        assertFalse(table.intersects(2, one.toLongArray()));
+    }
+
+    @Test
+    public void testGetWord() {
+        BitTable table = new BitTable();
+        table.set(1, 2);
+        table.set(1, 70);
+        assertEquals(1L << 2, table.getWord(1, 0));
+        assertEquals(1L << 6, table.getWord(1, 1));
+        assertEquals(0, table.getWord(1, 2));
+        assertEquals(0, table.getWord(2, 0));
+        assertEquals(0, table.getWord(5000, 0));
+    }
+
+    @Test
+    public void testRowAsBitSet() {
+        BitTable table = new BitTable();
+        table.set(9, 1);
+        table.set(9, 99);
+
+        BitSet expected = new BitSet();
+        expected.set(1);
+        expected.set(99);
+        BitSet fill = new BitSet();
+        fill.set(50);
+        assertEquals(expected, table.getRow(9, fill));
+        assertTrue(table.rowEquals(9, expected));
+
+        expected.set(2);
+        assertFalse(table.rowEquals(9, expected));
+        assertTrue(table.rowEquals(10, new BitSet()));
+    }
+
+    @Test
+    public void testTrim() {
+        BitTable table = new BitTable(4);
+        table.set(5, 1);
+        table.set(1000, 1);
+        assertEquals(2, table.getPageCount());
+
+        table.clearRow(1000);
+        table.trim();
+        assertEquals(1, table.getPageCount());
+        assertTrue(table.get(5, 1));
+        assertEquals(table.getPageSize(), table.getCapacity());
+
+        table.set(1000, 2);
+        assertTrue(table.get(1000, 2));
+    }
+}
@@ -0,0 +1,105 @@
+package com.artemis.utils;
+
+import org.junit.Test;
+
+import java.util.NoSuchElementException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class IntBagTest {
+
+    @Test
+    public void testAddGetRemoveLast() {
+        IntBag bag = new IntBag(0);
+        assertTrue(bag.isEmpty());
+
+        for (int i = 0; i < 1000; i++) {
+            bag.add(i);
+        }
+        assertEquals(1000, bag.size());
+        assertTrue(bag.getCapacity() >= 1000);
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(i, bag.get(i));
+        }
+
+        for (int i = 999; i >= 0; i--) {
+            assertEquals(i, bag.removeLast());
+        }
+        assertTrue(bag.isEmpty());
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void testRemoveLastEmpty() {
+        new IntBag().removeLast();
+    }
+
+    @Test(expected = ArrayIndexOutOfBoundsException.class)
+    public void testGetOutOfRange() {
+        IntBag bag = new IntBag();
+        bag.add(1);
+        bag.get(1);
+    }
+
+    @Test
+    public void testDuplicatesAreKept() {
+        IntBag bag = new IntBag();
+        bag.add(7);
+        bag.add(7);
+        assertEquals(2, bag.size());
+        assertTrue(bag.contains(7));
+        assertFalse(bag.contains(8));
+    }
+
+    @Test
+    public void testRemoveMovesLast() {
+        IntBag bag = new IntBag();
+        bag.add(1);
+        bag.add(2);
+        bag.add(3);
+        assertEquals(1, bag.remove(0));
+        assertEquals(2, bag.size());
+        assertEquals(3, bag.get(0));
+        assertEquals(2, bag.get(1));
+    }
+
+    @Test
+    public void testSetGrows() {
+        IntBag bag = new IntBag(4);
+        bag.set(100, 5);
+        assertEquals(101, bag.size());
+        assertEquals(5, bag.get(100));
+        assertEquals(0, bag.get(50));
+        assertEquals(5, bag.getData()[100]);
+
+        bag.clear();
+        assertTrue(bag.isEmpty());
+        assertTrue(bag.getCapacity() > 100);
+    }
+
+    @Test
+    public void testToString() {
+        IntBag bag = new IntBag();
+        assertEquals("[]", bag.toString());
+        bag.add(3);
+        bag.add(4);
+        assertEquals("[3, 4]", bag.toString());
+    }
+
+    @Test
+    public void testTrim() {
+        IntBag bag = new IntBag();
+        for (int i = 0; i < 1000; i++) {
+            bag.add(i);
+        }
+        for (int i = 0; i < 990; i++) {
+            bag.removeLast();
+        }
+        bag.trim();
+        assertEquals(10, bag.getCapacity());
+        assertEquals(9, bag.get(9));
+        bag.add(10);
+        assertEquals(11, bag.size());
+    }
+}
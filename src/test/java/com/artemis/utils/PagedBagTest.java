@@ -0,0 +1,110 @@
+package com.artemis.utils;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class PagedBagTest {
+
+    @Test
+    public void testSetGet() {
+        PagedBag<String> bag = new PagedBag<>(4);
+        assertTrue(bag.isEmpty());
+        assertNull(bag.get(0));
+        assertNull(bag.get(1 << 20));
+
+        for (int i = 0; i < 1000; i++) {
+            bag.set(i, "e" + i);
+        }
+        assertEquals(1000, bag.size());
+        for (int i = 0; i < 1000; i++) {
+            assertEquals("e" + i, bag.get(i));
+        }
+        assertNull(bag.get(1000));
+        assertEquals(63, bag.getPageCount());
+        assertEquals(63 * 16, bag.getCapacity());
+    }
+
+    @Test
+    public void testPagesAreAllocatedLazily() {
+        PagedBag<String> bag = new PagedBag<>(4);
+        bag.set(100000, "far");
+        assertEquals(1, bag.getPageCount());
+        assertEquals(100001, bag.size());
+        assertSame("far", bag.get(100000));
+        assertNull(bag.get(99999));
+        assertTrue(bag.isIndexWithinBounds(100001));
+        assertFalse(bag.isIndexWithinBounds(99999));
+        assertFalse(bag.isIndexWithinBounds(0));
+
+        // clearing an unset index does not allocate
+        bag.set(0, null);
+        bag.set(1 << 24, null);
+        assertEquals(1, bag.getPageCount());
+        assertEquals(100001, bag.size());
+    }
+
+    @Test
+    public void testGrowingKeepsPages() {
+        PagedBag<Object> bag = new PagedBag<>(2);
+        Object first = new Object();
+        bag.set(0, first);
+        int directory = bag.getPageDirectoryLength();
+
+        for (int i = 1; i < 10000; i++) {
+            bag.set(i, new Object());
+        }
+        assertTrue(bag.getPageDirectoryLength() > directory);
+        assertSame(first, bag.get(0));
+    }
+
+    @Test
+    public void testClear() {
+        PagedBag<String> bag = new PagedBag<>();
+        bag.set(5, "five");
+        bag.set(5000, "five thousand");
+        bag.clear();
+        assertTrue(bag.isEmpty());
+        assertNull(bag.get(5));
+        assertNull(bag.get(5000));
+        assertEquals(2, bag.getPageCount());
+        assertEquals(1024, bag.getPageSize());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidPageShift() {
+        new PagedBag<>(31);
+    }
+
+    @Test
+    public void testTrim() {
+        PagedBag<String> bag = new PagedBag<>(4);
+        for (int i = 0; i < 1000; i++) {
+            bag.set(i, "e" + i);
+        }
+        for (int i = 20; i < 1000; i++) {
+            bag.set(i, null);
+        }
+        bag.set(5, null);
+        bag.set(10, null);
+        bag.trim();
+        assertEquals(2, bag.getPageCount());
+        assertEquals(2, bag.getPageDirectoryLength());
+        assertEquals(20, bag.size());
+        assertEquals("e19", bag.get(19));
+        assertNull(bag.get(500));
+
+        for (int i = 0; i < 20; i++) {
+            bag.set(i, null);
+        }
+        bag.trim();
+        assertTrue(bag.isEmpty());
+        assertEquals(0, bag.getPageCount());
+        bag.set(100, "again");
+        assertEquals("again", bag.get(100));
+    }
+}